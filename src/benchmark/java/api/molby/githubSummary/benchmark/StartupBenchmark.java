@@ -0,0 +1,134 @@
+package api.molby.githubSummary.benchmark;
+
+import api.molby.githubSummary.client.GitHubStandInServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reports time to first successful request for each built variant of the application: the plain boot
+ * jar, the extracted jar with its CDS archive (AOT processed when built with -PfastStart) and the native
+ * image if one has been built.  GitHub is replaced by a local stand in so only start up is measured.
+ * Run with gradle startupBenchmark, add -PfastStart for the AOT variants.
+ */
+public class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(5);
+
+    private static final String USER = """
+            {"login":"octocat","name":"The Octocat","avatar_url":"https://avatars.githubusercontent.com/u/583231?v=4",
+             "location":"San Francisco","email":null,"url":"https://api.github.com/users/octocat",
+             "created_at":"2011-01-25T18:44:36Z","public_repos":2}
+            """;
+    private static final String REPOSITORIES = """
+            [{"name":"boysenberry-repo-1","url":"https://api.github.com/repos/octocat/boysenberry-repo-1",
+              "updated_at":"2024-01-01T00:00:00Z"},
+             {"name":"hello-world","url":"https://api.github.com/repos/octocat/hello-world",
+              "updated_at":"2024-01-01T00:00:00Z"}]
+            """;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        new StartupBenchmark().run();
+    }
+
+    private void run() throws Exception {
+        String java = System.getProperty("benchmark.java", "java");
+        File bootJar = new File(System.getProperty("benchmark.bootJar"));
+        File fastStartDir = new File(System.getProperty("benchmark.fastStartDir"));
+        boolean aot = Boolean.parseBoolean(System.getProperty("benchmark.aot", "false"));
+        File nativeImage = new File(System.getProperty("benchmark.nativeImage"));
+        int runs = Integer.getInteger("benchmark.runs", 3);
+
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant("jvm", bootJar.getParentFile(), List.of(java, "-jar", bootJar.getAbsolutePath())));
+        if (new File(fastStartDir, "application.jsa").exists()) {
+            variants.add(new Variant(aot ? "jvm-aot-cds" : "jvm-cds", fastStartDir, List.of(java,
+                    "-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=" + aot, "-jar", "application.jar")));
+        }
+        if (nativeImage.canExecute()) {
+            variants.add(new Variant("native", nativeImage.getParentFile(), List.of(nativeImage.getAbsolutePath())));
+        }
+
+        try (GitHubStandInServer gitHubStandInServer = new GitHubStandInServer()) {
+            gitHubStandInServer.respond("/users/octocat", body -> GitHubStandInServer.CannedResponse.ok(USER));
+            gitHubStandInServer.respond("/users/octocat/repos", body -> GitHubStandInServer.CannedResponse.ok(REPOSITORIES));
+            System.out.printf("%-12s %10s %10s %10s%n", "variant", "min ms", "median ms", "max ms");
+            for (Variant variant : variants) {
+                long[] millis = new long[runs];
+                for (int i = 0; i < runs; i++) {
+                    millis[i] = timeToFirstRequest(variant, gitHubStandInServer.getBaseUrl());
+                }
+                Arrays.sort(millis);
+                System.out.printf("%-12s %10d %10d %10d%n", variant.name(), millis[0], millis[runs / 2], millis[runs - 1]);
+            }
+        }
+    }
+
+    /**
+     * Start the variant and poll the summary endpoint until it returns a summary.
+     * @return milliseconds from process start to the first successful response
+     */
+    private long timeToFirstRequest(Variant variant, String gitHubUrl) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(variant.command());
+        command.add("--server.port=" + port);
+        command.add("--management.server.port=0");
+        command.add("--github.api.url=" + gitHubUrl);
+        URI uri = URI.create("http://localhost:" + port + "/userSummary/v1/octocat");
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(variant.directory())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(variant.name() + " exited with " + process.exitValue());
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    }
+                }
+                catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(POLL_INTERVAL);
+            }
+            throw new IllegalStateException(variant.name() + " did not answer within " + STARTUP_TIMEOUT);
+        }
+        finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Variant(String name, File directory, List<String> command) {}
+}
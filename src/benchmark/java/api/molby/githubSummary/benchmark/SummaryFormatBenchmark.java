@@ -0,0 +1,117 @@
+package api.molby.githubSummary.benchmark;
+
+import api.molby.githubSummary.api.GitHubUserSummaryDTO;
+import api.molby.githubSummary.api.GithubRepositoryResponseDTO;
+import api.molby.githubSummary.api.SummaryFieldSelection;
+import api.molby.githubSummary.config.JacksonConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the size and encode/decode time of summaries written as JSON, CBOR and Smile.  Mappers are
+ * configured the same way as the application's message converters.  Run with
+ * gradle summaryFormatBenchmark.
+ */
+public class SummaryFormatBenchmark {
+
+    private static final int[] REPOSITORY_COUNTS = {10, 1_000, 20_000};
+    // roughly the same amount of work for every summary size
+    private static final long REPOSITORIES_PER_MEASUREMENT = 2_000_000L;
+
+    public static void main(String[] args) throws IOException {
+        JacksonConfig jacksonConfig = new JacksonConfig();
+        Map<String, ObjectMapper> objectMappers = new LinkedHashMap<>();
+        objectMappers.put("json", applicationBuilder(jacksonConfig).build());
+        objectMappers.put("cbor", jacksonConfig.cborHttpMessageConverter(applicationBuilder(jacksonConfig)).getObjectMapper());
+        objectMappers.put("smile", jacksonConfig.smileHttpMessageConverter(applicationBuilder(jacksonConfig)).getObjectMapper());
+
+        System.out.printf("%-6s %8s %12s %8s %12s %12s%n", "format", "repos", "bytes", "vs json", "encode us", "decode us");
+        for (int repositoryCount : REPOSITORY_COUNTS) {
+            GitHubUserSummaryDTO gitHubUserSummaryDTO = summary(repositoryCount);
+            int iterations = (int) Math.max(10, REPOSITORIES_PER_MEASUREMENT / repositoryCount);
+            int jsonBytes = 0;
+            for (Map.Entry<String, ObjectMapper> entry : objectMappers.entrySet()) {
+                ObjectMapper objectMapper = entry.getValue();
+                ObjectWriter objectWriter = objectMapper.writer(SummaryFieldSelection.all().toFilterProvider());
+                byte[] encoded = objectWriter.writeValueAsBytes(gitHubUserSummaryDTO);
+                if (!gitHubUserSummaryDTO.equals(objectMapper.readValue(encoded, GitHubUserSummaryDTO.class))) {
+                    throw new IllegalStateException(entry.getKey() + " did not round trip");
+                }
+                if (jsonBytes == 0) {
+                    jsonBytes = encoded.length;
+                }
+                // first pass warms up the jit, the second is reported
+                measureEncode(objectWriter, gitHubUserSummaryDTO, iterations);
+                double encodeMicros = measureEncode(objectWriter, gitHubUserSummaryDTO, iterations);
+                measureDecode(objectMapper, encoded, iterations);
+                double decodeMicros = measureDecode(objectMapper, encoded, iterations);
+                System.out.printf("%-6s %8d %12d %7.0f%% %12.1f %12.1f%n", entry.getKey(), repositoryCount,
+                        encoded.length, 100.0 * encoded.length / jsonBytes, encodeMicros, decodeMicros);
+            }
+        }
+    }
+
+    private static Jackson2ObjectMapperBuilder applicationBuilder(JacksonConfig jacksonConfig) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        jacksonConfig.fieldSelectionFilterCustomizer().customize(builder);
+        return builder;
+    }
+
+    private static double measureEncode(ObjectWriter objectWriter, GitHubUserSummaryDTO gitHubUserSummaryDTO,
+                                        int iterations) throws IOException {
+        long totalBytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            totalBytes += objectWriter.writeValueAsBytes(gitHubUserSummaryDTO).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole(totalBytes);
+        return elapsed / 1000.0 / iterations;
+    }
+
+    private static double measureDecode(ObjectMapper objectMapper, byte[] encoded, int iterations) throws IOException {
+        long totalRepositories = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            totalRepositories += objectMapper.readValue(encoded, GitHubUserSummaryDTO.class).getRepos().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole(totalRepositories);
+        return elapsed / 1000.0 / iterations;
+    }
+
+    // keeps results live so the jit cannot remove the measured work
+    private static void blackhole(long value) {
+        if (value == Long.MIN_VALUE) {
+            System.out.println(value);
+        }
+    }
+
+    private static GitHubUserSummaryDTO summary(int repositoryCount) {
+        List<GithubRepositoryResponseDTO> repositories = IntStream.range(0, repositoryCount)
+                .mapToObj(i -> GithubRepositoryResponseDTO.builder()
+                        .name("repository-" + i)
+                        .url("https://api.github.com/repos/octocat/repository-" + i)
+                        .build())
+                .toList();
+        return GitHubUserSummaryDTO.builder()
+                .userName("octocat")
+                .displayName("The Octocat")
+                .avatar("https://avatars.githubusercontent.com/u/583231?v=4")
+                .geoLocation("San Francisco")
+                .email("octocat@github.com")
+                .url("https://api.github.com/users/octocat")
+                .createdAt(OffsetDateTime.of(2011, 1, 25, 18, 44, 36, 0, ZoneOffset.UTC))
+                .repos(repositories)
+                .totalRepos(repositoryCount)
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package api.molby.githubSummary.accesslog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous access log.  Request threads hand records to a bounded lock-free ring buffer and
+ * return straight away, a single writer thread formats them as JSON lines and writes them to the
+ * "accesslog" logger.  When the writer falls behind and the buffer is full records are dropped and
+ * counted rather than holding up requests.  Only a sample of requests (access-log.sample-rate) is
+ * recorded, server errors are always recorded.
+ */
+@Component
+@ConditionalOnProperty(name = "access-log.enabled", havingValue = "true", matchIfMissing = true)
+public class AccessLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+    private static final Logger accessLogger = LoggerFactory.getLogger("accesslog");
+
+    // how long the writer sleeps when there is nothing to write
+    private static final long IDLE_PARK_NANOS = Duration.ofMillis(10).toNanos();
+
+    private final AccessLogRingBuffer<AccessLogRecord> ringBuffer;
+    private final double sampleRate;
+    private final Consumer<String> lineWriter;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AccessLog(MeterRegistry meterRegistry,
+                     @Value("${access-log.buffer-size:8192}") int bufferSize,
+                     @Value("${access-log.sample-rate:1.0}") double sampleRate) {
+        this(meterRegistry, bufferSize, sampleRate, accessLogger::info);
+    }
+
+    AccessLog(MeterRegistry meterRegistry, int bufferSize, double sampleRate, Consumer<String> lineWriter) {
+        this.ringBuffer = new AccessLogRingBuffer<>(bufferSize);
+        this.sampleRate = sampleRate;
+        this.lineWriter = lineWriter;
+        this.writtenCounter = Counter.builder("access.log.written")
+                .description("Access log records written")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("access.log.dropped")
+                .description("Access log records dropped because the writer fell behind")
+                .register(meterRegistry);
+        this.writerThread = new Thread(this::writeRecords, "access-log-writer");
+        this.writerThread.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        writerThread.start();
+        log.info("Access log started with a buffer of {} records and a sample rate of {}.",
+                ringBuffer.capacity(), sampleRate);
+    }
+
+    /**
+     * Stop the writer once everything already buffered has been written.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(Duration.ofSeconds(5).toMillis());
+    }
+
+    /**
+     * @param status response status
+     * @return true if a request completing with the status should be recorded
+     */
+    boolean isSampled(int status) {
+        return status >= 500 || sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Queue a record for writing without blocking.
+     * @param accessLogRecord record to write
+     */
+    void record(AccessLogRecord accessLogRecord) {
+        if (!ringBuffer.offer(accessLogRecord)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void writeRecords() {
+        while (true) {
+            AccessLogRecord accessLogRecord = ringBuffer.poll();
+            if (accessLogRecord == null) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                lineWriter.accept(objectMapper.writeValueAsString(accessLogRecord));
+                writtenCounter.increment();
+            }
+            catch (JsonProcessingException | RuntimeException e) {
+                // never let a bad record stop the writer
+                droppedCounter.increment();
+                log.warn("Unable to write access log record.  message: {}.", e.getMessage());
+            }
+        }
+    }
+}
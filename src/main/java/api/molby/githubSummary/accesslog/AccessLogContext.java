@@ -0,0 +1,116 @@
+package api.molby.githubSummary.accesslog;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outcome of the request being handled on the current thread, filled in by the service and the
+ * github clients and written to the access log once the response completes.  The context is bound
+ * to the request thread by AccessLogFilter and carried over to async threads, e.g. for streamed
+ * responses, by the task decorator in AccessLogConfig.  The static record methods do nothing when
+ * no context is bound, e.g. on background refresh threads.
+ */
+public final class AccessLogContext {
+
+    private static final ThreadLocal<AccessLogContext> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    // written by the request thread, read once the response completes
+    private volatile String userName;
+    private volatile CacheOutcome cacheOutcome;
+
+    AccessLogContext(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * @param userName github user the current request is for
+     */
+    public static void recordUserName(String userName) {
+        AccessLogContext accessLogContext = CURRENT.get();
+        if (accessLogContext != null) {
+            accessLogContext.userName = userName;
+        }
+    }
+
+    /**
+     * @param cacheOutcome how the cache was used for the current request, replacing any earlier outcome
+     */
+    public static void recordCacheOutcome(CacheOutcome cacheOutcome) {
+        AccessLogContext accessLogContext = CURRENT.get();
+        if (accessLogContext != null) {
+            accessLogContext.cacheOutcome = cacheOutcome;
+        }
+    }
+
+    /**
+     * Count a github call made for the current request.
+     */
+    public static void recordUpstreamCall() {
+        AccessLogContext accessLogContext = CURRENT.get();
+        if (accessLogContext != null) {
+            accessLogContext.upstreamCalls.incrementAndGet();
+        }
+    }
+
+    /**
+     * Wrap a task so it runs with the context of the thread submitting it.
+     * @param task task to be run on another thread
+     * @return task binding the current context while it runs, the task itself if there is none
+     */
+    public static Runnable propagate(Runnable task) {
+        AccessLogContext accessLogContext = CURRENT.get();
+        if (accessLogContext == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = accessLogContext.bind()) {
+                task.run();
+            }
+        };
+    }
+
+    Scope bind() {
+        AccessLogContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    String getUserName() {
+        return userName;
+    }
+
+    CacheOutcome getCacheOutcome() {
+        return cacheOutcome;
+    }
+
+    int getUpstreamCalls() {
+        return upstreamCalls.get();
+    }
+
+    /**
+     * Binding of a context to the current thread, restoring the previous binding when closed.
+     */
+    static final class Scope implements AutoCloseable {
+
+        private final AccessLogContext previous;
+
+        private Scope(AccessLogContext previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            }
+            else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package api.molby.githubSummary.accesslog;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds an AccessLogContext to each request and hands the completed record to the AccessLog.
+ * Async requests, e.g. streamed summaries, are recorded once the async response completes.
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private final AccessLog accessLog;
+
+    public AccessLogFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AccessLogContext accessLogContext = new AccessLogContext(System.nanoTime());
+        ByteCountingResponse byteCountingResponse = new ByteCountingResponse(response);
+        try (AccessLogContext.Scope scope = accessLogContext.bind()) {
+            filterChain.doFilter(request, byteCountingResponse);
+        }
+        finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(request, byteCountingResponse, accessLogContext));
+            }
+            else {
+                complete(request, byteCountingResponse, accessLogContext);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, ByteCountingResponse response, AccessLogContext accessLogContext) {
+        int status = response.getStatus();
+        if (!accessLog.isSampled(status)) {
+            return;
+        }
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - accessLogContext.getStartNanos());
+        accessLog.record(new AccessLogRecord(
+                Instant.now().toString(),
+                request.getMethod(),
+                request.getRequestURI(),
+                status,
+                accessLogContext.getUserName(),
+                accessLogContext.getCacheOutcome(),
+                accessLogContext.getUpstreamCalls(),
+                response.bytesWritten,
+                latencyMicros));
+    }
+
+    /**
+     * Records an async request once its response has completed.
+     */
+    private class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final ByteCountingResponse response;
+        private final AccessLogContext accessLogContext;
+
+        private CompletionListener(HttpServletRequest request, ByteCountingResponse response,
+                                   AccessLogContext accessLogContext) {
+            this.request = request;
+            this.response = response;
+            this.accessLogContext = accessLogContext;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete(request, response, accessLogContext);
+        }
+
+        // errors and timeouts are followed by onComplete
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    /**
+     * Response counting the body bytes written.  Characters written through the writer are counted
+     * as one byte each, the responses of this api are ascii json.
+     */
+    private static final class ByteCountingResponse extends HttpServletResponseWrapper {
+
+        // written by whichever thread is writing the response, read once it completes
+        private volatile long bytesWritten;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        private ByteCountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                // the wrapped writer is not buffered so nothing is lost when the container flushes its own
+                writer = new PrintWriter(new CountingWriter(super.getWriter()));
+            }
+            return writer;
+        }
+
+        private final class CountingOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            private CountingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+                bytesWritten++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+                bytesWritten += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+
+        private final class CountingWriter extends Writer {
+
+            private final Writer delegate;
+
+            private CountingWriter(Writer delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                delegate.write(cbuf, off, len);
+                bytesWritten += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package api.molby.githubSummary.accesslog;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Single line of the access log.
+ * @param timestamp time the request completed, ISO-8601
+ * @param method http method
+ * @param path request path
+ * @param status response status
+ * @param userName github user the request was for, null for other requests
+ * @param cacheOutcome how the cache was used, null if the cache was not consulted
+ * @param upstreamCalls github calls made for the request
+ * @param bytes response body bytes written
+ * @param latencyMicros time from receiving the request to completing the response
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AccessLogRecord(String timestamp, String method, String path, int status, String userName,
+                              CacheOutcome cacheOutcome, int upstreamCalls, long bytes, long latencyMicros) {}
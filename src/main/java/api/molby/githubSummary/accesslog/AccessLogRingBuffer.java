@@ -0,0 +1,86 @@
+package api.molby.githubSummary.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue with many producers and a single consumer.  Each slot carries a
+ * sequence number telling producers and the consumer whose turn it is, so producers only contend
+ * on a single compare and set of the tail and never wait.  When the buffer is full offer fails
+ * straight away instead of blocking.
+ * @param <T> type of the queued items
+ */
+class AccessLogRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> items;
+    // a slot is free for the producer at position p when its sequence is p, and holds an item for
+    // the consumer at position p when its sequence is p + 1
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // only touched by the consumer
+    private long head;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    AccessLogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.items = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an item if there is room.  Safe to call from any thread.
+     * @param item item to add
+     * @return false if the buffer was full and the item was dropped
+     */
+    boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items.lazySet(slot, item);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            }
+            else if (difference < 0) {
+                // the consumer has not freed this slot yet
+                return false;
+            }
+            // otherwise another producer claimed the position first, try the next one
+        }
+    }
+
+    /**
+     * Take the oldest item.  Must only be called from the single consumer thread.
+     * @return oldest item, null if empty
+     */
+    T poll() {
+        int slot = (int) (head & mask);
+        if (sequences.get(slot) != head + 1) {
+            return null;
+        }
+        T item = items.get(slot);
+        items.lazySet(slot, null);
+        // free the slot for the producer one lap ahead
+        sequences.set(slot, head + mask + 1);
+        head++;
+        return item;
+    }
+
+    /**
+     * @return number of slots
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
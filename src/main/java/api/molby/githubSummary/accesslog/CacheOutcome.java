@@ -0,0 +1,23 @@
+package api.molby.githubSummary.accesslog;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * How the summary cache was used to answer a request, as recorded in the access log.
+ */
+public enum CacheOutcome {
+
+    // answered from a fresh cached summary, or the not found cache, without calling github
+    HIT,
+    // a cached summary outside the freshness window was refreshed from github
+    STALE,
+    // nothing usable was cached, the summary was fetched from github
+    MISS,
+    // github could not be reached so a stale cached summary was returned
+    FALLBACK;
+
+    @JsonValue
+    public String toJson() {
+        return name().toLowerCase();
+    }
+}
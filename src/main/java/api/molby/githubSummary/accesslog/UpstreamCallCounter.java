@@ -0,0 +1,25 @@
+package api.molby.githubSummary.accesslog;
+
+import api.molby.githubSummary.quota.ClientUsage;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+
+/**
+ * Counts the github calls made for the request being handled on the current thread, for the access
+ * log and for the quota of the client making the request.
+ */
+@Component
+public class UpstreamCallCounter implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        AccessLogContext.recordUpstreamCall();
+        ClientUsage.recordUpstreamCall();
+        return execution.execute(request, body);
+    }
+}
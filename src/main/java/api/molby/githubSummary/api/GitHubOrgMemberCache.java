@@ -0,0 +1,42 @@
+package api.molby.githubSummary.api;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/**
+ * Component to handle caching of organization member lists.  Member lists are kept apart from
+ * the user summaries, so a repeat organization request costs a member list lookup plus a cache
+ * lookup per member rather than a walk through every page of members on GitHub.
+ */
+@Component
+public class GitHubOrgMemberCache {
+
+    public static final String CACHE_NAME = "githubOrgMembers";
+
+    /**
+     * Return the member logins of an organization from the cache.  As with GitHubUserSummaryCache
+     * this is a read only operation, cacheMembers must be called to add an entry.
+     * @param orgName Organization that is the key for the cache
+     * @return Cached member logins or null if the organization is not in the cache.
+     */
+    @Cacheable(cacheNames = CACHE_NAME, key = "#orgName", unless = "#result == null")
+    public List<String> getMembersFromCache(String orgName) {
+        return null;
+    }
+
+    @CachePut(value = CACHE_NAME, key = "#orgName")
+    public List<String> cacheMembers(String orgName, List<String> memberLogins) {
+        return memberLogins;
+    }
+
+    /**
+     * Remove an organization from the cache, the next request for it fetches the members from github.
+     * @param orgName Organization that is the key for the cache
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#orgName")
+    public void evict(String orgName) {
+    }
+}
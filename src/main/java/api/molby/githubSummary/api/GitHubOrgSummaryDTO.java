@@ -0,0 +1,33 @@
+package api.molby.githubSummary.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+import java.util.List;
+
+/**
+ * Summaries of a page of the members of a github organization.
+ * Response for API request.
+ */
+@Data
+@Builder(toBuilder = true)
+@Jacksonized
+@Schema(title = "Github Organization Summary",
+        description = "Summary information about a page of the members of a given organization.")
+public class GitHubOrgSummaryDTO {
+
+    @Schema(title = "Organization Name", description = "Name used for the Github organization", example = "github")
+    private String orgName;
+    @Schema(title = "Members", description = "Summaries of the members on this page, in the order returned by GitHub")
+    private List<GitHubUserSummaryDTO> members;
+    @Schema(title = "Unavailable Members", description = "Members on this page whose summary could not be " +
+            "fetched from GitHub, they can be requested again individually.", example = "[\"octocat\"]")
+    private List<String> unavailableMembers;
+    @Schema(title = "Total Members", description = "Total number of members of the organization visible to " +
+            "this service.", example = "120")
+    private Integer totalMembers;
+    @Schema(title = "Next Cursor", description = "Cursor for the next page of members, null if there " +
+            "are no more members.", example = "b2Zmc2V0OjMw")
+    private String nextCursor;
+}
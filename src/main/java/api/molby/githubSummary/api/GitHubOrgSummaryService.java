@@ -0,0 +1,152 @@
+package api.molby.githubSummary.api;
+
+import api.molby.githubSummary.accesslog.AccessLogContext;
+import api.molby.githubSummary.accesslog.CacheOutcome;
+import api.molby.githubSummary.client.GitHubApiClient;
+import api.molby.githubSummary.client.UpstreamPriority;
+import api.molby.githubSummary.exception.GitHubApiAccessException;
+import api.molby.githubSummary.exception.GitHubOrgNotFoundException;
+import api.molby.githubSummary.exception.GitHubUserNotFoundException;
+import api.molby.githubSummary.exception.RequestTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Service class for github organization summary api.  The member list of an organization is
+ * cached separately, the summary of each member comes from GitHubUserSummaryService so cached
+ * user summaries are reused and members fetched here are cached for later user requests.
+ */
+@Service
+public class GitHubOrgSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubOrgSummaryService.class);
+
+    private final GitHubOrgMemberCache gitHubOrgMemberCache;
+    private final GitHubApiClient gitHubApiClient;
+    private final GitHubUserSummaryService gitHubUserSummaryService;
+    private final TaskDecorator requestContextTaskDecorator;
+    private final int memberParallelism;
+
+    public GitHubOrgSummaryService(GitHubOrgMemberCache gitHubOrgMemberCache,
+                                   GitHubApiClient gitHubApiClient,
+                                   GitHubUserSummaryService gitHubUserSummaryService,
+                                   TaskDecorator requestContextTaskDecorator,
+                                   @Value("${github.org.member-parallelism:6}") int memberParallelism) {
+        this.gitHubOrgMemberCache = gitHubOrgMemberCache;
+        this.gitHubApiClient = gitHubApiClient;
+        this.gitHubUserSummaryService = gitHubUserSummaryService;
+        this.requestContextTaskDecorator = requestContextTaskDecorator;
+        this.memberParallelism = memberParallelism;
+    }
+
+    /**
+     * Fetch summaries for a page of the members of an organization.  Member summaries are fetched
+     * in parallel, at most member-parallelism at a time per request.  GitHub calls for members are
+     * made as bulk work so a large organization does not hold up single user requests.  Members
+     * whose summary could not be fetched are listed as unavailable rather than failing the request.
+     * @param orgName github organization name
+     * @param offset offset of the first member to return
+     * @param limit maximum number of members to return
+     * @param requiredParts parts of each member summary the request needs
+     * @return Summaries of the requested page of members
+     */
+    public GitHubOrgSummaryDTO fetchOrgSummary(String orgName, int offset, int limit, Set<SummaryPart> requiredParts)
+            throws GitHubApiAccessException, GitHubOrgNotFoundException {
+        orgName = orgName.toLowerCase();
+        List<String> cachedMemberLogins = gitHubOrgMemberCache.getMembersFromCache(orgName);
+        List<String> memberLogins = cachedMemberLogins == null ? fetchMembers(orgName) : cachedMemberLogins;
+        int from = Math.min(offset, memberLogins.size());
+        int to = (int) Math.min((long) offset + limit, memberLogins.size());
+        List<String> pageLogins = memberLogins.subList(from, to);
+
+        GitHubUserSummaryDTO[] memberSummaries = fetchMemberSummaries(pageLogins, requiredParts);
+        List<GitHubUserSummaryDTO> members = new ArrayList<>();
+        List<String> unavailableMembers = new ArrayList<>();
+        for (int i = 0; i < pageLogins.size(); i++) {
+            if (memberSummaries[i] == null) {
+                unavailableMembers.add(pageLogins.get(i));
+            }
+            else {
+                members.add(memberSummaries[i]);
+            }
+        }
+        // member lookups overwrite these, the access log reports the organization and its member list
+        AccessLogContext.recordUserName(orgName);
+        AccessLogContext.recordCacheOutcome(cachedMemberLogins == null ? CacheOutcome.MISS : CacheOutcome.HIT);
+        return GitHubOrgSummaryDTO.builder()
+                .orgName(orgName)
+                .members(members)
+                .unavailableMembers(unavailableMembers)
+                .totalMembers(memberLogins.size())
+                .nextCursor(to < memberLogins.size() ? RepositoryCursor.encode(to) : null)
+                .build();
+    }
+
+    private List<String> fetchMembers(String orgName) throws GitHubApiAccessException, GitHubOrgNotFoundException {
+        log.debug("Fetching members of organization {} from github.", orgName);
+        List<String> memberLogins;
+        try {
+            memberLogins = List.copyOf(gitHubApiClient.fetchOrganizationMembers(orgName));
+        }
+        catch (GitHubApiAccessException e) {
+            if (e.getRootCause().getStatusCode() == HttpStatus.NOT_FOUND) {
+                throw new GitHubOrgNotFoundException(orgName);
+            }
+            throw e;
+        }
+        gitHubOrgMemberCache.cacheMembers(orgName, memberLogins);
+        return memberLogins;
+    }
+
+    /**
+     * Fetch the summary of each member on a virtual thread, with a semaphore bounding how many
+     * are being fetched at once.  Closing the executor waits for every member to finish.
+     * @param memberLogins members to fetch summaries for
+     * @param requiredParts parts of each member summary the request needs
+     * @return summary of each member in the same order, null where it could not be fetched
+     */
+    private GitHubUserSummaryDTO[] fetchMemberSummaries(List<String> memberLogins, Set<SummaryPart> requiredParts) {
+        GitHubUserSummaryDTO[] memberSummaries = new GitHubUserSummaryDTO[memberLogins.size()];
+        Semaphore semaphore = new Semaphore(memberParallelism);
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < memberLogins.size(); i++) {
+                int index = i;
+                // members are fetched with the access log context, deadline and usage of the request
+                executorService.execute(requestContextTaskDecorator.decorate(() ->
+                        memberSummaries[index] = fetchMemberSummary(memberLogins.get(index), requiredParts, semaphore)));
+            }
+        }
+        return memberSummaries;
+    }
+
+    private GitHubUserSummaryDTO fetchMemberSummary(String memberLogin, Set<SummaryPart> requiredParts,
+                                                    Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try (UpstreamPriority.Scope scope = UpstreamPriority.BULK.enter()) {
+            return gitHubUserSummaryService.fetchUserSummary(memberLogin, null, requiredParts);
+        }
+        catch (GitHubApiAccessException | GitHubUserNotFoundException | RequestTimeoutException | RuntimeException e) {
+            log.warn("Unable to fetch summary for organization member {}.  message: {}.", memberLogin, e.getMessage());
+            return null;
+        }
+        finally {
+            semaphore.release();
+        }
+    }
+}
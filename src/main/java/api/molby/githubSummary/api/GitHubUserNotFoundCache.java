@@ -0,0 +1,33 @@
+package api.molby.githubSummary.api;
+
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component to handle negative caching of usernames that GitHub reported as not found.
+ * Entries are kept in a separate, size-bounded cache with a short time to live so that
+ * repeated lookups of a missing user do not result in additional GitHub calls.
+ */
+@Component
+public class GitHubUserNotFoundCache {
+
+    public static final String CACHE_NAME = "githubUserNotFound";
+
+    /**
+     * Check whether a user was recently reported as not found by GitHub.  As with
+     * GitHubUserSummaryCache this is a read only operation, recordUserNotFound must
+     * be called to add an entry.
+     * @param username User that is the key for the cache
+     * @return Boolean.TRUE if the user is known to be missing, null otherwise.
+     */
+    @Cacheable(cacheNames = CACHE_NAME, key = "#username", unless = "#result == null")
+    public Boolean isUserNotFound(String username) {
+        return null;
+    }
+
+    @CachePut(value = CACHE_NAME, key = "#username")
+    public Boolean recordUserNotFound(String username) {
+        return Boolean.TRUE;
+    }
+}
@@ -1,16 +1,44 @@
 package api.molby.githubSummary.api;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 /**
- * Component to handle caching of GitHubSummaryResponseDTO in the event of
- * an access failure.
+ * Component to handle caching of GitHubSummaryResponseDTO.  Entries younger than the
+ * configured freshness window are served directly, older entries are only used as a
+ * fallback in the event of an access failure until they expire.  Ages are measured from when the
+ * summary was fetched from github, so patching an entry neither freshens it nor delays its expiry.
  */
 @Component
 public class GitHubUserSummaryCache {
 
+    public static final String CACHE_NAME = "githubUserSummary";
+
+    private final CacheManager cacheManager;
+    private final Duration freshFor;
+
+    public GitHubUserSummaryCache(CacheManager cacheManager,
+                                  @Value("${spring.cache.github.fresh-for:15m}") String freshFor) {
+        this.cacheManager = cacheManager;
+        this.freshFor = DurationStyle.detectAndParse(freshFor);
+    }
+
     /**
      * Return information from the cache.  As set up this doese NOT
      * act as a write thorugh cache but is purely used for a read
@@ -19,14 +47,171 @@ public class GitHubUserSummaryCache {
      * @param username User that is the key for the cache
      * @return Cached object or null if object does not exist in cache.
      */
-    @Cacheable(cacheNames = "githubUserSummary", key="#username", unless = "#result == null")
+    @Cacheable(cacheNames = CACHE_NAME, key="#username", unless = "#result == null")
     public GitHubUserSummaryDTO getResponseFromCache(String username) {
         return null;
     }
 
-    @CachePut(value="githubUserSummary", key="#userName")
+    @CachePut(value=CACHE_NAME, key="#userName")
     public GitHubUserSummaryDTO cacheResponse(String userName, GitHubUserSummaryDTO gitHubUserSummaryDTO) {
         return gitHubUserSummaryDTO;
 
     }
+
+    /**
+     * Remove a user from the cache, the next request for the user is fetched from github.
+     * @param username User that is the key for the cache
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#username")
+    public void evict(String username) {
+    }
+
+    /**
+     * Remove every user from the cache.
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    public void evictAll() {
+    }
+
+    /**
+     * Replace a cached entry with a patched copy, e.g. for a change reported by a GitHub webhook.
+     * Nothing is replaced if the entry is written in the meantime, e.g. by a refresh.  The patched
+     * copy keeps the sync times of the entry, so its age and expiry carry on from the original fetch.
+     * @param username User that is the key for the cache
+     * @param patch Returns a patched copy of the cached entry, or null if there is nothing to patch
+     * @return true if the entry was replaced
+     */
+    public boolean patch(String username, UnaryOperator<GitHubUserSummaryDTO> patch) {
+        GitHubUserSummaryDTO cachedGitHubUserSummaryDTO = peek(username);
+        if (cachedGitHubUserSummaryDTO == null) {
+            return false;
+        }
+        GitHubUserSummaryDTO patchedGitHubUserSummaryDTO = patch.apply(cachedGitHubUserSummaryDTO);
+        return patchedGitHubUserSummaryDTO != null
+                && nativeCache().asMap().replace(username, cachedGitHubUserSummaryDTO, patchedGitHubUserSummaryDTO);
+    }
+
+    /**
+     * Age of a cached entry, i.e. time since the oldest part it holds was fetched from github.
+     * Entries without sync times fall back to the time since they were written.
+     * @param username User that is the key for the cache
+     * @return Age of the entry or empty if the user is not cached.
+     */
+    public Optional<Duration> getEntryAge(String username) {
+        GitHubUserSummaryDTO cachedGitHubUserSummaryDTO = peek(username);
+        if (cachedGitHubUserSummaryDTO == null) {
+            return Optional.empty();
+        }
+        OffsetDateTime syncedAt = cachedGitHubUserSummaryDTO.syncedAt(cachedGitHubUserSummaryDTO.getParts());
+        if (syncedAt != null) {
+            return Optional.of(Duration.between(syncedAt, OffsetDateTime.now(ZoneOffset.UTC)));
+        }
+        return nativeCache().policy().expireAfterWrite()
+                .flatMap(expiration -> expiration.ageOf(username));
+    }
+
+    /**
+     * Determine whether a cached entry is young enough to be served without calling github.
+     * @param username User that is the key for the cache
+     * @return true if the entry exists and is within the freshness window.
+     */
+    public boolean isFresh(String username) {
+        return getEntryAge(username)
+                .map(age -> age.compareTo(freshFor) < 0)
+                .orElse(false);
+    }
+
+    /**
+     * Determine whether the parts of a cached entry a request needs are young enough to be served
+     * without calling github.  A part merged into a stale entry is fresh even though the others are not.
+     * @param username User that is the key for the cache
+     * @param requiredParts parts needed by the request
+     * @return true if the entry exists and the required parts are within the freshness window.
+     */
+    public boolean isFresh(String username, Set<SummaryPart> requiredParts) {
+        GitHubUserSummaryDTO cachedGitHubUserSummaryDTO = peek(username);
+        OffsetDateTime syncedAt = cachedGitHubUserSummaryDTO == null ? null
+                : cachedGitHubUserSummaryDTO.syncedAt(requiredParts);
+        if (syncedAt == null) {
+            return isFresh(username);
+        }
+        return Duration.between(syncedAt, OffsetDateTime.now(ZoneOffset.UTC)).compareTo(freshFor) < 0;
+    }
+
+    /**
+     * @return Usernames currently held in the cache, fresh or stale.
+     */
+    public Set<String> getCachedUserNames() {
+        return nativeCache().asMap().keySet().stream()
+                .map(String::valueOf)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Read a cached entry without it being treated as a cache lookup, used by background
+     * processing that should not skew cache statistics.
+     * @param username User that is the key for the cache
+     * @return Cached object or null if object does not exist in cache.
+     */
+    public GitHubUserSummaryDTO peek(String username) {
+        return (GitHubUserSummaryDTO) nativeCache().asMap().get(username);
+    }
+
+    /**
+     * @return Hit, miss and eviction statistics recorded since start up.
+     */
+    public CacheStats getStats() {
+        return nativeCache().stats();
+    }
+
+    /**
+     * @return Approximate number of entries in the cache, fresh or stale.
+     */
+    public long getEstimatedSize() {
+        return nativeCache().estimatedSize();
+    }
+
+    public Duration getFreshFor() {
+        return freshFor;
+    }
+
+    /**
+     * Expiry for the summary cache expiring entries once the oldest part they hold was fetched
+     * longer ago than expireAfterWrite.  Entries without sync times expire expireAfterWrite after
+     * they are written.
+     * @param expireAfterWrite maximum age of an entry
+     * @return expiry to configure the summary cache with
+     */
+    public static Expiry<Object, Object> expiry(Duration expireAfterWrite) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                return remaining(value);
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                return remaining(value);
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+
+            private long remaining(Object value) {
+                OffsetDateTime syncedAt = value instanceof GitHubUserSummaryDTO gitHubUserSummaryDTO
+                        ? gitHubUserSummaryDTO.syncedAt(gitHubUserSummaryDTO.getParts()) : null;
+                if (syncedAt == null) {
+                    return expireAfterWrite.toNanos();
+                }
+                Duration age = Duration.between(syncedAt, OffsetDateTime.now(ZoneOffset.UTC));
+                return Math.max(0, expireAfterWrite.minus(age).toNanos());
+            }
+        };
+    }
+
+    private Cache<Object, Object> nativeCache() {
+        return ((CaffeineCache) cacheManager.getCache(CACHE_NAME)).getNativeCache();
+    }
 }
@@ -1,18 +1,28 @@
 package api.molby.githubSummary.api;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.extern.jackson.Jacksonized;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Summary of github user information and the repositories associated with that user.
  * Response for API request.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
+// deserializable through the builder so JVM consumers can rebuild the summary
+@Jacksonized
+@JsonFilter(SummaryFieldSelection.SUMMARY_FILTER)
 @Schema(title = "Github Summary",
         description = "Summary information about a given user and a list of all their repositories.")
 public class GitHubUserSummaryDTO {
@@ -37,7 +47,62 @@ public class GitHubUserSummaryDTO {
     @Schema(title = "Creation Date/Time", description = "Timestamp of users creation",
             example = "Tue, 25 Jan 2011 18:44:36 GMT")
     @JsonFormat(pattern = "EEE, dd MMM yyyy HH:mm:ss 'GMT'", timezone = "GMT")
+    @JsonDeserialize(using = GmtDateTimeDeserializer.class)
     private OffsetDateTime createdAt;
     @Schema(title = "User Repositories", description = "Users GitHub repositories")
     private List<GithubRepositoryResponseDTO> repos;
+    @Schema(title = "Total Repositories", description = "Total number of repositories for the user, " +
+            "which may be more than returned when a limit is requested.", example = "8")
+    private Integer totalRepos;
+    @Schema(title = "Next Cursor", description = "Cursor for the next page of repositories, null if there " +
+            "are no more repositories.", example = "b2Zmc2V0OjIw")
+    private String nextCursor;
+    @Schema(title = "Incomplete", description = "True if the Request-Timeout deadline passed before every " +
+            "repository was received, the repositories received are returned with a cursor for the rest.  " +
+            "Absent for complete summaries.", example = "true")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean incomplete;
+
+    // when the profile was fetched from github, webhook patches leave it as is
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private OffsetDateTime profileSyncedAt;
+    // bookkeeping for incremental repository refresh, not part of the response
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private OffsetDateTime repositoriesSyncedAt;
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private OffsetDateTime repositoriesFullySyncedAt;
+    // parts of the summary populated, a partial summary is only served to requests needing those parts
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @Builder.Default
+    private Set<SummaryPart> parts = SummaryPart.all();
+
+    /**
+     * @param requiredParts parts needed by a request
+     * @return true if this summary holds all of the required parts
+     */
+    public boolean hasParts(Set<SummaryPart> requiredParts) {
+        return parts != null && parts.containsAll(requiredParts);
+    }
+
+    /**
+     * @param requiredParts parts needed by a request
+     * @return time the oldest of the required parts was fetched from github, null if not known
+     */
+    public OffsetDateTime syncedAt(Set<SummaryPart> requiredParts) {
+        OffsetDateTime syncedAt = null;
+        for (SummaryPart part : requiredParts) {
+            OffsetDateTime partSyncedAt = part == SummaryPart.PROFILE ? profileSyncedAt : repositoriesSyncedAt;
+            if (partSyncedAt == null) {
+                return null;
+            }
+            if (syncedAt == null || partSyncedAt.isBefore(syncedAt)) {
+                syncedAt = partSyncedAt;
+            }
+        }
+        return syncedAt;
+    }
 }
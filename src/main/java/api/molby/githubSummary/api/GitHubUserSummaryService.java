@@ -1,16 +1,37 @@
 package api.molby.githubSummary.api;
 
+import api.molby.githubSummary.accesslog.AccessLogContext;
+import api.molby.githubSummary.accesslog.CacheOutcome;
 import api.molby.githubSummary.client.GitHubApiClient;
+import api.molby.githubSummary.deadline.RequestDeadline;
+import api.molby.githubSummary.diagnostics.CacheLookupEvent;
+import api.molby.githubSummary.diagnostics.SummaryBuildEvent;
 import api.molby.githubSummary.exception.GitHubApiAccessException;
 import api.molby.githubSummary.client.GithubUserDTO;
 import api.molby.githubSummary.client.GithubRepositoryDTO;
 import api.molby.githubSummary.exception.GitHubUserNotFoundException;
+import api.molby.githubSummary.exception.RequestTimeoutException;
+import api.molby.githubSummary.refresh.HotUserTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientResponseException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * Service class for github user summary api.
@@ -20,38 +41,122 @@ public class GitHubUserSummaryService {
 
     private static Logger log = org.slf4j.LoggerFactory.getLogger(GitHubUserSummaryService.class);
 
+    // overlap incremental refreshes slightly so clock differences with github do not lose updates
+    private static final Duration REPOSITORY_SYNC_OVERLAP = Duration.ofMinutes(1);
+
     private final GitHubUserSummaryCache gitHubUserSummaryCache;
+    private final GitHubUserNotFoundCache gitHubUserNotFoundCache;
     private final GitHubApiClient gitHubApiClient;
+    private final HotUserTracker hotUserTracker;
+    private final Counter notFoundCacheHitCounter;
+    private final MeterRegistry meterRegistry;
+    private final Duration fullRepositoryResyncInterval;
 
     public GitHubUserSummaryService(GitHubUserSummaryCache gitHubUserSummaryCache,
-                                    GitHubApiClient gitHubApiClient) {
+                                    GitHubUserNotFoundCache gitHubUserNotFoundCache,
+                                    GitHubApiClient gitHubApiClient,
+                                    HotUserTracker hotUserTracker,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${github.repositories.full-resync-interval:6h}") String fullRepositoryResyncInterval) {
         this.gitHubUserSummaryCache = gitHubUserSummaryCache;
+        this.gitHubUserNotFoundCache = gitHubUserNotFoundCache;
         this.gitHubApiClient = gitHubApiClient;
+        this.hotUserTracker = hotUserTracker;
+        this.notFoundCacheHitCounter = Counter.builder("github.summary.not.found.cache.hits")
+                .description("Requests answered with a 404 from the not found cache without calling GitHub")
+                .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+        this.fullRepositoryResyncInterval = DurationStyle.detectAndParse(fullRepositoryResyncInterval);
+    }
+
+    public GitHubUserSummaryDTO fetchUserSummary(String username)
+            throws GitHubApiAccessException, GitHubUserNotFoundException, RequestTimeoutException {
+        return fetchUserSummary(username, null, SummaryPart.all());
+    }
+
+    /**
+     * Fetch a summary for a user, limiting the repositories returned to the given window.  Fresh
+     * cached summaries are always used when present.  Otherwise only the github repository pages
+     * needed to cover the window are requested.  Since such a summary is incomplete it is not cached.
+     * @param username github user name
+     * @param repositoryWindow window of repositories to return, null for all repositories
+     * @return Summary response for the user
+     */
+    public GitHubUserSummaryDTO fetchUserSummary(String username, RepositoryWindow repositoryWindow)
+            throws GitHubApiAccessException, GitHubUserNotFoundException, RequestTimeoutException {
+        return fetchUserSummary(username, repositoryWindow, SummaryPart.all());
     }
 
-    public GitHubUserSummaryDTO fetchUserSummary(String username) throws GitHubApiAccessException, GitHubUserNotFoundException {
+    /**
+     * Fetch a summary for a user containing at least the required parts.  Github calls for parts
+     * that are not required are skipped.  Partial summaries are cached marked with the parts they
+     * hold, so they are only ever served to requests needing no more than those parts, and never
+     * replace a cached summary holding other parts.
+     * If the request deadline passes before github responds the cached summary is returned when it
+     * holds the required parts.  Otherwise a summary whose profile arrived in time is returned with
+     * the repositories received so far, marked incomplete, and anything else times out.
+     * @param username github user name
+     * @param repositoryWindow window of repositories to return, null for all repositories
+     * @param requiredParts parts of the summary the request needs
+     * @return Summary response for the user, which may contain more than the required parts
+     */
+    public GitHubUserSummaryDTO fetchUserSummary(String username, RepositoryWindow repositoryWindow,
+                                                 Set<SummaryPart> requiredParts)
+            throws GitHubApiAccessException, GitHubUserNotFoundException, RequestTimeoutException {
+        // convert username to lowercase for handling.  github itself is case insensitive but
+        // this ensures consistency for caching and any other handling on this side of things
+        username = username.toLowerCase();
+        AccessLogContext.recordUserName(username);
+        rejectIfKnownNotFound(username);
+        // users known to be missing are not worth keeping warm
+        hotUserTracker.recordAccess(username);
+        // entries outside of the freshness window are kept around as a fallback
+        CacheLookupEvent cacheLookupEvent = new CacheLookupEvent();
+        cacheLookupEvent.begin();
+        GitHubUserSummaryDTO cachedGitHubUserSummaryDTO = gitHubUserSummaryCache.getResponseFromCache(username);
+        boolean cachedHasRequiredParts = cachedGitHubUserSummaryDTO != null
+                && cachedGitHubUserSummaryDTO.hasParts(requiredParts);
+        boolean cachedIsFresh = cachedHasRequiredParts && gitHubUserSummaryCache.isFresh(username, requiredParts);
+        commitCacheLookup(cacheLookupEvent, GitHubUserSummaryCache.CACHE_NAME, username,
+                cachedIsFresh ? CacheOutcome.HIT : cachedHasRequiredParts ? CacheOutcome.STALE : CacheOutcome.MISS);
+        if (cachedIsFresh) {
+            log.debug("Returning fresh cached response for user {}.", username);
+            AccessLogContext.recordCacheOutcome(CacheOutcome.HIT);
+            return applyWindow(cachedGitHubUserSummaryDTO, repositoryWindow);
+        }
+        AccessLogContext.recordCacheOutcome(cachedGitHubUserSummaryDTO == null ? CacheOutcome.MISS : CacheOutcome.STALE);
         try {
-            // convert username to lowercase for handling.  github itself is case insensitive but
-            // this ensures consistency for caching and any other handling on this side of things
-            username = username.toLowerCase();
-            GithubUserDTO gitHubUserDTO = gitHubApiClient.fetchUser(username);
-            List<GithubRepositoryDTO> gitHubRepositories = gitHubApiClient.fetchUserRepositories(username);
-            GitHubUserSummaryDTO gitHubUserSummaryDTO = buildSummary(gitHubUserDTO, gitHubRepositories);
-            // cache request in case it is needed later as a fallback
-            gitHubUserSummaryCache.cacheResponse(username, gitHubUserSummaryDTO);
-            return gitHubUserSummaryDTO;
+            if (!requiredParts.contains(SummaryPart.REPOSITORIES)) {
+                return fetchPartialSummary(username, SummaryPart.PROFILE, cachedGitHubUserSummaryDTO);
+            }
+            if (repositoryWindow != null) {
+                return fetchSummaryWindow(username, repositoryWindow);
+            }
+            if (!requiredParts.contains(SummaryPart.PROFILE)) {
+                return fetchPartialSummary(username, SummaryPart.REPOSITORIES, cachedGitHubUserSummaryDTO);
+            }
+            if (!cachedHasRequiredParts && RequestDeadline.remaining() != null) {
+                return fetchSummaryWithinDeadline(username);
+            }
+            return fetchSummary(username, cachedGitHubUserSummaryDTO);
         }
         catch (GitHubApiAccessException e) {
             RestClientResponseException restClientResponseException = e.getRootCause();
             if (restClientResponseException.getStatusCode() == HttpStatus.NOT_FOUND) {
+                gitHubUserNotFoundCache.recordUserNotFound(username);
                 throw new GitHubUserNotFoundException(username);
             }
+            if (RequestDeadline.isExpired()) {
+                // refused by the scheduler after waiting out the deadline
+                return fallBackOnDeadline(username, cachedHasRequiredParts ? cachedGitHubUserSummaryDTO : null,
+                        repositoryWindow);
+            }
             log.warn("Error accessing github api for user {}.  message: {}. Attempting to fall back to " +
                     "cached version of response.", username, e.getMessage());
-            GitHubUserSummaryDTO gitHubUserSummaryDTO = gitHubUserSummaryCache.getResponseFromCache(username);
-            if (gitHubUserSummaryDTO != null) {
+            if (cachedHasRequiredParts) {
                 log.warn("Returning cached response for user {}.", username);
-                return gitHubUserSummaryDTO;
+                AccessLogContext.recordCacheOutcome(CacheOutcome.FALLBACK);
+                return applyWindow(cachedGitHubUserSummaryDTO, repositoryWindow);
             }
             else {
                 log.warn("Cached response not found for user {}.", username);
@@ -59,16 +164,412 @@ public class GitHubUserSummaryService {
             }
 
         }
+        catch (ResourceAccessException e) {
+            // github calls only time out, or are refused, once the request deadline has passed
+            if (!RequestDeadline.isExpired()) {
+                throw e;
+            }
+            return fallBackOnDeadline(username, cachedHasRequiredParts ? cachedGitHubUserSummaryDTO : null,
+                    repositoryWindow);
+        }
+    }
+
+    /**
+     * Answer a request whose deadline passed before github responded.
+     * @param username github user name, expected in lowercase
+     * @param cachedGitHubUserSummaryDTO cached summary holding the required parts, null if there is none
+     * @param repositoryWindow window of repositories to return, null for all repositories
+     * @return the cached summary
+     * @throws RequestTimeoutException if there is no cached summary
+     */
+    private GitHubUserSummaryDTO fallBackOnDeadline(String username, GitHubUserSummaryDTO cachedGitHubUserSummaryDTO,
+                                                    RepositoryWindow repositoryWindow) throws RequestTimeoutException {
+        if (cachedGitHubUserSummaryDTO == null) {
+            countDeadlineExpired("timeout");
+            throw new RequestTimeoutException(username);
+        }
+        log.info("Request deadline passed for user {}, returning cached response.", username);
+        countDeadlineExpired("cached");
+        AccessLogContext.recordCacheOutcome(CacheOutcome.FALLBACK);
+        return applyWindow(cachedGitHubUserSummaryDTO, repositoryWindow);
+    }
+
+    private void countDeadlineExpired(String outcome) {
+        Counter.builder("github.summary.deadline.expired")
+                .description("Summary requests whose Request-Timeout deadline passed, by how they were answered")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Open a summary for streaming to the client.  When a complete summary is cached the regular
+     * lookup is used, as it is either fresh or can be refreshed incrementally.  Otherwise only the
+     * user is fetched up front, the repositories are fetched page by page as the summary is streamed.
+     * Once every page has been received the full summary is cached, even if the client has gone away.
+     * @param username github user name
+     * @return Summary to stream
+     * @throws RequestTimeoutException if the request deadline passed before the user was fetched
+     */
+    public SummaryStream streamUserSummary(String username)
+            throws GitHubApiAccessException, GitHubUserNotFoundException, RequestTimeoutException {
+        username = username.toLowerCase();
+        CacheLookupEvent cacheLookupEvent = new CacheLookupEvent();
+        cacheLookupEvent.begin();
+        GitHubUserSummaryDTO previousGitHubUserSummaryDTO = gitHubUserSummaryCache.peek(username);
+        if (previousGitHubUserSummaryDTO != null && previousGitHubUserSummaryDTO.hasParts(SummaryPart.all())) {
+            // the regular lookup records its own event
+            return SummaryStream.of(fetchUserSummary(username));
+        }
+        commitCacheLookup(cacheLookupEvent, GitHubUserSummaryCache.CACHE_NAME, username, CacheOutcome.MISS);
+        AccessLogContext.recordUserName(username);
+        rejectIfKnownNotFound(username);
+        hotUserTracker.recordAccess(username);
+        AccessLogContext.recordCacheOutcome(previousGitHubUserSummaryDTO == null ? CacheOutcome.MISS : CacheOutcome.STALE);
+        OffsetDateTime syncStartedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        GithubUserDTO githubUserDTO;
+        try {
+            githubUserDTO = gitHubApiClient.fetchUser(username);
+        }
+        catch (GitHubApiAccessException e) {
+            if (e.getRootCause().getStatusCode() == HttpStatus.NOT_FOUND) {
+                gitHubUserNotFoundCache.recordUserNotFound(username);
+                throw new GitHubUserNotFoundException(username);
+            }
+            // no complete summary is cached so there is nothing to fall back to
+            if (RequestDeadline.isExpired()) {
+                return SummaryStream.of(fallBackOnDeadline(username, null, null));
+            }
+            throw e;
+        }
+        catch (ResourceAccessException e) {
+            if (!RequestDeadline.isExpired()) {
+                throw e;
+            }
+            return SummaryStream.of(fallBackOnDeadline(username, null, null));
+        }
+        GitHubUserSummaryDTO profileDTO = buildSummary(githubUserDTO, null);
+        String userName = username;
+        return new SummaryStream(profileDTO, pageConsumer -> streamRepositories(userName, profileDTO,
+                githubUserDTO.getPublicRepos(), syncStartedAt, pageConsumer));
+    }
+
+    /**
+     * Fetch a summary from github and store it in the cache regardless of whether a fresh
+     * cached version already exists.  Used for background refresh of cached users.
+     * @param username github user name, expected in lowercase
+     * @return Summary response built from github
+     */
+    public GitHubUserSummaryDTO refreshUserSummary(String username) throws GitHubApiAccessException {
+        return fetchSummary(username, gitHubUserSummaryCache.peek(username));
+    }
+
+    /**
+     * Patch the cached summary of a user with a repository change, e.g. one reported by a GitHub
+     * webhook, so the change shows up without calling github.  Summaries without repositories
+     * are left as is.
+     * @param username github user name owning the repository, expected in lowercase
+     * @param removedRepositoryName name of a repository no longer owned by the user, null if none
+     * @param addedRepository repository now owned by the user, null if none
+     * @return true if a cached summary was patched
+     */
+    public boolean patchCachedRepositories(String username, String removedRepositoryName,
+                                           GithubRepositoryResponseDTO addedRepository) {
+        return gitHubUserSummaryCache.patch(username, cachedGitHubUserSummaryDTO -> {
+            if (cachedGitHubUserSummaryDTO.getRepos() == null
+                    || !cachedGitHubUserSummaryDTO.hasParts(Set.of(SummaryPart.REPOSITORIES))) {
+                return null;
+            }
+            List<GithubRepositoryResponseDTO> repositoryResponseDTOS = cachedGitHubUserSummaryDTO.getRepos().stream()
+                    .filter(r -> removedRepositoryName == null || !r.getName().equalsIgnoreCase(removedRepositoryName))
+                    .toList();
+            if (addedRepository != null) {
+                repositoryResponseDTOS = mergeRepositories(repositoryResponseDTOS, List.of(addedRepository));
+            }
+            return cachedGitHubUserSummaryDTO.toBuilder()
+                    .repos(repositoryResponseDTOS)
+                    .totalRepos(repositoryResponseDTOS.size())
+                    .build();
+        });
+    }
+
+    /**
+     * Fetch a summary from github and cache it.  If a previous summary exists and its repositories
+     * were fully synced recently only repositories updated since the previous sync are requested
+     * and merged into the previous repository list.  Otherwise all repositories are fetched, which
+     * also picks up deleted repositories.
+     * @param username github user name, expected in lowercase
+     * @param previousGitHubUserSummaryDTO Previously cached summary, may be null
+     * @return Summary response built from github
+     */
+    private GitHubUserSummaryDTO fetchSummary(String username, GitHubUserSummaryDTO previousGitHubUserSummaryDTO)
+            throws GitHubApiAccessException {
+        OffsetDateTime syncStartedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        GitHubUserSummaryDTO gitHubUserSummaryDTO;
+        if (canRefreshRepositoriesIncrementally(previousGitHubUserSummaryDTO, syncStartedAt)) {
+            GithubUserDTO gitHubUserDTO = gitHubApiClient.fetchUser(username);
+            List<GithubRepositoryDTO> updatedRepositories = gitHubApiClient.fetchUserRepositoriesUpdatedSince(
+                    username, previousGitHubUserSummaryDTO.getRepositoriesSyncedAt().minus(REPOSITORY_SYNC_OVERLAP));
+            log.debug("Incremental refresh found {} updated repositories for user {}.", updatedRepositories.size(), username);
+            gitHubUserSummaryDTO = buildSummary(gitHubUserDTO,
+                    mergeRepositories(previousGitHubUserSummaryDTO.getRepos(), toRepositoryResponses(updatedRepositories)));
+            gitHubUserSummaryDTO.setRepositoriesFullySyncedAt(previousGitHubUserSummaryDTO.getRepositoriesFullySyncedAt());
+        }
+        else {
+            // some clients are able to fetch the user and repositories in a single call
+            GitHubApiClient.GithubUserRepositories githubUserRepositories = gitHubApiClient.fetchUserWithRepositories(username);
+            gitHubUserSummaryDTO = buildSummary(githubUserRepositories.githubUserDTO(),
+                    toRepositoryResponses(githubUserRepositories.githubRepositoryDTOS()));
+            gitHubUserSummaryDTO.setRepositoriesFullySyncedAt(syncStartedAt);
+        }
+        gitHubUserSummaryDTO.setRepositoriesSyncedAt(syncStartedAt);
+        // cache request so later requests and fallbacks can use it
+        gitHubUserSummaryCache.cacheResponse(username, gitHubUserSummaryDTO);
+        return gitHubUserSummaryDTO;
+    }
+
+    /**
+     * Fetch a complete summary from github for a request with a deadline and nothing cached to fall
+     * back on.  Repositories are fetched page by page so if the deadline passes part way through
+     * the pages received so far can be returned.  Such a summary is marked incomplete, carries a
+     * cursor for the remaining repositories and is not cached.
+     * @param username github user name, expected in lowercase
+     * @return Summary response built from github, possibly incomplete
+     */
+    private GitHubUserSummaryDTO fetchSummaryWithinDeadline(String username) throws GitHubApiAccessException {
+        OffsetDateTime syncStartedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        GithubUserDTO githubUserDTO = gitHubApiClient.fetchUser(username);
+        List<GithubRepositoryResponseDTO> repositoryResponseDTOS = new ArrayList<>();
+        try {
+            gitHubApiClient.fetchUserRepositories(username,
+                    githubRepositoryDTOS -> repositoryResponseDTOS.addAll(toRepositoryResponses(githubRepositoryDTOS)));
+        }
+        catch (GitHubApiAccessException | ResourceAccessException e) {
+            if (!RequestDeadline.isExpired()) {
+                throw e;
+            }
+            log.info("Request deadline passed for user {} after {} repositories, returning incomplete response.",
+                    username, repositoryResponseDTOS.size());
+            countDeadlineExpired("incomplete");
+            int received = repositoryResponseDTOS.size();
+            GitHubUserSummaryDTO gitHubUserSummaryDTO = buildSummary(githubUserDTO, List.copyOf(repositoryResponseDTOS));
+            // the profile count is as of the profile call, never report fewer than were received
+            gitHubUserSummaryDTO.setTotalRepos(githubUserDTO.getPublicRepos() == null
+                    ? received : Math.max(received, githubUserDTO.getPublicRepos()));
+            gitHubUserSummaryDTO.setNextCursor(RepositoryCursor.encode(received));
+            gitHubUserSummaryDTO.setIncomplete(true);
+            return gitHubUserSummaryDTO;
+        }
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = buildSummary(githubUserDTO, List.copyOf(repositoryResponseDTOS));
+        gitHubUserSummaryDTO.setRepositoriesSyncedAt(syncStartedAt);
+        gitHubUserSummaryDTO.setRepositoriesFullySyncedAt(syncStartedAt);
+        gitHubUserSummaryCache.cacheResponse(username, gitHubUserSummaryDTO);
+        return gitHubUserSummaryDTO;
+    }
+
+    /**
+     * Fetch the repositories of a user page by page, passing each page on as it arrives, then cache
+     * the complete summary.  If the request deadline passes part way through the stream is ended
+     * with a cursor for the remaining repositories, and nothing is cached.
+     * @param username github user name, expected in lowercase
+     * @param profileDTO summary holding the user profile
+     * @param publicRepos repository count from the user profile, may be null
+     * @param syncStartedAt time the user profile was requested
+     * @param pageConsumer called with each page of repositories
+     * @return total number of repositories, and a cursor if the deadline passed
+     */
+    private SummaryStream.RepositoryPagesResult streamRepositories(String username, GitHubUserSummaryDTO profileDTO,
+                                                                   Integer publicRepos, OffsetDateTime syncStartedAt,
+                                                                   Consumer<List<GithubRepositoryResponseDTO>> pageConsumer)
+            throws GitHubApiAccessException {
+        List<GithubRepositoryResponseDTO> repositoryResponseDTOS = new ArrayList<>();
+        try {
+            gitHubApiClient.fetchUserRepositories(username, githubRepositoryDTOS -> {
+                List<GithubRepositoryResponseDTO> page = toRepositoryResponses(githubRepositoryDTOS);
+                repositoryResponseDTOS.addAll(page);
+                pageConsumer.accept(page);
+            });
+        }
+        catch (GitHubApiAccessException | ResourceAccessException e) {
+            if (!RequestDeadline.isExpired()) {
+                throw e;
+            }
+            int received = repositoryResponseDTOS.size();
+            log.info("Request deadline passed for user {} after streaming {} repositories, ending stream incomplete.",
+                    username, received);
+            countDeadlineExpired("incomplete");
+            // the profile count is as of the profile call, never report fewer than were received
+            return new SummaryStream.RepositoryPagesResult(publicRepos == null ? received : Math.max(received, publicRepos),
+                    RepositoryCursor.encode(received));
+        }
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = profileDTO.toBuilder()
+                .repos(Collections.unmodifiableList(repositoryResponseDTOS))
+                .totalRepos(repositoryResponseDTOS.size())
+                .parts(SummaryPart.all())
+                .repositoriesSyncedAt(syncStartedAt)
+                .repositoriesFullySyncedAt(syncStartedAt)
+                .build();
+        gitHubUserSummaryCache.cacheResponse(username, gitHubUserSummaryDTO);
+        log.debug("Streamed {} repositories for user {}.", repositoryResponseDTOS.size(), username);
+        return SummaryStream.RepositoryPagesResult.complete(repositoryResponseDTOS.size());
+    }
+
+    /**
+     * Fetch a summary containing a single part from github, skipping the github call for the other part.
+     * If a summary is already cached the part is merged into it, otherwise the result is cached as is.
+     * @param username github user name, expected in lowercase
+     * @param part the part to fetch
+     * @param cachedGitHubUserSummaryDTO Currently cached summary, may be null
+     * @return Summary response containing only the given part
+     */
+    private GitHubUserSummaryDTO fetchPartialSummary(String username, SummaryPart part,
+                                                     GitHubUserSummaryDTO cachedGitHubUserSummaryDTO)
+            throws GitHubApiAccessException {
+        GitHubUserSummaryDTO gitHubUserSummaryDTO;
+        if (part == SummaryPart.PROFILE) {
+            gitHubUserSummaryDTO = buildSummary(gitHubApiClient.fetchUser(username), null);
+        }
+        else {
+            OffsetDateTime syncStartedAt = OffsetDateTime.now(ZoneOffset.UTC);
+            List<GithubRepositoryResponseDTO> repositoryResponseDTOS =
+                    toRepositoryResponses(gitHubApiClient.fetchUserRepositories(username));
+            gitHubUserSummaryDTO = GitHubUserSummaryDTO.builder()
+                    .repos(repositoryResponseDTOS)
+                    .totalRepos(repositoryResponseDTOS.size())
+                    .repositoriesSyncedAt(syncStartedAt)
+                    .repositoriesFullySyncedAt(syncStartedAt)
+                    .build();
+        }
+        gitHubUserSummaryDTO.setParts(Set.of(part));
+        gitHubUserSummaryCache.cacheResponse(username, cachedGitHubUserSummaryDTO == null
+                ? gitHubUserSummaryDTO : mergePart(cachedGitHubUserSummaryDTO, gitHubUserSummaryDTO, part));
+        return gitHubUserSummaryDTO;
+    }
+
+    /**
+     * Merge a part fetched from github into a cached summary.  The other parts the cached summary
+     * holds are kept along with their sync times, so they still go stale when they would have.
+     * @param cachedGitHubUserSummaryDTO Currently cached summary
+     * @param partGitHubUserSummaryDTO Summary holding the fetched part
+     * @param part the part fetched
+     * @return Cached summary with the part replaced
+     */
+    private static GitHubUserSummaryDTO mergePart(GitHubUserSummaryDTO cachedGitHubUserSummaryDTO,
+                                                  GitHubUserSummaryDTO partGitHubUserSummaryDTO, SummaryPart part) {
+        Set<SummaryPart> parts = EnumSet.of(part);
+        parts.addAll(cachedGitHubUserSummaryDTO.getParts());
+        GitHubUserSummaryDTO.GitHubUserSummaryDTOBuilder mergedGitHubUserSummaryDTO = cachedGitHubUserSummaryDTO.toBuilder()
+                .parts(parts)
+                // the profile count and a freshly fetched repository list are both newer than the cached count
+                .totalRepos(partGitHubUserSummaryDTO.getTotalRepos());
+        if (part == SummaryPart.PROFILE) {
+            mergedGitHubUserSummaryDTO
+                    .userName(partGitHubUserSummaryDTO.getUserName())
+                    .displayName(partGitHubUserSummaryDTO.getDisplayName())
+                    .avatar(partGitHubUserSummaryDTO.getAvatar())
+                    .geoLocation(partGitHubUserSummaryDTO.getGeoLocation())
+                    .email(partGitHubUserSummaryDTO.getEmail())
+                    .url(partGitHubUserSummaryDTO.getUrl())
+                    .createdAt(partGitHubUserSummaryDTO.getCreatedAt())
+                    .profileSyncedAt(partGitHubUserSummaryDTO.getProfileSyncedAt());
+        }
+        else {
+            mergedGitHubUserSummaryDTO
+                    .repos(partGitHubUserSummaryDTO.getRepos())
+                    .repositoriesSyncedAt(partGitHubUserSummaryDTO.getRepositoriesSyncedAt())
+                    .repositoriesFullySyncedAt(partGitHubUserSummaryDTO.getRepositoriesFullySyncedAt());
+        }
+        return mergedGitHubUserSummaryDTO.build();
+    }
+
+    /**
+     * Fetch a summary containing only a window of the users repositories from github.
+     * @param username github user name, expected in lowercase
+     * @param repositoryWindow window of repositories to fetch
+     * @return Summary response containing the window of repositories
+     */
+    private GitHubUserSummaryDTO fetchSummaryWindow(String username, RepositoryWindow repositoryWindow)
+            throws GitHubApiAccessException {
+        GitHubApiClient.GithubUserRepositoryWindow githubUserRepositoryWindow = gitHubApiClient.fetchUserWithRepositoryWindow(
+                username, repositoryWindow.offset(), repositoryWindow.limit());
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = buildSummary(githubUserRepositoryWindow.githubUserDTO(),
+                toRepositoryResponses(githubUserRepositoryWindow.githubRepositoryDTOS()));
+        gitHubUserSummaryDTO.setTotalRepos(githubUserRepositoryWindow.totalRepositories());
+        gitHubUserSummaryDTO.setNextCursor(repositoryWindow.nextCursor(githubUserRepositoryWindow.totalRepositories()));
+        return gitHubUserSummaryDTO;
+    }
+
+    // users recently reported as missing are rejected without another call to github
+    private void rejectIfKnownNotFound(String username) throws GitHubUserNotFoundException {
+        CacheLookupEvent cacheLookupEvent = new CacheLookupEvent();
+        cacheLookupEvent.begin();
+        boolean knownNotFound = Boolean.TRUE.equals(gitHubUserNotFoundCache.isUserNotFound(username));
+        commitCacheLookup(cacheLookupEvent, GitHubUserNotFoundCache.CACHE_NAME, username,
+                knownNotFound ? CacheOutcome.HIT : CacheOutcome.MISS);
+        if (knownNotFound) {
+            notFoundCacheHitCounter.increment();
+            AccessLogContext.recordCacheOutcome(CacheOutcome.HIT);
+            log.debug("User {} found in not found cache, skipping github call.", username);
+            throw new GitHubUserNotFoundException(username);
+        }
+    }
+
+    private static void commitCacheLookup(CacheLookupEvent cacheLookupEvent, String cache, String username,
+                                          CacheOutcome cacheOutcome) {
+        cacheLookupEvent.end();
+        if (cacheLookupEvent.shouldCommit()) {
+            cacheLookupEvent.cache = cache;
+            cacheLookupEvent.userName = username;
+            cacheLookupEvent.outcome = cacheOutcome.toJson();
+            cacheLookupEvent.commit();
+        }
+    }
+
+    private static GitHubUserSummaryDTO applyWindow(GitHubUserSummaryDTO gitHubUserSummaryDTO,
+                                                    RepositoryWindow repositoryWindow) {
+        if (repositoryWindow == null || !gitHubUserSummaryDTO.hasParts(Set.of(SummaryPart.REPOSITORIES))) {
+            return gitHubUserSummaryDTO;
+        }
+        return repositoryWindow.apply(gitHubUserSummaryDTO);
+    }
+
+    private boolean canRefreshRepositoriesIncrementally(GitHubUserSummaryDTO previousGitHubUserSummaryDTO,
+                                                        OffsetDateTime now) {
+        return previousGitHubUserSummaryDTO != null
+                && previousGitHubUserSummaryDTO.getRepos() != null
+                && previousGitHubUserSummaryDTO.getRepositoriesSyncedAt() != null
+                && previousGitHubUserSummaryDTO.getRepositoriesFullySyncedAt() != null
+                && previousGitHubUserSummaryDTO.getRepositoriesFullySyncedAt()
+                        .plus(fullRepositoryResyncInterval).isAfter(now);
+    }
+
+    /**
+     * Merge updated repositories into a previous repository list keeping the list in name order.
+     * Updated repositories replace previous entries with the same name.
+     * @param previousRepositories Previously fetched repositories in name order
+     * @param updatedRepositories Repositories updated since the previous fetch
+     * @return Merged repositories in name order
+     */
+    static List<GithubRepositoryResponseDTO> mergeRepositories(List<GithubRepositoryResponseDTO> previousRepositories,
+                                                               List<GithubRepositoryResponseDTO> updatedRepositories) {
+        // github repository names are case insensitive and sorted accordingly
+        Map<String, GithubRepositoryResponseDTO> repositoriesByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        previousRepositories.forEach(r -> repositoriesByName.put(r.getName(), r));
+        updatedRepositories.forEach(r -> repositoriesByName.put(r.getName(), r));
+        return List.copyOf(repositoriesByName.values());
     }
 
     /**
      * Create a github summary response using previously fetched user and repositories infomration
      * @param githubUserDTO DTO with information about user
-     * @param githubRepositoryDTOS DTO with list of repositories for user
+     * @param repositoryResponseDTOS Repositories for user already mapped to their response form
      * @return Summary response object for return to client.
      */
-    private GitHubUserSummaryDTO buildSummary(GithubUserDTO githubUserDTO, List<GithubRepositoryDTO> githubRepositoryDTOS) {
-        return GitHubUserSummaryDTO.builder()
+    private GitHubUserSummaryDTO buildSummary(GithubUserDTO githubUserDTO, List<GithubRepositoryResponseDTO> repositoryResponseDTOS) {
+        SummaryBuildEvent summaryBuildEvent = new SummaryBuildEvent();
+        summaryBuildEvent.begin();
+        // repositories are null when only the profile was requested
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = GitHubUserSummaryDTO.builder()
                 .userName(githubUserDTO.getLogin())
                 .displayName(githubUserDTO.getName())
                 .email(githubUserDTO.getEmail())
@@ -77,15 +578,29 @@ public class GitHubUserSummaryService {
                 .email(githubUserDTO.getEmail())
                 .geoLocation(githubUserDTO.getLocation())
                 .createdAt(githubUserDTO.getCreatedAt())
-                .repos(
-                    githubRepositoryDTOS.stream().map(r ->
-                        GithubRepositoryResponseDTO.builder()
-                            .name(r.getName())
-                            .url(r.getUrl())
-                            .build())
-                            .toList()
-                )
+                .repos(repositoryResponseDTOS)
+                // the profile count stands in when only the profile was requested
+                .totalRepos(repositoryResponseDTOS == null ? githubUserDTO.getPublicRepos()
+                        : Integer.valueOf(repositoryResponseDTOS.size()))
+                // the profile was fetched just before the summary is built
+                .profileSyncedAt(OffsetDateTime.now(ZoneOffset.UTC))
                 .build();
+        summaryBuildEvent.end();
+        if (summaryBuildEvent.shouldCommit()) {
+            summaryBuildEvent.userName = githubUserDTO.getLogin();
+            summaryBuildEvent.repositoryCount = repositoryResponseDTOS == null ? -1 : repositoryResponseDTOS.size();
+            summaryBuildEvent.commit();
+        }
+        return gitHubUserSummaryDTO;
+    }
+
+    private List<GithubRepositoryResponseDTO> toRepositoryResponses(List<GithubRepositoryDTO> githubRepositoryDTOS) {
+        return githubRepositoryDTOS.stream().map(r ->
+                GithubRepositoryResponseDTO.builder()
+                        .name(r.getName())
+                        .url(r.getUrl())
+                        .build())
+                .toList();
     }
 
 }
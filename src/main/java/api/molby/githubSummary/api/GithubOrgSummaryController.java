@@ -0,0 +1,102 @@
+package api.molby.githubSummary.api;
+
+import api.molby.githubSummary.exception.GitHubApiAccessException;
+import api.molby.githubSummary.exception.GitHubOrgNotFoundException;
+import api.molby.githubSummary.exception.InvalidCursorException;
+import api.molby.githubSummary.exception.InvalidFieldsException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for github organization summary endpoints.
+ */
+@RestController
+@RequestMapping("/orgSummary/v1")
+@Validated
+@Tag(
+        name = "GitHub Organization Summary",
+        description = "Endpoints for fetching summaries of the members of a GitHub organization."
+)
+public class GithubOrgSummaryController {
+
+    private static Logger log = LoggerFactory.getLogger(GithubOrgSummaryController.class);
+
+    // number of members returned when no limit is provided
+    private static final int DEFAULT_LIMIT = 30;
+
+    private final GitHubOrgSummaryService gitHubOrgSummaryService;
+
+    public GithubOrgSummaryController(GitHubOrgSummaryService gitHubOrgSummaryService) {
+        this.gitHubOrgSummaryService = gitHubOrgSummaryService;
+    }
+
+    @Operation(
+            summary="Access github summary information for the members of specified organization.",
+            description = "Provides the same summary as the user summary api for each member of a github " +
+                    "organization, a page of members at a time.  Use the nextCursor of a previous response to " +
+                    "fetch the next page.  Fields can optionally be limited using fields, applied to each member.  " +
+                    "Members whose summary could not be fetched are listed in unavailableMembers."
+    )
+    @ApiResponse(responseCode = "200", description = "Summary of a page of organization members",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = GitHubOrgSummaryDTO.class)))
+    @GetMapping("/{org}")
+    public MappingJacksonValue getOrgSummary(
+            @Parameter(
+                description="Github organization name",
+                required = true,
+                example="github")
+            @Pattern(
+                // organization names follow the same rules as github usernames
+                regexp = "^[a-zA-Z0-9](?:[a-zA-Z0-9-]{0,37}[a-zA-Z0-9])?$",
+                message = "Organization provided was invalid."
+            )
+            @PathVariable
+            String org,
+            @Parameter(
+                description="Maximum number of members to return, defaults to 30.",
+                example="10")
+            @Min(value = 1, message = "Limit must be at least 1.")
+            @Max(value = 100, message = "Limit must be at most 100.")
+            @RequestParam(required = false)
+            Integer limit,
+            @Parameter(
+                description="Cursor from the nextCursor field of a previous response, used to fetch the " +
+                        "next page of members.")
+            @RequestParam(required = false)
+            String cursor,
+            @Parameter(
+                description="Comma separated list of fields to return for each member, all fields are returned " +
+                        "if not provided.  Repository fields are prefixed with repos.",
+                example="userName,avatar")
+            @RequestParam(required = false)
+            String fields)
+            throws GitHubApiAccessException, GitHubOrgNotFoundException, InvalidCursorException, InvalidFieldsException {
+        log.debug("Received github organization summary API request for organization {}.", org);
+        SummaryFieldSelection summaryFieldSelection = SummaryFieldSelection.parse(fields);
+        GitHubOrgSummaryDTO gitHubOrgSummaryDTO = gitHubOrgSummaryService.fetchOrgSummary(org,
+                RepositoryCursor.decode(cursor), limit == null ? DEFAULT_LIMIT : limit,
+                summaryFieldSelection.getRequiredParts());
+        MappingJacksonValue mappingJacksonValue = new MappingJacksonValue(gitHubOrgSummaryDTO);
+        mappingJacksonValue.setFilters(summaryFieldSelection.toFilterProvider());
+        log.debug("Returning github organization summary response for organization {}.", org);
+        return mappingJacksonValue;
+    }
+}
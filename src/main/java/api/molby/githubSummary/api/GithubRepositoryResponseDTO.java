@@ -1,14 +1,18 @@
 package api.molby.githubSummary.api;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
 /**
  * Segment of response summary sent to user with repository details
  */
 @Value
 @Builder
+@Jacksonized
+@JsonFilter(SummaryFieldSelection.REPOSITORY_FILTER)
 @Schema(title = "Github Repository Response", description = "Information about a github repository.")
 public class GithubRepositoryResponseDTO {
 
@@ -1,18 +1,34 @@
 package api.molby.githubSummary.api;
 
+import api.molby.githubSummary.deadline.RequestDeadlineFilter;
 import api.molby.githubSummary.exception.GitHubApiAccessException;
 import api.molby.githubSummary.exception.GitHubUserNotFoundException;
+import api.molby.githubSummary.exception.InvalidCursorException;
+import api.molby.githubSummary.exception.InvalidFieldsException;
+import api.molby.githubSummary.exception.RequestTimeoutException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller for github user summary endpoints.
@@ -28,20 +44,45 @@ public class GithubUserSummaryController {
 
     private static Logger log = LoggerFactory.getLogger(GithubUserSummaryController.class);
 
+    // number of repositories returned when a cursor is provided without a limit
+    private static final int DEFAULT_LIMIT = 100;
+
+    private static final String SMILE_MEDIA_TYPE = "application/x-jackson-smile";
+
     private final GitHubUserSummaryService gitHubUserSummaryService;
+    private final SummaryStreamWriter summaryStreamWriter;
 
-    public GithubUserSummaryController(GitHubUserSummaryService gitHubUserSummaryService) {
+    public GithubUserSummaryController(GitHubUserSummaryService gitHubUserSummaryService, ObjectMapper objectMapper) {
         this.gitHubUserSummaryService = gitHubUserSummaryService;
+        this.summaryStreamWriter = new SummaryStreamWriter(objectMapper);
     }
 
     @Operation(
             summary="Access github summary information for specified user.",
             description = "Provides a api to provide both user details and " +
                     "a list of user repositories for a provided github user. Note that " +
-                    "validation on user format is made prior to execution of request."
+                    "validation on user format is made prior to execution of request.  " +
+                    "Repositories can optionally be paged using limit and the nextCursor of a previous response.  " +
+                    "Fields can optionally be limited using fields, github calls are skipped for fields not requested.  " +
+                    "Binary CBOR and Smile responses are returned when requested through the Accept header."
     )
+    @ApiResponse(responseCode = "200", description = "Summary of the user",
+            content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GitHubUserSummaryDTO.class)),
+                    @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                            schema = @Schema(implementation = GitHubUserSummaryDTO.class)),
+                    @Content(mediaType = SMILE_MEDIA_TYPE,
+                            schema = @Schema(implementation = GitHubUserSummaryDTO.class))
+            })
+    @ApiResponse(responseCode = "504", description = "Request-Timeout passed with nothing cached to return")
+    @Parameter(in = ParameterIn.HEADER, name = RequestDeadlineFilter.REQUEST_TIMEOUT_HEADER,
+            description = "Time the caller is willing to wait, e.g. 2s or 750 (milliseconds).  Once it passes " +
+                    "the cached summary is returned if there is one, otherwise the repositories received so far " +
+                    "marked incomplete.",
+            example = "2s")
     @GetMapping("/{username}")
-    public GitHubUserSummaryDTO getUserSummary(
+    public MappingJacksonValue getUserSummary(
             @Parameter(
                 description="Github user name",
                 required = true,
@@ -52,12 +93,90 @@ public class GithubUserSummaryController {
                 message = "Username provided was invalid."
             )
             @PathVariable
-            String username)
-            throws GitHubApiAccessException, GitHubUserNotFoundException {
+            String username,
+            @Parameter(
+                description="Maximum number of repositories to return.  All repositories are returned if " +
+                        "neither limit nor cursor is provided.",
+                example="20")
+            @Min(value = 1, message = "Limit must be at least 1.")
+            @Max(value = RepositoryCursor.MAX_LIMIT, message = "Limit must be at most 1000.")
+            @RequestParam(required = false)
+            Integer limit,
+            @Parameter(
+                description="Cursor from the nextCursor field of a previous response, used to fetch the " +
+                        "next page of repositories.")
+            @RequestParam(required = false)
+            String cursor,
+            @Parameter(
+                description="Comma separated list of fields to return, all fields are returned if not provided.  " +
+                        "Repository fields are prefixed with repos.",
+                example="userName,avatar,repos.name")
+            @RequestParam(required = false)
+            String fields)
+            throws GitHubApiAccessException, GitHubUserNotFoundException, InvalidCursorException, InvalidFieldsException,
+            RequestTimeoutException {
         log.debug("Received github summary API request for user {}.", username);
-        GitHubUserSummaryDTO gitHubUserSummaryDTO = gitHubUserSummaryService.fetchUserSummary(username);
+        SummaryFieldSelection summaryFieldSelection = SummaryFieldSelection.parse(fields);
+        GitHubUserSummaryDTO gitHubUserSummaryDTO;
+        if (limit == null && cursor == null && fields == null) {
+            gitHubUserSummaryDTO = gitHubUserSummaryService.fetchUserSummary(username);
+        }
+        else {
+            RepositoryWindow repositoryWindow = limit == null && cursor == null ? null : new RepositoryWindow(
+                    RepositoryCursor.decode(cursor), limit == null ? DEFAULT_LIMIT : limit);
+            gitHubUserSummaryDTO = gitHubUserSummaryService.fetchUserSummary(
+                    username, repositoryWindow, summaryFieldSelection.getRequiredParts());
+        }
+        MappingJacksonValue mappingJacksonValue = new MappingJacksonValue(gitHubUserSummaryDTO);
+        mappingJacksonValue.setFilters(summaryFieldSelection.toFilterProvider());
         log.debug("Returning github summary response for user {}.", username);
-        return gitHubUserSummaryDTO;
+        return mappingJacksonValue;
+    }
+
+    @Operation(
+            summary="Stream github summary information for specified user.",
+            description = "Returns the same summary as the regular request but streamed with chunked transfer " +
+                    "encoding.  When the user is not cached the profile fields are sent straight away and " +
+                    "repositories are sent as each page is received from github, so large accounts start " +
+                    "receiving data before every page has been fetched.  Paging and field selection are not " +
+                    "supported when streaming.  If github fails part way through the response is left incomplete.  " +
+                    "If the Request-Timeout deadline passes part way through the response ends with a nextCursor " +
+                    "for the remaining repositories and incomplete set."
+    )
+    @ApiResponse(responseCode = "200", description = "Summary of the user",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = GitHubUserSummaryDTO.class)))
+    @ApiResponse(responseCode = "504", description = "Request-Timeout passed before the user was fetched")
+    @GetMapping(value = "/{username}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamUserSummary(
+            @Parameter(
+                description="Github user name",
+                required = true,
+                example="octocat")
+            @Pattern(
+                // regular expression for github usernames
+                regexp = "^[a-zA-Z0-9](?:[a-zA-Z0-9-]{0,37}[a-zA-Z0-9])?$",
+                message = "Username provided was invalid."
+            )
+            @PathVariable
+            String username,
+            @Parameter(
+                description="Set to true to stream the summary.",
+                required = true,
+                example="true")
+            @RequestParam
+            boolean stream)
+            throws GitHubApiAccessException, GitHubUserNotFoundException, RequestTimeoutException {
+        log.debug("Received streamed github summary API request for user {}.", username);
+        // the user is fetched before the response starts so failures still get a proper status
+        SummaryStream summaryStream = gitHubUserSummaryService.streamUserSummary(username);
+        StreamingResponseBody body = outputStream -> {
+            summaryStreamWriter.write(summaryStream, outputStream);
+            log.debug("Finished streaming github summary response for user {}.", username);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
 
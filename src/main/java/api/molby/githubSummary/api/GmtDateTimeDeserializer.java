@@ -0,0 +1,35 @@
+package api.molby.githubSummary.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads response timestamps such as "Tue, 25 Jan 2011 18:44:36 GMT" back into an OffsetDateTime.
+ * Jackson can write these using the JsonFormat pattern but cannot read them, as the literal GMT
+ * is not parsed as an offset.  The format is RFC 1123 so the matching java formatter is used.
+ */
+public class GmtDateTimeDeserializer extends StdScalarDeserializer<OffsetDateTime> {
+
+    public GmtDateTimeDeserializer() {
+        super(OffsetDateTime.class);
+    }
+
+    @Override
+    public OffsetDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        String text = parser.getValueAsString();
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(text.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+        }
+        catch (DateTimeParseException e) {
+            return (OffsetDateTime) context.handleWeirdStringValue(OffsetDateTime.class, text, e.getMessage());
+        }
+    }
+}
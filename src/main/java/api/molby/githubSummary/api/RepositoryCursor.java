@@ -0,0 +1,56 @@
+package api.molby.githubSummary.api;
+
+import api.molby.githubSummary.exception.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor used to page through a list in a summary response.  The cursor wraps the
+ * offset of the next item so clients should not rely on its format.
+ */
+public final class RepositoryCursor {
+
+    private static final String PREFIX = "offset:";
+
+    // largest page limit accepted alongside a cursor
+    public static final int MAX_LIMIT = 1000;
+    // leaves room to add a page limit to the offset without overflowing
+    private static final int MAX_OFFSET = Integer.MAX_VALUE - MAX_LIMIT;
+
+    private RepositoryCursor() {
+    }
+
+    /**
+     * @param offset offset of the first item of the next page
+     * @return cursor for the given offset
+     */
+    public static String encode(int offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor cursor previously returned to a client, null for the first page
+     * @return offset wrapped by the cursor, 0 for a null cursor
+     */
+    public static int decode(String cursor) throws InvalidCursorException {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new InvalidCursorException(cursor);
+            }
+            int offset = Integer.parseInt(decoded.substring(PREFIX.length()));
+            if (offset < 0 || offset > MAX_OFFSET) {
+                throw new InvalidCursorException(cursor);
+            }
+            return offset;
+        }
+        catch (IllegalArgumentException e) {
+            // covers both invalid base64 and invalid numbers
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package api.molby.githubSummary.api;
+
+import java.util.List;
+
+/**
+ * Window of a users repositories requested by a client.
+ * @param offset offset of the first repository to return
+ * @param limit maximum number of repositories to return
+ */
+public record RepositoryWindow(int offset, int limit) {
+
+    /**
+     * Build a response containing only the repositories within this window of a complete summary.
+     * @param gitHubUserSummaryDTO summary containing all of a users repositories
+     * @return copy of the summary limited to this window, with the total and next cursor populated
+     */
+    public GitHubUserSummaryDTO apply(GitHubUserSummaryDTO gitHubUserSummaryDTO) {
+        List<GithubRepositoryResponseDTO> repos = gitHubUserSummaryDTO.getRepos() == null
+                ? List.of() : gitHubUserSummaryDTO.getRepos();
+        int from = Math.min(offset, repos.size());
+        int to = (int) Math.min((long) offset + limit, repos.size());
+        return gitHubUserSummaryDTO.toBuilder()
+                .repos(List.copyOf(repos.subList(from, to)))
+                .totalRepos(repos.size())
+                .nextCursor(nextCursor(repos.size()))
+                .build();
+    }
+
+    /**
+     * @param totalRepos total number of repositories for the user
+     * @return cursor for the window following this one, null if this is the last window
+     */
+    public String nextCursor(int totalRepos) {
+        long end = (long) offset + limit;
+        return end < totalRepos ? RepositoryCursor.encode((int) end) : null;
+    }
+}
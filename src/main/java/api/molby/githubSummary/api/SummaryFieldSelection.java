@@ -0,0 +1,123 @@
+package api.molby.githubSummary.api;
+
+import api.molby.githubSummary.exception.InvalidFieldsException;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Fields of a summary requested by a client through the fields query parameter, e.g.
+ * fields=userName,avatar or fields=repos.name.  Determines both which fields are serialized
+ * and which parts of the summary need to be fetched from github.
+ */
+public final class SummaryFieldSelection {
+
+    public static final String SUMMARY_FILTER = "summaryFields";
+    public static final String REPOSITORY_FILTER = "repositoryFields";
+
+    private static final Set<String> PROFILE_FIELDS = Set.of(
+            "userName", "displayName", "avatar", "geoLocation", "email", "url", "createdAt");
+    private static final Set<String> REPOSITORY_LIST_FIELDS = Set.of("repos", "nextCursor");
+    // the repository count is part of the github user profile, so needs no repository calls
+    private static final String TOTAL_REPOS_FIELD = "totalRepos";
+    private static final Set<String> REPOSITORY_FIELDS = Set.of("name", "url");
+    // flags an incomplete response, so is serialized whatever fields were selected
+    private static final String INCOMPLETE_FIELD = "incomplete";
+
+    private static final SummaryFieldSelection ALL = new SummaryFieldSelection(null, null, SummaryPart.all());
+    private static final SummaryFieldSelection PROFILE = new SummaryFieldSelection(PROFILE_FIELDS, Set.of(),
+            Set.of(SummaryPart.PROFILE));
+
+    // null means all fields
+    private final Set<String> summaryFields;
+    private final Set<String> repositoryFields;
+    private final Set<SummaryPart> requiredParts;
+
+    private SummaryFieldSelection(Set<String> summaryFields, Set<String> repositoryFields,
+                                  Set<SummaryPart> requiredParts) {
+        this.summaryFields = summaryFields;
+        this.repositoryFields = repositoryFields;
+        this.requiredParts = requiredParts;
+    }
+
+    /**
+     * @return selection of every field
+     */
+    public static SummaryFieldSelection all() {
+        return ALL;
+    }
+
+    /**
+     * @return selection of the profile fields only
+     */
+    public static SummaryFieldSelection profile() {
+        return PROFILE;
+    }
+
+    /**
+     * Parse a comma separated list of fields.  Repository fields are prefixed with repos., a plain
+     * repos selects all repository fields.
+     * @param fields fields query parameter, null or blank for all fields
+     * @return parsed selection
+     */
+    public static SummaryFieldSelection parse(String fields) throws InvalidFieldsException {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> summaryFields = new HashSet<>();
+        Set<String> repositoryFields = new HashSet<>();
+        Set<SummaryPart> requiredParts = EnumSet.noneOf(SummaryPart.class);
+        for (String field : fields.split(",")) {
+            field = field.trim();
+            if (PROFILE_FIELDS.contains(field) || field.equals(TOTAL_REPOS_FIELD)) {
+                summaryFields.add(field);
+                requiredParts.add(SummaryPart.PROFILE);
+            }
+            else if (REPOSITORY_LIST_FIELDS.contains(field)) {
+                summaryFields.add(field);
+                requiredParts.add(SummaryPart.REPOSITORIES);
+                if (field.equals("repos")) {
+                    repositoryFields.addAll(REPOSITORY_FIELDS);
+                }
+            }
+            else if (field.startsWith("repos.") && REPOSITORY_FIELDS.contains(field.substring("repos.".length()))) {
+                summaryFields.add("repos");
+                repositoryFields.add(field.substring("repos.".length()));
+                requiredParts.add(SummaryPart.REPOSITORIES);
+            }
+            else {
+                throw new InvalidFieldsException(fields, field);
+            }
+        }
+        return new SummaryFieldSelection(summaryFields, repositoryFields, requiredParts);
+    }
+
+    /**
+     * @return parts of the summary that need to be fetched to populate the selected fields
+     */
+    public Set<SummaryPart> getRequiredParts() {
+        return requiredParts;
+    }
+
+    /**
+     * @return jackson filters serializing only the selected fields
+     */
+    public FilterProvider toFilterProvider() {
+        return new SimpleFilterProvider()
+                .addFilter(SUMMARY_FILTER, summaryFields == null
+                        ? SimpleBeanPropertyFilter.serializeAll()
+                        : SimpleBeanPropertyFilter.filterOutAllExcept(withIncomplete(summaryFields)))
+                .addFilter(REPOSITORY_FILTER, repositoryFields == null
+                        ? SimpleBeanPropertyFilter.serializeAll()
+                        : SimpleBeanPropertyFilter.filterOutAllExcept(repositoryFields));
+    }
+
+    private static Set<String> withIncomplete(Set<String> summaryFields) {
+        Set<String> fields = new HashSet<>(summaryFields);
+        fields.add(INCOMPLETE_FIELD);
+        return fields;
+    }
+}
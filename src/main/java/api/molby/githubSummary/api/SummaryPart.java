@@ -0,0 +1,20 @@
+package api.molby.githubSummary.api;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Parts of a summary that are fetched from separate github apis.  Used to skip github calls for
+ * parts a client did not ask for and to track which parts a cached summary holds.
+ */
+public enum SummaryPart {
+
+    // user profile fields, from the github user api
+    PROFILE,
+    // repository list, from the github user repositories api
+    REPOSITORIES;
+
+    public static Set<SummaryPart> all() {
+        return EnumSet.allOf(SummaryPart.class);
+    }
+}
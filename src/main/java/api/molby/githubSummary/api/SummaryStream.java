@@ -0,0 +1,67 @@
+package api.molby.githubSummary.api;
+
+import api.molby.githubSummary.exception.GitHubApiAccessException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Summary to be streamed to a client.  Either a complete summary, e.g. from the cache, or the
+ * profile of the user along with the repository pages still to be fetched from github.
+ * @param summary complete summary, or the profile only when repositoryPages is not null
+ * @param repositoryPages repositories still to be fetched, null if the summary is complete
+ */
+public record SummaryStream(GitHubUserSummaryDTO summary, RepositoryPages repositoryPages) {
+
+    /**
+     * @param summary complete summary
+     * @return stream of an already complete summary
+     */
+    public static SummaryStream of(GitHubUserSummaryDTO summary) {
+        return new SummaryStream(summary, null);
+    }
+
+    /**
+     * @return true if repositories are fetched while streaming
+     */
+    public boolean isStreamingRepositories() {
+        return repositoryPages != null;
+    }
+
+    /**
+     * Repositories of a user fetched page by page.
+     */
+    @FunctionalInterface
+    public interface RepositoryPages {
+
+        /**
+         * Fetch every page of repositories, handing each to the consumer as it arrives.
+         * @param pageConsumer called with each page of repositories in name order
+         * @return total number of repositories, and a cursor if not every page was fetched
+         */
+        RepositoryPagesResult forEachPage(Consumer<List<GithubRepositoryResponseDTO>> pageConsumer)
+                throws GitHubApiAccessException;
+    }
+
+    /**
+     * Outcome of fetching the repository pages.
+     * @param totalRepos total number of repositories
+     * @param nextCursor cursor for the repositories not fetched, null if every page was fetched
+     */
+    public record RepositoryPagesResult(int totalRepos, String nextCursor) {
+
+        /**
+         * @param totalRepos number of repositories fetched
+         * @return result of fetching every page
+         */
+        public static RepositoryPagesResult complete(int totalRepos) {
+            return new RepositoryPagesResult(totalRepos, null);
+        }
+
+        /**
+         * @return true if the request deadline passed before every page was fetched
+         */
+        public boolean isIncomplete() {
+            return nextCursor != null;
+        }
+    }
+}
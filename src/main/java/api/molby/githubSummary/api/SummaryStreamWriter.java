@@ -0,0 +1,121 @@
+package api.molby.githubSummary.api;
+
+import api.molby.githubSummary.exception.GitHubApiAccessException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a SummaryStream as JSON.  The profile fields and the start of the repos array are written
+ * and flushed straight away, then each page of repositories is written and flushed as it arrives
+ * from github.  The result is the same document as the regular summary response.
+ */
+class SummaryStreamWriter {
+
+    private static Logger log = LoggerFactory.getLogger(SummaryStreamWriter.class);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter allFieldsWriter;
+    private final ObjectWriter profileFieldsWriter;
+
+    SummaryStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.allFieldsWriter = objectMapper.writer(SummaryFieldSelection.all().toFilterProvider());
+        this.profileFieldsWriter = objectMapper.writer(SummaryFieldSelection.profile().toFilterProvider());
+    }
+
+    /**
+     * @param summaryStream summary to write
+     * @param outputStream response body
+     * @throws IOException if the repositories could not be fetched once streaming had started, the
+     * response is left incomplete so the client can tell it failed
+     */
+    void write(SummaryStream summaryStream, OutputStream outputStream) throws IOException {
+        try (JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // the servlet container closes the stream, and a failed stream must not be closed off as valid json
+            jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            if (!summaryStream.isStreamingRepositories()) {
+                allFieldsWriter.writeValue(jsonGenerator, summaryStream.summary());
+                return;
+            }
+            jsonGenerator.writeStartObject();
+            writeProfileFields(jsonGenerator, summaryStream.summary());
+            jsonGenerator.writeArrayFieldStart("repos");
+            jsonGenerator.flush();
+            RepositoryPageWriter repositoryPageWriter = new RepositoryPageWriter(jsonGenerator);
+            SummaryStream.RepositoryPagesResult repositoryPagesResult;
+            try {
+                repositoryPagesResult = summaryStream.repositoryPages().forEachPage(repositoryPageWriter::write);
+            }
+            catch (GitHubApiAccessException e) {
+                throw new IOException("Unable to fetch repositories while streaming summary for user "
+                        + e.getUserName(), e);
+            }
+            if (repositoryPageWriter.clientGone) {
+                return;
+            }
+            jsonGenerator.writeEndArray();
+            jsonGenerator.writeNumberField("totalRepos", repositoryPagesResult.totalRepos());
+            if (repositoryPagesResult.isIncomplete()) {
+                // same fields as a regular response cut short by the request deadline
+                jsonGenerator.writeStringField("nextCursor", repositoryPagesResult.nextCursor());
+                jsonGenerator.writeBooleanField("incomplete", true);
+            }
+            jsonGenerator.writeEndObject();
+        }
+    }
+
+    /**
+     * Write the profile fields of the summary using the same annotations, e.g. date formats, as the
+     * regular response.
+     */
+    private void writeProfileFields(JsonGenerator jsonGenerator, GitHubUserSummaryDTO profileDTO) throws IOException {
+        JsonNode profile = objectMapper.readTree(profileFieldsWriter.writeValueAsBytes(profileDTO));
+        Iterator<Map.Entry<String, JsonNode>> fields = profile.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            jsonGenerator.writeFieldName(field.getKey());
+            jsonGenerator.writeTree(field.getValue());
+        }
+    }
+
+    /**
+     * Writes pages of repositories.  If the client goes away the remaining pages are still fetched,
+     * so the summary is cached, but no longer written.
+     */
+    private class RepositoryPageWriter {
+
+        private final JsonGenerator jsonGenerator;
+        private boolean clientGone;
+
+        private RepositoryPageWriter(JsonGenerator jsonGenerator) {
+            this.jsonGenerator = jsonGenerator;
+        }
+
+        private void write(List<GithubRepositoryResponseDTO> page) {
+            if (clientGone) {
+                return;
+            }
+            try {
+                for (GithubRepositoryResponseDTO repository : page) {
+                    allFieldsWriter.writeValue(jsonGenerator, repository);
+                }
+                jsonGenerator.flush();
+            }
+            catch (IOException e) {
+                clientGone = true;
+                log.debug("Client went away while streaming summary, continuing to fill cache.  message: {}.",
+                        e.getMessage());
+            }
+        }
+    }
+}
@@ -1,117 +1,110 @@
 package api.molby.githubSummary.client;
 
 import api.molby.githubSummary.exception.GitHubApiAccessException;
-import org.apache.logging.log4j.util.Strings;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClient;
-import org.springframework.web.client.RestClientResponseException;
-import java.util.ArrayList;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
- * Client for calling GitHub APIs used by the GitHubUserSummary service.
+ * Client for calling GitHub APIs used by the GitHubUserSummary service.  Implementations
+ * are selected by the github.api.mode property (rest or graphql).
  */
-@Component
-public class GitHubApiClient {
-
-    private final RestClient gitHubRestClient;
-
-    public GitHubApiClient(RestClient gitHubRestClient) {
-        this.gitHubRestClient = gitHubRestClient;
-    }
+public interface GitHubApiClient {
 
     /**
      * Construct a GitHubUserDTO by making a call to a given github api.
      * @param userName User to fetch details on.
      * @return GitHubUserDTO with information provided by github api.
      */
-    public GithubUserDTO fetchUser(String userName) throws GitHubApiAccessException {
-        GithubUserDTO githubUserDTO = null;
-        try {
-            githubUserDTO = gitHubRestClient.get()
-                    .uri("/users/{username}", userName)
-                    .retrieve()
-                    .body(new ParameterizedTypeReference<GithubUserDTO>() {
-                    });
-        }
-        catch (RestClientResponseException re) {
-            throw new GitHubApiAccessException(re, userName, re.getMessage());
-        }
-        return githubUserDTO;
+    GithubUserDTO fetchUser(String userName) throws GitHubApiAccessException;
+
+    /**
+     * Return a list of github repositories for a given user, following as many pages
+     * of results as needed.
+     * @param userName Name of user to fetch repositories for.
+     * @return List of repositories for the given user in name order.
+     */
+    List<GithubRepositoryDTO> fetchUserRepositories(String userName) throws GitHubApiAccessException;
+
+    /**
+     * Fetch all repositories of a given user in name order, handing each page to the consumer as
+     * soon as it arrives rather than collecting them first.  By default all repositories are
+     * fetched and handed over as a single page.
+     * @param userName Name of user to fetch repositories for.
+     * @param pageConsumer Called with each page of repositories in order.
+     */
+    default void fetchUserRepositories(String userName, Consumer<List<GithubRepositoryDTO>> pageConsumer)
+            throws GitHubApiAccessException {
+        pageConsumer.accept(fetchUserRepositories(userName));
     }
 
     /**
-     * Return a list of github repositories for a given user.  Note that this
-     * takes into consideration the possibility of multiple pages of results in the
-     * github repository api results.  This is unlikely in most situation since the default page
-     * size is 100, but could still technically occur.
+     * Return the repositories of a given user that were updated at or after a given time.
      * @param userName Name of user to fetch repositories for.
-     * @return List of repositories for the given user.
+     * @param since Only repositories updated at or after this time are returned.
+     * @return List of repositories updated since the given time, most recently updated first.
      */
-    public List<GithubRepositoryDTO> fetchUserRepositories(String userName) throws GitHubApiAccessException {
-        // github user repositories can technically have multiple pages...
-        List<GithubRepositoryDTO> githubRepositoryDTOS = new ArrayList<>();
-        int pageNumber = 1;
-        boolean morePages = true;
-        try {
-            while (morePages) {
-                GithubUserRepositoryPage githubUserRepositoryPage = fetchRepositoryPage(userName, pageNumber++);
-                githubRepositoryDTOS.addAll(githubUserRepositoryPage.githubRepositoryDTOS());
-                morePages = githubUserRepositoryPage.hasNextPage();
-            }
-        }
-        catch (RestClientResponseException e) {
-            throw new GitHubApiAccessException(e, userName, e.getMessage());
-        }
-        return githubRepositoryDTOS;
+    List<GithubRepositoryDTO> fetchUserRepositoriesUpdatedSince(String userName, OffsetDateTime since)
+            throws GitHubApiAccessException;
+
+    /**
+     * Return the logins of the members of a given organization, following as many pages of
+     * results as needed.  Unless the access token belongs to a member, github only returns the
+     * members that have made their membership public.
+     * @param orgName Name of organization to fetch members for.
+     * @return Logins of the organization members.
+     */
+    List<String> fetchOrganizationMembers(String orgName) throws GitHubApiAccessException;
+
+    /**
+     * Fetch a user along with all of their repositories.  By default this is a call to fetchUser
+     * followed by fetchUserRepositories, implementations able to do so in fewer round trips
+     * should override it.
+     * @param userName User to fetch details and repositories for.
+     * @return User details and repositories in name order.
+     */
+    default GithubUserRepositories fetchUserWithRepositories(String userName) throws GitHubApiAccessException {
+        return new GithubUserRepositories(fetchUser(userName), fetchUserRepositories(userName));
     }
 
     /**
-     * Fetch a given page number of repositories for a given user.
-     * param username github user name
-     * @param pageNumber page number to fetch
-     * @return boolean indicating if more pages exists
+     * Fetch a user along with a window of their repositories in name order.  Implementations
+     * should only request the pages of repositories needed to cover the window.  By default all
+     * repositories are fetched and the window taken from them.
+     * @param userName User to fetch details and repositories for.
+     * @param offset Offset of the first repository to return.
+     * @param limit Maximum number of repositories to return.
+     * @return User details, the requested window of repositories and the total repository count.
      */
-    private GithubUserRepositoryPage fetchRepositoryPage(String username, int pageNumber) {
-        boolean nextPageExists = false;
-        ResponseEntity<List<GithubRepositoryDTO>> githubUserRepositoryEntity = gitHubRestClient.get()
-                .uri(
-                        uriBuilder -> uriBuilder
-                                .path("/users/{username}/repos")
-                                .queryParam("sort","name")
-                                .queryParam("page", pageNumber)
-                                .build(username)
-                )
-                .retrieve()
-                .toEntity(new ParameterizedTypeReference<List<GithubRepositoryDTO>>() {
-                });
-        List<GithubRepositoryDTO> githubRepositoryDTOS = githubUserRepositoryEntity.getBody();
-        String linkHeader = githubUserRepositoryEntity.getHeaders().getFirst(HttpHeaders.LINK);
-        if (Strings.isNotEmpty(linkHeader)) {
-            String[] linkHeaderSegments = linkHeader.split(",");
-            for (String linkHeaderSegment : linkHeaderSegments) {
-                String linkRelation = linkHeaderSegment.split(";")[1].trim().split("=")[1].trim();
-                // link relation may possibly include trailing/leading quotes in actual string so just look for keyword next
-                if (linkRelation.contains("next")) {
-                    nextPageExists = true;
-                    break;
-                }
-            }
-        }
-        return new GithubUserRepositoryPage(githubRepositoryDTOS, nextPageExists);
+    default GithubUserRepositoryWindow fetchUserWithRepositoryWindow(String userName, int offset, int limit)
+            throws GitHubApiAccessException {
+        GithubUserRepositories githubUserRepositories = fetchUserWithRepositories(userName);
+        List<GithubRepositoryDTO> githubRepositoryDTOS = githubUserRepositories.githubRepositoryDTOS();
+        int from = Math.min(offset, githubRepositoryDTOS.size());
+        int to = (int) Math.min((long) offset + limit, githubRepositoryDTOS.size());
+        return new GithubUserRepositoryWindow(githubUserRepositories.githubUserDTO(),
+                githubRepositoryDTOS.subList(from, to), githubRepositoryDTOS.size());
     }
 
     /**
-     * Inner record to store result for fetchRepositoryPage and avoid
-     * a mutating signature.
-     * @param githubRepositoryDTOS Repository dtos fetched for a page
-     * @param hasNextPage boolean indicating if another page of results exist in github
+     * User details along with that users repositories.
+     * @param githubUserDTO User details
+     * @param githubRepositoryDTOS Repositories owned by the user
+     */
+    record GithubUserRepositories(
+            GithubUserDTO githubUserDTO,
+            List<GithubRepositoryDTO> githubRepositoryDTOS
+    ) {}
+
+    /**
+     * User details along with a window of that users repositories.
+     * @param githubUserDTO User details
+     * @param githubRepositoryDTOS Repositories in the requested window
+     * @param totalRepositories Total number of repositories owned by the user
      */
-    private record GithubUserRepositoryPage(
+    record GithubUserRepositoryWindow(
+            GithubUserDTO githubUserDTO,
             List<GithubRepositoryDTO> githubRepositoryDTOS,
-            boolean hasNextPage
+            int totalRepositories
     ) {}
 }
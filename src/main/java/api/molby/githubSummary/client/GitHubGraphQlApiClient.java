@@ -0,0 +1,310 @@
+package api.molby.githubSummary.client;
+
+import api.molby.githubSummary.exception.GitHubApiAccessException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Client for calling the GitHub GraphQL (v4) API.  A user and up to 100 of their repositories
+ * are returned by a single query, compared to 1 + ceil(repos/30) calls with the REST api.
+ * Results are mapped onto the same DTOs as GitHubRestApiClient, including the REST api urls,
+ * so the two clients are interchangeable.  Enabled with github.api.mode=graphql.  Note that the
+ * GraphQL api always requires an access token.
+ */
+@Component
+@ConditionalOnProperty(name = "github.api.mode", havingValue = "graphql")
+public class GitHubGraphQlApiClient implements GitHubApiClient {
+
+    // largest page size allowed by github
+    private static final int PAGE_SIZE = 100;
+
+    private static final String USER_FIELDS = "login name avatarUrl email createdAt location "
+            + "publicRepositories: repositories(privacy: PUBLIC, ownerAffiliations: [OWNER]) { totalCount }";
+
+    private static final String USER_QUERY = """
+            query($login: String!) {
+              user(login: $login) { %s }
+            }
+            """.formatted(USER_FIELDS);
+
+    private static final String USER_REPOSITORIES_QUERY = """
+            query($login: String!, $first: Int!, $after: String, $orderField: RepositoryOrderField!, $orderDirection: OrderDirection!) {
+              user(login: $login) {
+                %s
+                repositories(first: $first, after: $after, privacy: PUBLIC, ownerAffiliations: [OWNER],
+                             orderBy: {field: $orderField, direction: $orderDirection}) {
+                  pageInfo { hasNextPage endCursor }
+                  nodes { name nameWithOwner updatedAt }
+                }
+              }
+            }
+            """.formatted(USER_FIELDS);
+
+    private static final String ORGANIZATION_MEMBERS_QUERY = """
+            query($login: String!, $first: Int!, $after: String) {
+              organization(login: $login) {
+                membersWithRole(first: $first, after: $after) {
+                  pageInfo { hasNextPage endCursor }
+                  nodes { login }
+                }
+              }
+            }
+            """;
+
+    private final RestClient gitHubGraphQlRestClient;
+    private final String gitHubAPIUrl;
+
+    public GitHubGraphQlApiClient(@Qualifier("gitHubGraphQlRestClient") RestClient gitHubGraphQlRestClient,
+                                  @Value("${github.api.url:https://api.github.com}") String gitHubAPIUrl) {
+        this.gitHubGraphQlRestClient = gitHubGraphQlRestClient;
+        this.gitHubAPIUrl = gitHubAPIUrl;
+    }
+
+    @Override
+    public GithubUserDTO fetchUser(String userName) throws GitHubApiAccessException {
+        try {
+            return toUser(executeUserQuery(userName, USER_QUERY, Map.of("login", userName)));
+        }
+        catch (RestClientResponseException re) {
+            throw new GitHubApiAccessException(re, userName, re.getMessage());
+        }
+    }
+
+    @Override
+    public List<GithubRepositoryDTO> fetchUserRepositories(String userName) throws GitHubApiAccessException {
+        return fetchUserWithRepositories(userName).githubRepositoryDTOS();
+    }
+
+    /**
+     * Fetch a users repositories 100 per query, handing each page on as soon as it arrives.
+     * @param userName Name of user to fetch repositories for.
+     * @param pageConsumer Called with each page of repositories in name order.
+     */
+    @Override
+    public void fetchUserRepositories(String userName, Consumer<List<GithubRepositoryDTO>> pageConsumer)
+            throws GitHubApiAccessException {
+        fetchRepositories(userName, "NAME", "ASC", null, Integer.MAX_VALUE, pageConsumer);
+    }
+
+    @Override
+    public List<GithubRepositoryDTO> fetchUserRepositoriesUpdatedSince(String userName, OffsetDateTime since)
+            throws GitHubApiAccessException {
+        return fetchRepositories(userName, "UPDATED_AT", "DESC", since, Integer.MAX_VALUE, null).githubRepositoryDTOS();
+    }
+
+    /**
+     * Fetch the logins of an organizations members, 100 members per query.
+     * @param orgName Name of organization to fetch members for.
+     * @return Logins of the organization members.
+     */
+    @Override
+    public List<String> fetchOrganizationMembers(String orgName) throws GitHubApiAccessException {
+        List<String> memberLogins = new ArrayList<>();
+        String cursor = null;
+        boolean morePages = true;
+        try {
+            while (morePages) {
+                Map<String, Object> variables = new HashMap<>();
+                variables.put("login", orgName);
+                variables.put("first", PAGE_SIZE);
+                variables.put("after", cursor);
+                JsonNode members = executeQuery(orgName, ORGANIZATION_MEMBERS_QUERY, variables, "organization")
+                        .path("membersWithRole");
+                for (JsonNode member : members.path("nodes")) {
+                    memberLogins.add(member.path("login").asText());
+                }
+                JsonNode pageInfo = members.path("pageInfo");
+                morePages = pageInfo.path("hasNextPage").asBoolean(false);
+                cursor = pageInfo.path("endCursor").asText(null);
+            }
+        }
+        catch (RestClientResponseException e) {
+            throw new GitHubApiAccessException(e, orgName, e.getMessage());
+        }
+        return memberLogins;
+    }
+
+    /**
+     * Fetch a user and their repositories, the user details come along with the first page of
+     * repositories so a user with up to 100 repositories needs a single call.
+     * @param userName User to fetch details and repositories for.
+     * @return User details and repositories in name order.
+     */
+    @Override
+    public GithubUserRepositories fetchUserWithRepositories(String userName) throws GitHubApiAccessException {
+        return fetchRepositories(userName, "NAME", "ASC", null, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Fetch a user along with a window of their repositories.  GraphQL cursors cannot be derived
+     * from an offset so pages are walked from the start, stopping once the window is covered.
+     * @param userName User to fetch details and repositories for.
+     * @param offset Offset of the first repository to return.
+     * @param limit Maximum number of repositories to return.
+     * @return User details, the requested window of repositories and the total repository count.
+     */
+    @Override
+    public GithubUserRepositoryWindow fetchUserWithRepositoryWindow(String userName, int offset, int limit)
+            throws GitHubApiAccessException {
+        GithubUserRepositories githubUserRepositories = fetchRepositories(userName, "NAME", "ASC", null,
+                (int) Math.min((long) offset + limit, Integer.MAX_VALUE), null);
+        List<GithubRepositoryDTO> githubRepositoryDTOS = githubUserRepositories.githubRepositoryDTOS();
+        GithubUserDTO githubUserDTO = githubUserRepositories.githubUserDTO();
+        return new GithubUserRepositoryWindow(githubUserDTO,
+                githubRepositoryDTOS.subList(Math.min(offset, githubRepositoryDTOS.size()), githubRepositoryDTOS.size()),
+                githubUserDTO.getPublicRepos() == null ? githubRepositoryDTOS.size() : githubUserDTO.getPublicRepos());
+    }
+
+    /**
+     * Page through a users repositories in the given order.
+     * @param userName Name of user to fetch repositories for.
+     * @param orderField GraphQL RepositoryOrderField to sort by
+     * @param orderDirection GraphQL OrderDirection
+     * @param since If not null, paging stops at the first repository updated before this time.
+     * @param maxRepositories Paging stops once this many repositories have been fetched.
+     * @param pageConsumer If not null, called with each page of repositories as it arrives.
+     * @return User details from the first page along with all repositories fetched.
+     */
+    private GithubUserRepositories fetchRepositories(String userName, String orderField, String orderDirection,
+                                                     OffsetDateTime since, int maxRepositories,
+                                                     Consumer<List<GithubRepositoryDTO>> pageConsumer)
+            throws GitHubApiAccessException {
+        List<GithubRepositoryDTO> githubRepositoryDTOS = new ArrayList<>();
+        GithubUserDTO githubUserDTO = null;
+        String cursor = null;
+        boolean morePages = maxRepositories > 0;
+        try {
+            while (morePages) {
+                Map<String, Object> variables = new HashMap<>();
+                variables.put("login", userName);
+                variables.put("first", Math.min(PAGE_SIZE, maxRepositories - githubRepositoryDTOS.size()));
+                variables.put("after", cursor);
+                variables.put("orderField", orderField);
+                variables.put("orderDirection", orderDirection);
+                JsonNode user = executeUserQuery(userName, USER_REPOSITORIES_QUERY, variables);
+                if (githubUserDTO == null) {
+                    githubUserDTO = toUser(user);
+                }
+                JsonNode repositories = user.path("repositories");
+                List<GithubRepositoryDTO> page = new ArrayList<>();
+                boolean olderRepositoryReached = false;
+                for (JsonNode repository : repositories.path("nodes")) {
+                    GithubRepositoryDTO githubRepositoryDTO = toRepository(repository);
+                    if (since != null && (githubRepositoryDTO.getUpdatedAt() == null
+                            || githubRepositoryDTO.getUpdatedAt().isBefore(since))) {
+                        olderRepositoryReached = true;
+                        break;
+                    }
+                    page.add(githubRepositoryDTO);
+                }
+                githubRepositoryDTOS.addAll(page);
+                if (pageConsumer != null) {
+                    pageConsumer.accept(page);
+                }
+                JsonNode pageInfo = repositories.path("pageInfo");
+                morePages = !olderRepositoryReached && pageInfo.path("hasNextPage").asBoolean(false)
+                        && githubRepositoryDTOS.size() < maxRepositories;
+                cursor = pageInfo.path("endCursor").asText(null);
+            }
+        }
+        catch (RestClientResponseException e) {
+            throw new GitHubApiAccessException(e, userName, e.getMessage());
+        }
+        return new GithubUserRepositories(githubUserDTO, githubRepositoryDTOS);
+    }
+
+    private JsonNode executeUserQuery(String userName, String query, Map<String, Object> variables) {
+        return executeQuery(userName, query, variables, "user");
+    }
+
+    /**
+     * Execute a query returning a user or organization.  GraphQL reports errors, including unknown
+     * users, in the body of a successful response so these are converted to the equivalent REST
+     * exceptions to keep error handling identical to the REST client.
+     * @param login github user or organization name, used for error reporting
+     * @param query GraphQL query with the given top level field
+     * @param variables query variables
+     * @param rootField top level field of the query, user or organization
+     * @return root field node of the response
+     */
+    private JsonNode executeQuery(String login, String query, Map<String, Object> variables, String rootField) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("query", query);
+        request.put("variables", variables);
+        JsonNode response = gitHubGraphQlRestClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(request)
+                .retrieve()
+                .body(JsonNode.class);
+        JsonNode errors = response == null ? null : response.path("errors");
+        if (errors != null && errors.isArray() && !errors.isEmpty()) {
+            String message = errors.get(0).path("message").asText("GraphQL query failed");
+            for (JsonNode error : errors) {
+                if ("NOT_FOUND".equals(error.path("type").asText())) {
+                    throw HttpClientErrorException.create(message, HttpStatus.NOT_FOUND, "Not Found",
+                            new HttpHeaders(), null, StandardCharsets.UTF_8);
+                }
+            }
+            throw HttpServerErrorException.create(message, HttpStatus.BAD_GATEWAY, "Bad Gateway",
+                    new HttpHeaders(), null, StandardCharsets.UTF_8);
+        }
+        JsonNode root = response == null ? null : response.path("data").path(rootField);
+        if (root == null || root.isMissingNode() || root.isNull()) {
+            throw HttpClientErrorException.create("Not found: " + login, HttpStatus.NOT_FOUND,
+                    "Not Found", new HttpHeaders(), null, StandardCharsets.UTF_8);
+        }
+        return root;
+    }
+
+    private GithubUserDTO toUser(JsonNode user) {
+        String login = user.path("login").asText(null);
+        return GithubUserDTO.builder()
+                .login(login)
+                .name(textOrNull(user.path("name")))
+                .avatarUrl(textOrNull(user.path("avatarUrl")))
+                .email(textOrNull(user.path("email")))
+                .createdAt(dateTimeOrNull(user.path("createdAt")))
+                .location(textOrNull(user.path("location")))
+                .publicRepos(user.path("publicRepositories").path("totalCount").isInt()
+                        ? user.path("publicRepositories").path("totalCount").asInt() : null)
+                // match the REST api url rather than the GraphQL html url
+                .url(gitHubAPIUrl + "/users/" + login)
+                .build();
+    }
+
+    private GithubRepositoryDTO toRepository(JsonNode repository) {
+        return GithubRepositoryDTO.builder()
+                .name(repository.path("name").asText(null))
+                .url(gitHubAPIUrl + "/repos/" + repository.path("nameWithOwner").asText())
+                .updatedAt(dateTimeOrNull(repository.path("updatedAt")))
+                .build();
+    }
+
+    // GraphQL returns empty strings rather than nulls for unset profile fields such as email
+    private static String textOrNull(JsonNode node) {
+        String text = node.isNull() || node.isMissingNode() ? null : node.asText();
+        return text == null || text.isEmpty() ? null : text;
+    }
+
+    private static OffsetDateTime dateTimeOrNull(JsonNode node) {
+        String text = textOrNull(node);
+        return text == null ? null : OffsetDateTime.parse(text);
+    }
+}
@@ -0,0 +1,273 @@
+package api.molby.githubSummary.client;
+
+import api.molby.githubSummary.exception.GitHubApiAccessException;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Client for calling GitHub REST APIs used by the GitHubUserSummary service.  This is the
+ * default client, see GitHubGraphQlApiClient for the GraphQL alternative.
+ */
+@Component
+@ConditionalOnProperty(name = "github.api.mode", havingValue = "rest", matchIfMissing = true)
+public class GitHubRestApiClient implements GitHubApiClient {
+
+    // largest page size allowed by github, used when only a window of repositories is needed
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final RestClient gitHubRestClient;
+
+    public GitHubRestApiClient(RestClient gitHubRestClient) {
+        this.gitHubRestClient = gitHubRestClient;
+    }
+
+    /**
+     * Construct a GitHubUserDTO by making a call to a given github api.
+     * @param userName User to fetch details on.
+     * @return GitHubUserDTO with information provided by github api.
+     */
+    @Override
+    public GithubUserDTO fetchUser(String userName) throws GitHubApiAccessException {
+        GithubUserDTO githubUserDTO = null;
+        try {
+            githubUserDTO = gitHubRestClient.get()
+                    .uri("/users/{username}", userName)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<GithubUserDTO>() {
+                    });
+        }
+        catch (RestClientResponseException re) {
+            throw new GitHubApiAccessException(re, userName, re.getMessage());
+        }
+        return githubUserDTO;
+    }
+
+    /**
+     * Return a list of github repositories for a given user.  Note that this
+     * takes into consideration the possibility of multiple pages of results in the
+     * github repository api results.  This is unlikely in most situation since the default page
+     * size is 100, but could still technically occur.
+     * @param userName Name of user to fetch repositories for.
+     * @return List of repositories for the given user.
+     */
+    @Override
+    public List<GithubRepositoryDTO> fetchUserRepositories(String userName) throws GitHubApiAccessException {
+        List<GithubRepositoryDTO> githubRepositoryDTOS = new ArrayList<>();
+        fetchUserRepositories(userName, githubRepositoryDTOS::addAll);
+        return githubRepositoryDTOS;
+    }
+
+    /**
+     * Fetch all repositories of a given user in name order, handing each page to the consumer
+     * as soon as it is received.
+     * @param userName Name of user to fetch repositories for.
+     * @param pageConsumer Called with each page of repositories in order.
+     */
+    @Override
+    public void fetchUserRepositories(String userName, Consumer<List<GithubRepositoryDTO>> pageConsumer)
+            throws GitHubApiAccessException {
+        // github user repositories can technically have multiple pages...
+        int pageNumber = 1;
+        boolean morePages = true;
+        try {
+            while (morePages) {
+                GithubUserRepositoryPage githubUserRepositoryPage = fetchRepositoryPage(userName, pageNumber++);
+                pageConsumer.accept(githubUserRepositoryPage.githubRepositoryDTOS());
+                morePages = githubUserRepositoryPage.hasNextPage();
+            }
+        }
+        catch (RestClientResponseException e) {
+            throw new GitHubApiAccessException(e, userName, e.getMessage());
+        }
+    }
+
+    /**
+     * Return the repositories of a given user that were updated at or after a given time.
+     * Repositories are requested most recently updated first so paging stops as soon as a
+     * repository older than the given time is reached, usually after a single page.
+     * @param userName Name of user to fetch repositories for.
+     * @param since Only repositories updated at or after this time are returned.
+     * @return List of repositories updated since the given time, most recently updated first.
+     */
+    @Override
+    public List<GithubRepositoryDTO> fetchUserRepositoriesUpdatedSince(String userName, OffsetDateTime since)
+            throws GitHubApiAccessException {
+        List<GithubRepositoryDTO> githubRepositoryDTOS = new ArrayList<>();
+        int pageNumber = 1;
+        boolean morePages = true;
+        try {
+            while (morePages) {
+                GithubUserRepositoryPage githubUserRepositoryPage =
+                        fetchRepositoryPage(userName, pageNumber++, "updated", "desc", null);
+                for (GithubRepositoryDTO githubRepositoryDTO : githubUserRepositoryPage.githubRepositoryDTOS()) {
+                    if (githubRepositoryDTO.getUpdatedAt() == null || githubRepositoryDTO.getUpdatedAt().isBefore(since)) {
+                        return githubRepositoryDTOS;
+                    }
+                    githubRepositoryDTOS.add(githubRepositoryDTO);
+                }
+                morePages = githubUserRepositoryPage.hasNextPage();
+            }
+        }
+        catch (RestClientResponseException e) {
+            throw new GitHubApiAccessException(e, userName, e.getMessage());
+        }
+        return githubRepositoryDTOS;
+    }
+
+    /**
+     * Fetch a user along with a window of their repositories.  Repositories are requested in pages
+     * of 100 and only the pages overlapping the window are requested.  The total comes from the
+     * public repository count on the user, so no repositories are requested for windows beyond it.
+     * @param userName User to fetch details and repositories for.
+     * @param offset Offset of the first repository to return.
+     * @param limit Maximum number of repositories to return.
+     * @return User details, the requested window of repositories and the total repository count.
+     */
+    @Override
+    public GithubUserRepositoryWindow fetchUserWithRepositoryWindow(String userName, int offset, int limit)
+            throws GitHubApiAccessException {
+        GithubUserDTO githubUserDTO = fetchUser(userName);
+        int totalRepositories = githubUserDTO.getPublicRepos() == null ? 0 : githubUserDTO.getPublicRepos();
+        List<GithubRepositoryDTO> githubRepositoryDTOS = new ArrayList<>();
+        int pageNumber = offset / MAX_PAGE_SIZE + 1;
+        long end = (long) offset + limit;
+        long lastPageNumber = (end - 1) / MAX_PAGE_SIZE + 1;
+        // position in the overall list of the first repository on the current page
+        int pageOffset = (pageNumber - 1) * MAX_PAGE_SIZE;
+        boolean morePages = offset < totalRepositories;
+        try {
+            while (morePages && pageNumber <= lastPageNumber) {
+                GithubUserRepositoryPage githubUserRepositoryPage =
+                        fetchRepositoryPage(userName, pageNumber++, "full_name", "asc", MAX_PAGE_SIZE);
+                for (GithubRepositoryDTO githubRepositoryDTO : githubUserRepositoryPage.githubRepositoryDTOS()) {
+                    if (pageOffset >= offset && pageOffset < end) {
+                        githubRepositoryDTOS.add(githubRepositoryDTO);
+                    }
+                    pageOffset++;
+                }
+                morePages = githubUserRepositoryPage.hasNextPage();
+            }
+        }
+        catch (RestClientResponseException e) {
+            throw new GitHubApiAccessException(e, userName, e.getMessage());
+        }
+        return new GithubUserRepositoryWindow(githubUserDTO, githubRepositoryDTOS, totalRepositories);
+    }
+
+    /**
+     * Return the logins of the members of a given organization, following as many pages of
+     * results as needed.  Members are requested in pages of 100.
+     * @param orgName Name of organization to fetch members for.
+     * @return Logins of the organization members in the order returned by github.
+     */
+    @Override
+    public List<String> fetchOrganizationMembers(String orgName) throws GitHubApiAccessException {
+        List<String> memberLogins = new ArrayList<>();
+        int pageNumber = 1;
+        boolean morePages = true;
+        try {
+            while (morePages) {
+                int page = pageNumber++;
+                ResponseEntity<List<GithubUserDTO>> githubMemberEntity = gitHubRestClient.get()
+                        .uri(
+                                uriBuilder -> uriBuilder
+                                        .path("/orgs/{org}/members")
+                                        .queryParam("page", page)
+                                        .queryParam("per_page", MAX_PAGE_SIZE)
+                                        .build(orgName)
+                        )
+                        .retrieve()
+                        .toEntity(new ParameterizedTypeReference<List<GithubUserDTO>>() {
+                        });
+                if (githubMemberEntity.getBody() != null) {
+                    githubMemberEntity.getBody().forEach(githubUserDTO -> memberLogins.add(githubUserDTO.getLogin()));
+                }
+                morePages = hasNextPage(githubMemberEntity);
+            }
+        }
+        catch (RestClientResponseException e) {
+            throw new GitHubApiAccessException(e, orgName, e.getMessage());
+        }
+        return memberLogins;
+    }
+
+    /**
+     * Fetch a given page number of repositories for a given user sorted by name.
+     * param username github user name
+     * @param pageNumber page number to fetch
+     * @return boolean indicating if more pages exists
+     */
+    private GithubUserRepositoryPage fetchRepositoryPage(String username, int pageNumber) {
+        return fetchRepositoryPage(username, pageNumber, "full_name", "asc", null);
+    }
+
+    /**
+     * Fetch a given page number of repositories for a given user.
+     * param username github user name
+     * @param pageNumber page number to fetch
+     * @param sort github sort field (full_name, updated, pushed or created)
+     * @param direction sort direction (asc or desc)
+     * @param pageSize number of repositories per page, null for the github default of 30
+     * @return boolean indicating if more pages exists
+     */
+    private GithubUserRepositoryPage fetchRepositoryPage(String username, int pageNumber, String sort, String direction,
+                                                         Integer pageSize) {
+        ResponseEntity<List<GithubRepositoryDTO>> githubUserRepositoryEntity = gitHubRestClient.get()
+                .uri(
+                        uriBuilder -> uriBuilder
+                                .path("/users/{username}/repos")
+                                .queryParam("sort", sort)
+                                .queryParam("direction", direction)
+                                .queryParam("page", pageNumber)
+                                .queryParamIfPresent("per_page", Optional.ofNullable(pageSize))
+                                .build(username)
+                )
+                .retrieve()
+                .toEntity(new ParameterizedTypeReference<List<GithubRepositoryDTO>>() {
+                });
+        List<GithubRepositoryDTO> githubRepositoryDTOS = githubUserRepositoryEntity.getBody();
+        return new GithubUserRepositoryPage(githubRepositoryDTOS, hasNextPage(githubUserRepositoryEntity));
+    }
+
+    /**
+     * Check the Link header of a paged github response for a next page.
+     * @param responseEntity paged github response
+     * @return boolean indicating if more pages exists
+     */
+    private static boolean hasNextPage(ResponseEntity<?> responseEntity) {
+        String linkHeader = responseEntity.getHeaders().getFirst(HttpHeaders.LINK);
+        if (Strings.isNotEmpty(linkHeader)) {
+            String[] linkHeaderSegments = linkHeader.split(",");
+            for (String linkHeaderSegment : linkHeaderSegments) {
+                String linkRelation = linkHeaderSegment.split(";")[1].trim().split("=")[1].trim();
+                // link relation may possibly include trailing/leading quotes in actual string so just look for keyword next
+                if (linkRelation.contains("next")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Inner record to store result for fetchRepositoryPage and avoid
+     * a mutating signature.
+     * @param githubRepositoryDTOS Repository dtos fetched for a page
+     * @param hasNextPage boolean indicating if another page of results exist in github
+     */
+    private record GithubUserRepositoryPage(
+            List<GithubRepositoryDTO> githubRepositoryDTOS,
+            boolean hasNextPage
+    ) {}
+}
@@ -0,0 +1,299 @@
+package api.molby.githubSummary.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of GitHub credentials used to authenticate outgoing GitHub calls.  Each call is sent with
+ * the token having the most remaining rate limit budget, as reported by the X-RateLimit-* headers
+ * of previous responses.  Tokens that have used up their budget rest until their reset time.
+ * Budgets are tracked per rate limit resource since the REST (core) and GraphQL apis are limited
+ * separately.  If no tokens are configured calls are sent anonymously and the anonymous budget is
+ * tracked instead.
+ */
+@Component
+public class GitHubTokenPool implements ClientHttpRequestInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubTokenPool.class);
+
+    public static final String CORE = "core";
+    public static final String GRAPHQL = "graphql";
+
+    // github defaults, used until the first response for a token reports the actual limit
+    private static final int ANONYMOUS_LIMIT = 60;
+    private static final int AUTHENTICATED_LIMIT = 5000;
+
+    private static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    private final List<PooledToken> pooledTokens;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    @Autowired
+    public GitHubTokenPool(@Value("${github.api.tokens:${github.api.token:}}") String[] tokens,
+                           MeterRegistry meterRegistry) {
+        this(tokens, meterRegistry, Clock.systemUTC());
+    }
+
+    GitHubTokenPool(String[] tokens, MeterRegistry meterRegistry, Clock clock) {
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        List<String> credentials = Arrays.stream(tokens == null ? new String[0] : tokens)
+                .map(String::trim)
+                .filter(Strings::isNotEmpty)
+                .toList();
+        List<PooledToken> pooled = new ArrayList<>();
+        if (credentials.isEmpty()) {
+            pooled.add(new PooledToken("anonymous", null, ANONYMOUS_LIMIT));
+        }
+        for (int i = 0; i < credentials.size(); i++) {
+            // tokens are identified by position in metrics and logs, never by value
+            pooled.add(new PooledToken("token-" + (i + 1), credentials.get(i), AUTHENTICATED_LIMIT));
+        }
+        this.pooledTokens = Collections.unmodifiableList(pooled);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String resource = resourceOf(request);
+        PooledToken pooledToken = selectToken(resource);
+        if (pooledToken.credential != null) {
+            request.getHeaders().setBearerAuth(pooledToken.credential);
+        }
+        TokenBudget tokenBudget = pooledToken.budget(resource);
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        }
+        catch (IOException | RuntimeException e) {
+            // the call may never have reached github, so it is not counted against the token
+            tokenBudget.refund();
+            throw e;
+        }
+        if (!tokenBudget.update(response.getHeaders())) {
+            tokenBudget.refund();
+        }
+        return response;
+    }
+
+    /**
+     * @param request github call
+     * @return rate limit resource the call is counted against, core or graphql
+     */
+    static String resourceOf(HttpRequest request) {
+        return request.getURI().getPath().endsWith("/graphql") ? GRAPHQL : CORE;
+    }
+
+    /**
+     * Select the token with the most remaining budget for the given resource and reserve one call
+     * against it.  If every token is exhausted the one resetting soonest is used.
+     * @param resource rate limit resource, core or graphql
+     * @return selected token
+     */
+    PooledToken selectToken(String resource) {
+        long now = clock.instant().getEpochSecond();
+        PooledToken selected = null;
+        int selectedRemaining = Integer.MIN_VALUE;
+        for (PooledToken pooledToken : pooledTokens) {
+            TokenBudget tokenBudget = pooledToken.budget(resource);
+            if (tokenBudget.isResting(now)) {
+                continue;
+            }
+            int remaining = tokenBudget.remaining.get();
+            if (remaining > selectedRemaining) {
+                selected = pooledToken;
+                selectedRemaining = remaining;
+            }
+        }
+        if (selected == null) {
+            selected = pooledTokens.stream()
+                    .min((a, b) -> Long.compare(a.budget(resource).resetEpochSecond, b.budget(resource).resetEpochSecond))
+                    .orElseThrow();
+            log.warn("All github tokens are exhausted for {}, using {} which resets soonest.", resource, selected.label);
+        }
+        TokenBudget tokenBudget = selected.budget(resource);
+        // reserve the call so concurrent requests spread across tokens before responses arrive
+        tokenBudget.remaining.decrementAndGet();
+        tokenBudget.requestCounter.increment();
+        return selected;
+    }
+
+    /**
+     * @param resource rate limit resource, core or graphql
+     * @return combined hourly limit of all tokens
+     */
+    public int getHourlyLimit(String resource) {
+        return pooledTokens.stream().mapToInt(pooledToken -> pooledToken.budget(resource).limit).sum();
+    }
+
+    /**
+     * @param resource rate limit resource, core or graphql
+     * @return combined remaining budget of all tokens that are not resting
+     */
+    public int getRemaining(String resource) {
+        long now = clock.instant().getEpochSecond();
+        return pooledTokens.stream()
+                .map(pooledToken -> pooledToken.budget(resource))
+                .filter(tokenBudget -> !tokenBudget.isResting(now))
+                .mapToInt(tokenBudget -> Math.max(0, tokenBudget.remaining.get()))
+                .sum();
+    }
+
+    /**
+     * Credential in the pool along with its budget for each rate limit resource.
+     */
+    final class PooledToken {
+
+        private final String label;
+        private final String credential;
+        private final int defaultLimit;
+        private final Map<String, TokenBudget> budgets = new ConcurrentHashMap<>();
+
+        private PooledToken(String label, String credential, int defaultLimit) {
+            this.label = label;
+            this.credential = credential;
+            this.defaultLimit = defaultLimit;
+        }
+
+        String getLabel() {
+            return label;
+        }
+
+        TokenBudget budget(String resource) {
+            return budgets.computeIfAbsent(resource, r -> new TokenBudget(label, r, defaultLimit));
+        }
+    }
+
+    /**
+     * Rate limit budget of a single token for a single resource.
+     */
+    final class TokenBudget {
+
+        private final AtomicInteger remaining;
+        private final Counter requestCounter;
+        private final Counter exhaustedCounter;
+        private volatile int limit;
+        private volatile long resetEpochSecond;
+
+        private TokenBudget(String label, String resource, int defaultLimit) {
+            this.limit = defaultLimit;
+            this.remaining = new AtomicInteger(defaultLimit);
+            Gauge.builder("github.token.remaining", remaining, AtomicInteger::get)
+                    .description("Remaining github rate limit budget for a token")
+                    .tags("token", label, "resource", resource)
+                    .register(meterRegistry);
+            Gauge.builder("github.token.limit", this, tokenBudget -> tokenBudget.limit)
+                    .description("Github rate limit for a token")
+                    .tags("token", label, "resource", resource)
+                    .register(meterRegistry);
+            this.requestCounter = Counter.builder("github.token.requests")
+                    .description("Github calls made with a token")
+                    .tags("token", label, "resource", resource)
+                    .register(meterRegistry);
+            this.exhaustedCounter = Counter.builder("github.token.exhausted")
+                    .description("Times a token used up its github rate limit budget")
+                    .tags("token", label, "resource", resource)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * A token rests once its budget is used up until github resets it.  Once the reset time
+         * has passed the budget is restored to the full limit.  Until github has reported a reset
+         * time the token keeps resting.
+         */
+        private boolean isResting(long now) {
+            if (remaining.get() > 0) {
+                return false;
+            }
+            if (resetEpochSecond == 0 || now < resetEpochSecond) {
+                return true;
+            }
+            remaining.set(limit);
+            return false;
+        }
+
+        /**
+         * Give back a call reserved by selectToken whose cost github did not report.
+         */
+        private void refund() {
+            remaining.updateAndGet(r -> Math.min(limit, r + 1));
+        }
+
+        /**
+         * @return true if github reported the remaining budget
+         */
+        private boolean update(HttpHeaders headers) {
+            Integer headerLimit = intHeader(headers, LIMIT_HEADER);
+            Integer headerRemaining = intHeader(headers, REMAINING_HEADER);
+            // epoch seconds, which outgrow an int in 2038
+            Long headerReset = longHeader(headers, RESET_HEADER);
+            if (headerLimit != null) {
+                limit = headerLimit;
+            }
+            if (headerReset != null) {
+                resetEpochSecond = headerReset;
+            }
+            if (headerRemaining != null) {
+                int previous = remaining.getAndSet(headerRemaining);
+                if (headerRemaining == 0 && previous > 0) {
+                    exhaustedCounter.increment();
+                }
+            }
+            return headerRemaining != null;
+        }
+
+        int getRemaining() {
+            return remaining.get();
+        }
+    }
+
+    private static Integer intHeader(HttpHeaders headers, String name) {
+        String value = headers.getFirst(name);
+        if (Strings.isEmpty(value)) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long longHeader(HttpHeaders headers, String name) {
+        String value = headers.getFirst(name);
+        if (Strings.isEmpty(value)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package api.molby.githubSummary.client;
+
+import api.molby.githubSummary.deadline.DeadlineExceededException;
+import api.molby.githubSummary.deadline.RequestDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Schedules outgoing GitHub calls by the priority class of the work making them (see UpstreamPriority).
+ * <ul>
+ *     <li>Concurrency - at most github.scheduler.max-concurrency calls are in flight.  Each class is
+ *     also limited to its own max-concurrency, so the slots bulk and background work cannot use are
+ *     reserved for interactive calls.</li>
+ *     <li>Rate limit budget - bulk and background calls are refused once the remaining budget of the
+ *     token pool falls to their budget-floor, a share of the hourly limit left for higher classes.</li>
+ *     <li>Preemption - when a slot frees up, queued calls of higher classes are always started before
+ *     queued calls of lower classes, however long those have waited.  Calls already in flight are
+ *     not interrupted.</li>
+ * </ul>
+ * Calls that cannot start within github.scheduler.max-wait are refused.  Refused calls fail as a
+ * 503 from GitHub would, so the service falls back to the cache as usual.
+ */
+@Component
+public class GitHubUpstreamScheduler implements ClientHttpRequestInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubUpstreamScheduler.class);
+
+    private final GitHubTokenPool gitHubTokenPool;
+    private final int maxConcurrency;
+    private final Duration maxWait;
+    private final Map<UpstreamPriority, PriorityClass> priorityClasses = new EnumMap<>(UpstreamPriority.class);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // guarded by lock
+    private int inFlight;
+
+    public GitHubUpstreamScheduler(GitHubTokenPool gitHubTokenPool,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${github.scheduler.max-concurrency:16}") int maxConcurrency,
+                                   @Value("${github.scheduler.max-wait:10s}") String maxWait,
+                                   @Value("${github.scheduler.interactive.max-concurrency:16}") int interactiveMaxConcurrency,
+                                   @Value("${github.scheduler.bulk.max-concurrency:6}") int bulkMaxConcurrency,
+                                   @Value("${github.scheduler.bulk.budget-floor:0.1}") double bulkBudgetFloor,
+                                   @Value("${github.scheduler.background.max-concurrency:2}") int backgroundMaxConcurrency,
+                                   @Value("${github.scheduler.background.budget-floor:0.25}") double backgroundBudgetFloor) {
+        this.gitHubTokenPool = gitHubTokenPool;
+        this.maxConcurrency = maxConcurrency;
+        this.maxWait = DurationStyle.detectAndParse(maxWait);
+        // interactive calls have no higher class to leave budget for
+        priorityClasses.put(UpstreamPriority.INTERACTIVE,
+                new PriorityClass(UpstreamPriority.INTERACTIVE, interactiveMaxConcurrency, 0, meterRegistry));
+        priorityClasses.put(UpstreamPriority.BULK,
+                new PriorityClass(UpstreamPriority.BULK, bulkMaxConcurrency, bulkBudgetFloor, meterRegistry));
+        priorityClasses.put(UpstreamPriority.BACKGROUND,
+                new PriorityClass(UpstreamPriority.BACKGROUND, backgroundMaxConcurrency, backgroundBudgetFloor,
+                        meterRegistry));
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        // a caller that has given up is not queued behind others
+        if (RequestDeadline.isExpired()) {
+            throw new DeadlineExceededException(request.getURI());
+        }
+        Permit permit = acquire(UpstreamPriority.current(), GitHubTokenPool.resourceOf(request));
+        try {
+            // the slot is held until the body has been read and the response closed
+            return new PermitReleasingResponse(execution.execute(request, body), permit);
+        }
+        catch (IOException | RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for a slot to make a call with the given priority class.
+     * @param upstreamPriority priority class of the call
+     * @param resource rate limit resource the call is counted against, core or graphql
+     * @return permit to be released once the call has completed
+     * @throws HttpServerErrorException 503 if the class has no budget left or no slot became free within
+     * max wait or the remaining request deadline
+     */
+    Permit acquire(UpstreamPriority upstreamPriority, String resource) {
+        PriorityClass priorityClass = priorityClasses.get(upstreamPriority);
+        if (!priorityClass.hasBudget(resource)) {
+            priorityClass.budgetRejectedCounter.increment();
+            throw unavailable(upstreamPriority, "remaining " + resource + " rate limit budget is reserved for higher priority work");
+        }
+        long start = System.nanoTime();
+        Duration deadlineRemaining = RequestDeadline.remaining();
+        boolean deadlineBound = deadlineRemaining != null && deadlineRemaining.compareTo(maxWait) < 0;
+        long waitNanos = deadlineBound ? deadlineRemaining.toNanos() : maxWait.toNanos();
+        lock.lock();
+        try {
+            // anything queued could not be started when it was queued, so a call only jumps straight
+            // in if its own class has nothing queued
+            if (priorityClass.queue.isEmpty() && isStartable(priorityClass)) {
+                start(priorityClass);
+            }
+            else if (!awaitSlot(priorityClass, waitNanos)) {
+                if (deadlineBound) {
+                    priorityClass.deadlineRejectedCounter.increment();
+                    throw unavailable(upstreamPriority, "no call slot became free before the request deadline");
+                }
+                priorityClass.timeoutRejectedCounter.increment();
+                throw unavailable(upstreamPriority, "no call slot became free within " + maxWait);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        priorityClass.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit(priorityClass);
+    }
+
+    /**
+     * Queue the call and wait until it is given a slot or the wait has passed.  Must be called
+     * holding the lock.
+     * @param waitNanos longest time to wait
+     * @return true if the call was given a slot
+     */
+    private boolean awaitSlot(PriorityClass priorityClass, long waitNanos) {
+        QueuedCall queuedCall = new QueuedCall(lock.newCondition());
+        priorityClass.enqueue(queuedCall);
+        long remainingNanos = waitNanos;
+        try {
+            while (!queuedCall.started && remainingNanos > 0) {
+                remainingNanos = queuedCall.condition.awaitNanos(remainingNanos);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (queuedCall.started) {
+                // given a slot just as it was interrupted, hand the slot on
+                finish(priorityClass);
+            }
+            else {
+                priorityClass.remove(queuedCall);
+            }
+            return false;
+        }
+        if (!queuedCall.started) {
+            priorityClass.remove(queuedCall);
+        }
+        return queuedCall.started;
+    }
+
+    private boolean isStartable(PriorityClass priorityClass) {
+        return inFlight < maxConcurrency && priorityClass.inFlight.get() < priorityClass.maxConcurrency;
+    }
+
+    private void start(PriorityClass priorityClass) {
+        inFlight++;
+        priorityClass.inFlight.incrementAndGet();
+    }
+
+    /**
+     * Free the slot of a completed call and start queued calls, highest class first.  Must be called
+     * holding the lock.
+     */
+    private void finish(PriorityClass priorityClass) {
+        inFlight--;
+        priorityClass.inFlight.decrementAndGet();
+        // enum map iterates highest priority first
+        for (PriorityClass queuedClass : priorityClasses.values()) {
+            while (!queuedClass.queue.isEmpty() && isStartable(queuedClass)) {
+                QueuedCall queuedCall = queuedClass.dequeue();
+                queuedCall.started = true;
+                start(queuedClass);
+                queuedCall.condition.signal();
+            }
+            if (inFlight >= maxConcurrency) {
+                return;
+            }
+        }
+    }
+
+    private static HttpServerErrorException unavailable(UpstreamPriority upstreamPriority, String reason) {
+        String message = "GitHub call refused for " + upstreamPriority.name().toLowerCase() + " work, " + reason + ".";
+        log.warn(message);
+        return HttpServerErrorException.create(message, HttpStatus.SERVICE_UNAVAILABLE,
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(), HttpHeaders.EMPTY, null, null);
+    }
+
+    /**
+     * Slot held by a call in flight.
+     */
+    final class Permit {
+
+        private final PriorityClass priorityClass;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(PriorityClass priorityClass) {
+            this.priorityClass = priorityClass;
+        }
+
+        /**
+         * Free the slot, only the first release has any effect.
+         */
+        void release() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            lock.lock();
+            try {
+                finish(priorityClass);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Limits, queue and metrics of a priority class.
+     */
+    private final class PriorityClass {
+
+        private final int maxConcurrency;
+        private final double budgetFloor;
+        // guarded by lock, the counts are atomic so gauges can read them without it
+        private final ArrayDeque<QueuedCall> queue = new ArrayDeque<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Timer waitTimer;
+        private final Counter budgetRejectedCounter;
+        private final Counter timeoutRejectedCounter;
+        private final Counter deadlineRejectedCounter;
+
+        private PriorityClass(UpstreamPriority upstreamPriority, int maxConcurrency, double budgetFloor,
+                              MeterRegistry meterRegistry) {
+            this.maxConcurrency = maxConcurrency;
+            this.budgetFloor = budgetFloor;
+            String priority = upstreamPriority.name().toLowerCase();
+            Gauge.builder("github.upstream.queue.depth", queued, AtomicInteger::get)
+                    .description("Github calls waiting for a slot")
+                    .tags("priority", priority)
+                    .register(meterRegistry);
+            Gauge.builder("github.upstream.in.flight", inFlight, AtomicInteger::get)
+                    .description("Github calls in flight")
+                    .tags("priority", priority)
+                    .register(meterRegistry);
+            this.waitTimer = Timer.builder("github.upstream.queue.wait")
+                    .description("Time github calls waited for a slot")
+                    .tags("priority", priority)
+                    .register(meterRegistry);
+            this.budgetRejectedCounter = Counter.builder("github.upstream.rejected")
+                    .description("Github calls refused by the scheduler")
+                    .tags("priority", priority, "reason", "budget")
+                    .register(meterRegistry);
+            this.timeoutRejectedCounter = Counter.builder("github.upstream.rejected")
+                    .description("Github calls refused by the scheduler")
+                    .tags("priority", priority, "reason", "timeout")
+                    .register(meterRegistry);
+            this.deadlineRejectedCounter = Counter.builder("github.upstream.rejected")
+                    .description("Github calls refused by the scheduler")
+                    .tags("priority", priority, "reason", "deadline")
+                    .register(meterRegistry);
+        }
+
+        private boolean hasBudget(String resource) {
+            return budgetFloor <= 0
+                    || gitHubTokenPool.getRemaining(resource) > budgetFloor * gitHubTokenPool.getHourlyLimit(resource);
+        }
+
+        private void enqueue(QueuedCall queuedCall) {
+            queue.addLast(queuedCall);
+            queued.incrementAndGet();
+        }
+
+        private QueuedCall dequeue() {
+            queued.decrementAndGet();
+            return queue.pollFirst();
+        }
+
+        private void remove(QueuedCall queuedCall) {
+            if (queue.remove(queuedCall)) {
+                queued.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Call waiting for a slot.
+     */
+    private static final class QueuedCall {
+
+        private final Condition condition;
+        // guarded by lock
+        private boolean started;
+
+        private QueuedCall(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    /**
+     * Response releasing the permit of its call once closed.
+     */
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final Permit permit;
+
+        private PermitReleasingResponse(ClientHttpResponse response, Permit permit) {
+            this.response = response;
+            this.permit = permit;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            }
+            finally {
+                permit.release();
+            }
+        }
+    }
+}
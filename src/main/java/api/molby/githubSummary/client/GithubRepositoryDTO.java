@@ -1,12 +1,16 @@
 package api.molby.githubSummary.client;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Value;
 
+import java.time.OffsetDateTime;
+
 /**
- * Information about a given github repository.  Just name and url.  Technically quite a bit
- * more information could be returned, but this is all we need for our purposes.
+ * Information about a given github repository.  Just name and url, plus the last update time
+ * used for incremental refresh.  Technically quite a bit more information could be returned,
+ * but this is all we need for our purposes.
  */
 @Value
 @Builder
@@ -15,4 +19,6 @@ public class GithubRepositoryDTO {
 
     private String name;
     private String url;
+    @JsonProperty("updated_at")
+    private OffsetDateTime updatedAt;
 }
@@ -12,7 +12,7 @@ import java.time.OffsetDateTime;
  * is only returning those necessary for our purposes.
  */
 @Value
-@Builder
+@Builder(toBuilder = true)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class GithubUserDTO {
 
@@ -26,4 +26,6 @@ public class GithubUserDTO {
     private String location;
     @JsonProperty("url")
     private String url;
+    @JsonProperty("public_repos")
+    private Integer publicRepos;
 }
@@ -0,0 +1,68 @@
+package api.molby.githubSummary.client;
+
+/**
+ * Priority class of the work making GitHub calls, used by GitHubUpstreamScheduler to decide which
+ * calls go first when GitHub capacity or rate limit budget is short.  Classes are listed highest
+ * priority first.  The class applies to every GitHub call made on the current thread, calls are
+ * interactive unless a scope for another class has been entered.
+ */
+public enum UpstreamPriority {
+
+    /**
+     * Calls made while answering a client request.
+     */
+    INTERACTIVE,
+
+    /**
+     * Calls made for batch work requested by an operator, e.g. refreshing a list of users.
+     */
+    BULK,
+
+    /**
+     * Calls made by background tasks, e.g. refreshing hot users ahead of expiry.
+     */
+    BACKGROUND;
+
+    private static final ThreadLocal<UpstreamPriority> CURRENT = new ThreadLocal<>();
+
+    /**
+     * @return priority class of GitHub calls made on the current thread
+     */
+    public static UpstreamPriority current() {
+        UpstreamPriority upstreamPriority = CURRENT.get();
+        return upstreamPriority == null ? INTERACTIVE : upstreamPriority;
+    }
+
+    /**
+     * Make GitHub calls on the current thread with this priority class until the returned scope is
+     * closed, e.g. try (UpstreamPriority.Scope scope = UpstreamPriority.BACKGROUND.enter()) {...}
+     * @return scope restoring the previous priority class when closed
+     */
+    public Scope enter() {
+        UpstreamPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    /**
+     * Scope of a priority class on the current thread.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final UpstreamPriority previous;
+
+        private Scope(UpstreamPriority previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            }
+            else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package api.molby.githubSummary.config;
+
+import api.molby.githubSummary.accesslog.AccessLog;
+import api.molby.githubSummary.accesslog.AccessLogContext;
+import api.molby.githubSummary.accesslog.AccessLogFilter;
+import api.molby.githubSummary.deadline.RequestDeadline;
+import api.molby.githubSummary.quota.ClientUsage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Configuration for the access log.
+ */
+@Configuration
+public class AccessLogConfig {
+
+    /**
+     * Register the access log filter ahead of everything else so latency covers the whole request.
+     * @param accessLog access log to write to
+     * @return filter registration
+     */
+    @Bean
+    @ConditionalOnProperty(name = "access-log.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilter(AccessLog accessLog) {
+        FilterRegistrationBean<AccessLogFilter> filterRegistrationBean = new FilterRegistrationBean<>(new AccessLogFilter(accessLog));
+        filterRegistrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return filterRegistrationBean;
+    }
+
+    /**
+     * Carry the access log context, request deadline and client usage over to the application task
+     * executor, which runs streamed responses, so github calls made while streaming are counted
+     * against the request, bounded by its deadline and charged to its client.  Also used for the
+     * member fetches of organization summaries.  Spring boot only applies a single task decorator.
+     * @return task decorator applied by spring boot to the application task executor
+     */
+    @Bean
+    public TaskDecorator requestContextTaskDecorator() {
+        return task -> AccessLogContext.propagate(RequestDeadline.propagate(ClientUsage.propagate(task)));
+    }
+}
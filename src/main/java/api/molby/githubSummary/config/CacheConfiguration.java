@@ -1,5 +1,6 @@
 package api.molby.githubSummary.config;
 
+import api.molby.githubSummary.api.GitHubUserSummaryCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.convert.DurationStyle;
@@ -17,13 +18,44 @@ public class CacheConfiguration {
     @Value("${spring.cache.github.expire-after-write:60m}")
     private String expireAfterWrite;  // parse manually or better: use seconds/minutes
 
+    // not found entries are kept short lived so newly created users show up quickly
+    @Value("${spring.cache.github.not-found.maximum-size:10000}")
+    private int notFoundMaximumSize;
+
+    @Value("${spring.cache.github.not-found.expire-after-write:5m}")
+    private String notFoundExpireAfterWrite;
+
+    // member lists change rarely, and members are still summarized from the user summary cache
+    @Value("${spring.cache.github.org-members.maximum-size:500}")
+    private int orgMembersMaximumSize;
+
+    @Value("${spring.cache.github.org-members.expire-after-write:15m}")
+    private String orgMembersExpireAfterWrite;
+
     @Bean
     public CacheManager cacheManager() {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager("githubUserSummary");
         cacheManager.setCaffeine(
                 Caffeine.newBuilder()
                         .maximumSize(maximumSize)
-                        .expireAfterWrite(DurationStyle.detectAndParse(expireAfterWrite))
+                        // measured from when a summary was fetched, so webhook patches do not extend it
+                        .expireAfter(GitHubUserSummaryCache.expiry(DurationStyle.detectAndParse(expireAfterWrite)))
+                        // reported by the githubcache actuator endpoint and cache metrics
+                        .recordStats()
+        );
+        cacheManager.registerCustomCache("githubUserNotFound",
+                Caffeine.newBuilder()
+                        .maximumSize(notFoundMaximumSize)
+                        .expireAfterWrite(DurationStyle.detectAndParse(notFoundExpireAfterWrite))
+                        .recordStats()
+                        .build()
+        );
+        cacheManager.registerCustomCache("githubOrgMembers",
+                Caffeine.newBuilder()
+                        .maximumSize(orgMembersMaximumSize)
+                        .expireAfterWrite(DurationStyle.detectAndParse(orgMembersExpireAfterWrite))
+                        .recordStats()
+                        .build()
         );
         return cacheManager;
     }
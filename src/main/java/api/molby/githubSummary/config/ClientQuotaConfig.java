@@ -0,0 +1,35 @@
+package api.molby.githubSummary.config;
+
+import api.molby.githubSummary.quota.ClientQuotaFilter;
+import api.molby.githubSummary.quota.ClientQuotas;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuration for client quotas.
+ */
+@Configuration
+public class ClientQuotaConfig {
+
+    /**
+     * Register the client quota filter for the summary api, after the access log filter so refused
+     * requests are still logged.  Webhook deliveries and api docs are not subject to quotas.
+     * @param clientQuotas quotas of the api clients
+     * @param objectMapper mapper used to write the problem detail of refused requests
+     * @return filter registration
+     */
+    @Bean
+    @ConditionalOnProperty(name = "api.quota.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ClientQuotaFilter> clientQuotaFilter(ClientQuotas clientQuotas,
+                                                                       ObjectMapper objectMapper) {
+        FilterRegistrationBean<ClientQuotaFilter> filterRegistrationBean =
+                new FilterRegistrationBean<>(new ClientQuotaFilter(clientQuotas, objectMapper));
+        filterRegistrationBean.addUrlPatterns("/userSummary/*", "/orgSummary/*");
+        filterRegistrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return filterRegistrationBean;
+    }
+}
@@ -0,0 +1,51 @@
+package api.molby.githubSummary.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuration for jackson serialization.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Summary dtos are annotated with jackson filters used for field selection.  Filters are supplied
+     * per response, this default ensures dtos serialized without them include every field.
+     * @return customizer registering a lenient default filter provider
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSelectionFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    /**
+     * CBOR (application/cbor) responses for JVM consumers, selected through the Accept header.
+     * Spring's default converter uses a plain object mapper, this one is built from the application's
+     * mapper builder so date formats, modules and filters match the JSON responses.
+     * @param builder application configured object mapper builder
+     * @return CBOR message converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Smile (application/x-jackson-smile) responses for JVM consumers, selected through the Accept
+     * header.  As with CBOR the application's mapper builder is used.
+     * @param builder application configured object mapper builder
+     * @return Smile message converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,26 @@
+package api.molby.githubSummary.config;
+
+import api.molby.githubSummary.deadline.RequestDeadlineFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuration for request deadlines.
+ */
+@Configuration
+public class RequestDeadlineConfig {
+
+    /**
+     * Register the request deadline filter straight after the access log filter so the deadline
+     * covers everything done for the request.
+     * @return filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<RequestDeadlineFilter> requestDeadlineFilter() {
+        FilterRegistrationBean<RequestDeadlineFilter> filterRegistrationBean = new FilterRegistrationBean<>(new RequestDeadlineFilter());
+        filterRegistrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return filterRegistrationBean;
+    }
+}
@@ -1,9 +1,16 @@
 package api.molby.githubSummary.config;
 
+import api.molby.githubSummary.accesslog.UpstreamCallCounter;
+import api.molby.githubSummary.client.GitHubTokenPool;
+import api.molby.githubSummary.client.GitHubUpstreamScheduler;
+import api.molby.githubSummary.deadline.DeadlineClientHttpRequestFactory;
+import api.molby.githubSummary.diagnostics.GitHubCallRecorder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.web.client.RestClient;
+import java.net.http.HttpClient;
 
 /**
  * Configuration for RestClients.
@@ -14,14 +21,72 @@ public class RestClientConfig {
     // allow override of github api url if needed...
     @Value("${github.api.url:https://api.github.com}")
     private String gitHubAPIUrl;
+
+    @Value("${github.graphql.url:https://api.github.com/graphql}")
+    private String gitHubGraphQlUrl;
+
+    /**
+     * Return request factory shared by the github rest clients, giving each call the remaining
+     * request deadline as its timeout.
+     * @return request factory
+     */
+    @Bean
+    public DeadlineClientHttpRequestFactory gitHubRequestFactory() {
+        return new DeadlineClientHttpRequestFactory(HttpClient.newHttpClient());
+    }
+
     /**
-     * Return rest client for usage in github api calls.
+     * Return rest client for usage in github api calls.  Calls are scheduled by priority class and
+     * then authenticated by the token pool.
+     * @param gitHubUpstreamScheduler scheduler of github calls
+     * @param upstreamCallCounter counts calls for the access log
+     * @param gitHubTokenPool pool of github tokens
+     * @param gitHubCallRecorder records calls as flight recorder events
+     * @param gitHubRequestFactory request factory applying the request deadline
      * @return github api url.
      */
     @Bean
-    public RestClient gethubRestClient() {
+    @Primary
+    public RestClient gethubRestClient(GitHubUpstreamScheduler gitHubUpstreamScheduler,
+                                       UpstreamCallCounter upstreamCallCounter, GitHubTokenPool gitHubTokenPool,
+                                       GitHubCallRecorder gitHubCallRecorder,
+                                       DeadlineClientHttpRequestFactory gitHubRequestFactory) {
         return RestClient.builder()
                 .baseUrl(gitHubAPIUrl)
+                // scheduled before a token is picked so queued calls do not hold token budget
+                .requestInterceptor(gitHubUpstreamScheduler)
+                .requestInterceptor(upstreamCallCounter)
+                .requestInterceptor(gitHubTokenPool)
+                // innermost so only the http exchange itself is timed
+                .requestInterceptor(gitHubCallRecorder)
+                .requestFactory(gitHubRequestFactory)
+                .build();
+    }
+
+    /**
+     * Return rest client for usage in github GraphQL api calls.  The GraphQL api does not allow
+     * anonymous access so at least one token must be configured in the pool.
+     * @param gitHubUpstreamScheduler scheduler of github calls
+     * @param upstreamCallCounter counts calls for the access log
+     * @param gitHubTokenPool pool of github tokens
+     * @param gitHubCallRecorder records calls as flight recorder events
+     * @param gitHubRequestFactory request factory applying the request deadline
+     * @return github GraphQL rest client.
+     */
+    @Bean
+    public RestClient gitHubGraphQlRestClient(GitHubUpstreamScheduler gitHubUpstreamScheduler,
+                                              UpstreamCallCounter upstreamCallCounter, GitHubTokenPool gitHubTokenPool,
+                                              GitHubCallRecorder gitHubCallRecorder,
+                                       DeadlineClientHttpRequestFactory gitHubRequestFactory) {
+        return RestClient.builder()
+                .baseUrl(gitHubGraphQlUrl)
+                // scheduled before a token is picked so queued calls do not hold token budget
+                .requestInterceptor(gitHubUpstreamScheduler)
+                .requestInterceptor(upstreamCallCounter)
+                .requestInterceptor(gitHubTokenPool)
+                // innermost so only the http exchange itself is timed
+                .requestInterceptor(gitHubCallRecorder)
+                .requestFactory(gitHubRequestFactory)
                 .build();
     }
 }
@@ -0,0 +1,62 @@
+package api.molby.githubSummary.config;
+
+import api.molby.githubSummary.api.GitHubOrgSummaryDTO;
+import api.molby.githubSummary.api.GitHubUserSummaryDTO;
+import api.molby.githubSummary.api.GithubRepositoryResponseDTO;
+import api.molby.githubSummary.api.GmtDateTimeDeserializer;
+import api.molby.githubSummary.client.GithubRepositoryDTO;
+import api.molby.githubSummary.client.GithubUserDTO;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection hints needed when the application is AOT processed for a native image (see the
+ * fastStart build profile).  They have no effect on a regular JVM run.
+ * <ul>
+ *     <li>Lombok DTOs are bound by jackson through their generated getters and builders, and
+ *     introspected by springdoc for the api schema.</li>
+ *     <li>Caffeine loads a generated cache and node class for each combination of cache options
+ *     by name.</li>
+ * </ul>
+ * springdoc and swagger ship their own hints for their internal model classes.
+ */
+@Configuration
+@RegisterReflectionForBinding({
+        GitHubOrgSummaryDTO.class,
+        GitHubUserSummaryDTO.class,
+        GithubRepositoryResponseDTO.class,
+        GithubUserDTO.class,
+        GithubRepositoryDTO.class
+})
+@ImportRuntimeHints(RuntimeHintsConfig.ApplicationRuntimeHints.class)
+public class RuntimeHintsConfig {
+
+    private static final String CAFFEINE_PACKAGE = "com.github.benmanes.caffeine.cache.";
+
+    // strong keys and values, bounded by size and expiring after write, with and without statistics,
+    // and the summary cache whose expiry varies with when each summary was fetched
+    private static final String[] CAFFEINE_CACHE_CLASSES = {"SSMSW", "SSSMSW", "SSSMSA"};
+    private static final String[] CAFFEINE_NODE_CLASSES = {"PSWMS", "PSAMS"};
+
+    static class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // referenced from an annotation on a builder setter so not found by the binding registrar
+            hints.reflection().registerType(GmtDateTimeDeserializer.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            for (String cacheClass : CAFFEINE_CACHE_CLASSES) {
+                hints.reflection().registerTypeIfPresent(classLoader, CAFFEINE_PACKAGE + cacheClass,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS);
+            }
+            for (String nodeClass : CAFFEINE_NODE_CLASSES) {
+                hints.reflection().registerTypeIfPresent(classLoader, CAFFEINE_PACKAGE + nodeClass,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS);
+            }
+        }
+    }
+}
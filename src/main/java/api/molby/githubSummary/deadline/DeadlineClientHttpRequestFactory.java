@@ -0,0 +1,44 @@
+package api.molby.githubSummary.deadline;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Request factory for GitHub calls giving each call the remaining budget of the request deadline as
+ * its timeout.  A call still waiting for GitHub when the deadline passes is cancelled, and calls are
+ * refused outright once it has passed, so no upstream work is left running for a caller that has
+ * given up.  Calls without a deadline have no timeout, as before.  Requests are created at the end
+ * of the interceptor chain, so time spent queued by GitHubUpstreamScheduler counts against the budget.
+ */
+public class DeadlineClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final HttpClient httpClient;
+    private final JdkClientHttpRequestFactory requestFactory;
+
+    public DeadlineClientHttpRequestFactory(HttpClient httpClient) {
+        this.httpClient = httpClient;
+        this.requestFactory = new JdkClientHttpRequestFactory(httpClient);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        Duration remaining = RequestDeadline.remaining();
+        if (remaining == null) {
+            return requestFactory.createRequest(uri, httpMethod);
+        }
+        if (remaining.isZero()) {
+            throw new DeadlineExceededException(uri);
+        }
+        // the timeout is fixed per factory, they only wrap the shared client so are cheap to create.
+        // timeouts are applied in whole milliseconds, rounded up so the deadline has passed once it fires
+        JdkClientHttpRequestFactory deadlineRequestFactory = new JdkClientHttpRequestFactory(httpClient);
+        deadlineRequestFactory.setReadTimeout(Duration.ofMillis(remaining.plusNanos(999_999).toMillis()));
+        return deadlineRequestFactory.createRequest(uri, httpMethod);
+    }
+}
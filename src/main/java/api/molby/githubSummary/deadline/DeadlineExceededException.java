@@ -0,0 +1,16 @@
+package api.molby.githubSummary.deadline;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Thrown in place of a GitHub call when the deadline of the request has already passed.  As an
+ * IOException it reaches callers of the RestClient as a ResourceAccessException, the same as a
+ * call that timed out.
+ */
+public class DeadlineExceededException extends IOException {
+
+    public DeadlineExceededException(URI uri) {
+        super("Request deadline passed before GitHub call to " + uri.getPath() + " was made.");
+    }
+}
@@ -0,0 +1,95 @@
+package api.molby.githubSummary.deadline;
+
+import java.time.Duration;
+
+/**
+ * Deadline of the request being handled on the current thread, set from the Request-Timeout
+ * header by RequestDeadlineFilter.  Every GitHub call made for the request is given the remaining
+ * budget as its timeout, and no call is started once the deadline has passed.  Requests without
+ * the header, and background work, have no deadline.  As with the access log context the deadline
+ * is carried over to async threads by the task decorator in AccessLogConfig.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private RequestDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Give the work on the current thread a time budget until the returned scope is closed.
+     * @param budget time the caller is willing to wait, starting now
+     * @return scope restoring the previous deadline when closed
+     */
+    public static Scope start(Duration budget) {
+        return new RequestDeadline(System.nanoTime() + budget.toNanos()).bind();
+    }
+
+    /**
+     * @return budget left before the deadline of the current thread, zero once it has passed, null
+     * if there is no deadline
+     */
+    public static Duration remaining() {
+        RequestDeadline requestDeadline = CURRENT.get();
+        if (requestDeadline == null) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(0, requestDeadline.deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * @return true if the current thread has a deadline and it has passed
+     */
+    public static boolean isExpired() {
+        Duration remaining = remaining();
+        return remaining != null && remaining.isZero();
+    }
+
+    /**
+     * Wrap a task so it runs with the deadline of the thread submitting it.
+     * @param task task to be run on another thread
+     * @return task binding the current deadline while it runs, the task itself if there is none
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestDeadline requestDeadline = CURRENT.get();
+        if (requestDeadline == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = requestDeadline.bind()) {
+                task.run();
+            }
+        };
+    }
+
+    private Scope bind() {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    /**
+     * Binding of a deadline to the current thread, restoring the previous binding when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final RequestDeadline previous;
+
+        private Scope(RequestDeadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            }
+            else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package api.molby.githubSummary.deadline;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Starts the deadline of a request from its Request-Timeout header, a duration such as 2s or 750ms,
+ * plain numbers are milliseconds.  Values that cannot be parsed are ignored so the request is
+ * handled without a deadline.  Registered by RequestDeadlineConfig.
+ */
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_TIMEOUT_HEADER = "Request-Timeout";
+
+    private static final Logger log = LoggerFactory.getLogger(RequestDeadlineFilter.class);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Duration budget = parseBudget(request.getHeader(REQUEST_TIMEOUT_HEADER));
+        if (budget == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (RequestDeadline.Scope scope = RequestDeadline.start(budget)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private static Duration parseBudget(String requestTimeout) {
+        if (requestTimeout == null || requestTimeout.isBlank()) {
+            return null;
+        }
+        try {
+            Duration budget = DurationStyle.detectAndParse(requestTimeout.trim());
+            // converted to nanos when the deadline starts
+            budget.toNanos();
+            return budget.isNegative() ? Duration.ZERO : budget;
+        }
+        catch (IllegalArgumentException | ArithmeticException e) {
+            log.info("Request was made with invalid {} header, ignored.  value: {}.", REQUEST_TIMEOUT_HEADER,
+                    requestTimeout);
+            return null;
+        }
+    }
+}
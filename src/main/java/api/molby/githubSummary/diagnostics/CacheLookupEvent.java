@@ -0,0 +1,28 @@
+package api.molby.githubSummary.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a lookup of a user in one of the caches.
+ */
+@Name("githubSummary.CacheLookup")
+@Label("Cache Lookup")
+@Category({"GitHub User Summary", "Cache"})
+@Description("Lookup of a user in the summary or not found cache")
+@StackTrace(false)
+public class CacheLookupEvent extends jdk.jfr.Event {
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("User Name")
+    public String userName;
+
+    @Label("Outcome")
+    @Description("hit, stale or miss")
+    public String outcome;
+}
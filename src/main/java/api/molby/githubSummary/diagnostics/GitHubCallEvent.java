@@ -0,0 +1,38 @@
+package api.molby.githubSummary.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a single GitHub HTTP call, from sending the request until the response body has
+ * been read.  Time spent queued by the upstream scheduler is not included.
+ */
+@Name("githubSummary.GitHubCall")
+@Label("GitHub Call")
+@Category({"GitHub User Summary", "GitHub"})
+@Description("HTTP call made to the GitHub api")
+@StackTrace(false)
+public class GitHubCallEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("URI Template")
+    @Description("Path of the call with user and organization names replaced by placeholders")
+    public String uriTemplate;
+
+    @Label("Page")
+    @Description("Page of results requested, 0 if the call is not paged")
+    public int page;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,147 @@
+package api.molby.githubSummary.diagnostics;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.regex.Pattern;
+
+/**
+ * Emits a GitHubCallEvent for every GitHub call.  The event ends once the response is closed so
+ * the time and bytes of reading the body are included.  When no recording has the event enabled
+ * the cost is a single check.
+ */
+@Component
+public class GitHubCallRecorder implements ClientHttpRequestInterceptor {
+
+    // user and organization names are replaced so calls group by endpoint
+    private static final Pattern USER_SEGMENT = Pattern.compile("^/users/[^/]+");
+    private static final Pattern ORG_SEGMENT = Pattern.compile("^/orgs/[^/]+");
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        GitHubCallEvent gitHubCallEvent = new GitHubCallEvent();
+        if (!gitHubCallEvent.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        gitHubCallEvent.begin();
+        gitHubCallEvent.method = request.getMethod().name();
+        gitHubCallEvent.uriTemplate = uriTemplate(request.getURI());
+        gitHubCallEvent.page = page(request.getURI());
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        }
+        catch (IOException | RuntimeException e) {
+            // no status, recorded so failed calls still show up
+            gitHubCallEvent.commit();
+            throw e;
+        }
+        return new RecordingResponse(response, gitHubCallEvent);
+    }
+
+    /**
+     * @param uri uri of a github call
+     * @return path of the call with user and organization names replaced by placeholders
+     */
+    static String uriTemplate(URI uri) {
+        String path = USER_SEGMENT.matcher(uri.getPath()).replaceFirst("/users/{username}");
+        return ORG_SEGMENT.matcher(path).replaceFirst("/orgs/{org}");
+    }
+
+    private static int page(URI uri) {
+        String page = UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("page");
+        try {
+            return page == null ? 0 : Integer.parseInt(page);
+        }
+        catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Response counting the body bytes read and committing the event when closed.
+     */
+    private static final class RecordingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final GitHubCallEvent gitHubCallEvent;
+        private InputStream body;
+        private boolean closed;
+
+        private RecordingResponse(ClientHttpResponse response, GitHubCallEvent gitHubCallEvent) {
+            this.response = response;
+            this.gitHubCallEvent = gitHubCallEvent;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(response.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) {
+                            gitHubCallEvent.bytes++;
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        int read = super.read(b, off, len);
+                        if (read > 0) {
+                            gitHubCallEvent.bytes += read;
+                        }
+                        return read;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                gitHubCallEvent.status = response.getStatusCode().value();
+            }
+            catch (IOException e) {
+                // left as 0
+            }
+            try {
+                response.close();
+            }
+            finally {
+                gitHubCallEvent.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package api.molby.githubSummary.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for building a summary from the GitHub user and repositories.
+ */
+@Name("githubSummary.SummaryBuild")
+@Label("Summary Build")
+@Category({"GitHub User Summary", "Summary"})
+@Description("Mapping of a GitHub user and repositories into a summary")
+@StackTrace(false)
+public class SummaryBuildEvent extends jdk.jfr.Event {
+
+    @Label("User Name")
+    public String userName;
+
+    @Label("Repository Count")
+    @Description("Repositories in the summary, -1 if only the profile was built")
+    public int repositoryCount;
+}
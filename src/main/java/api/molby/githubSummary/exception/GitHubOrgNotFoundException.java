@@ -0,0 +1,18 @@
+package api.molby.githubSummary.exception;
+
+/**
+ * Exception thrown if an organization was not found in GitHub
+ */
+public class GitHubOrgNotFoundException extends Exception {
+
+    private final String orgName;
+
+    public GitHubOrgNotFoundException(String orgName) {
+        super("Organization not found in GitHub: " + orgName);
+        this.orgName = orgName;
+    }
+
+    public String getOrgName() {
+        return orgName;
+    }
+}
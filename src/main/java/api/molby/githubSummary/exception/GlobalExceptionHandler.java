@@ -38,6 +38,57 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(GitHubOrgNotFoundException.class)
+    public ProblemDetail handleGitHubOrgNotFoundException(GitHubOrgNotFoundException e) {
+        log.warn("Request was made with organization that was not found in GitHub.  orgName: {}.", e.getOrgName());
+        ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.NOT_FOUND);
+        problemDetail.setTitle("Organization not found in GitHub");
+        problemDetail.setDetail(e.getMessage());
+        problemDetail.setProperty("orgName", e.getOrgName());
+        return problemDetail;
+    }
+
+    @ExceptionHandler(RequestTimeoutException.class)
+    public ProblemDetail handleRequestTimeoutException(RequestTimeoutException e) {
+        log.warn("Request deadline passed before a summary could be built.  userName: {}.", e.getUserName());
+        ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.GATEWAY_TIMEOUT);
+        problemDetail.setTitle("Request deadline passed");
+        problemDetail.setDetail(e.getMessage());
+        problemDetail.setProperty("userName", e.getUserName());
+        return problemDetail;
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ProblemDetail handleInvalidCursorException(InvalidCursorException e, HttpServletRequest request) {
+        log.info("Request was made with invalid cursor.  cursor: {}.", e.getCursor());
+        ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+        problemDetail.setTitle("Request parameters were invalid.");
+        problemDetail.setDetail(e.getMessage());
+        problemDetail.setProperty("uri",request.getRequestURI());
+        return problemDetail;
+    }
+
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ProblemDetail handleInvalidFieldsException(InvalidFieldsException e, HttpServletRequest request) {
+        log.info("Request was made with invalid fields.  fields: {}.", e.getFields());
+        ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+        problemDetail.setTitle("Request parameters were invalid.");
+        problemDetail.setDetail(e.getMessage());
+        problemDetail.setProperty("uri",request.getRequestURI());
+        return problemDetail;
+    }
+
+    @ExceptionHandler(InvalidWebhookSignatureException.class)
+    public ProblemDetail handleInvalidWebhookSignatureException(InvalidWebhookSignatureException e,
+                                                                HttpServletRequest request) {
+        log.warn("Webhook delivery was rejected due to invalid signature.  deliveryId: {}.", e.getDeliveryId());
+        ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.UNAUTHORIZED);
+        problemDetail.setTitle("Webhook signature was invalid.");
+        problemDetail.setDetail(e.getMessage());
+        problemDetail.setProperty("uri",request.getRequestURI());
+        return problemDetail;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ProblemDetail handleMethodArgumentNotValidException(ConstraintViolationException e, HttpServletRequest request) {
         log.info("Request was made with invalid parameters.  message: {}.", e.getMessage());
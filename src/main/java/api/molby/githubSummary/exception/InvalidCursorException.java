@@ -0,0 +1,18 @@
+package api.molby.githubSummary.exception;
+
+/**
+ * Exception thrown if a paging cursor provided by a client could not be decoded.
+ */
+public class InvalidCursorException extends Exception {
+
+    private final String cursor;
+
+    public InvalidCursorException(String cursor) {
+        super("Cursor provided was invalid: " + cursor);
+        this.cursor = cursor;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+}
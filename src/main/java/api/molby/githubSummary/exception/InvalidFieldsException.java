@@ -0,0 +1,18 @@
+package api.molby.githubSummary.exception;
+
+/**
+ * Exception thrown if a field selection provided by a client names an unknown field.
+ */
+public class InvalidFieldsException extends Exception {
+
+    private final String fields;
+
+    public InvalidFieldsException(String fields, String field) {
+        super("Unknown field requested: " + field);
+        this.fields = fields;
+    }
+
+    public String getFields() {
+        return fields;
+    }
+}
@@ -0,0 +1,18 @@
+package api.molby.githubSummary.exception;
+
+/**
+ * Exception thrown if a webhook delivery was not signed with the configured webhook secret.
+ */
+public class InvalidWebhookSignatureException extends Exception {
+
+    private final String deliveryId;
+
+    public InvalidWebhookSignatureException(String deliveryId) {
+        super("Webhook signature was missing or invalid for delivery: " + deliveryId);
+        this.deliveryId = deliveryId;
+    }
+
+    public String getDeliveryId() {
+        return deliveryId;
+    }
+}
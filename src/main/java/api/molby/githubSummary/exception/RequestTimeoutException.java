@@ -0,0 +1,19 @@
+package api.molby.githubSummary.exception;
+
+/**
+ * Exception thrown if the deadline given in the Request-Timeout header passed before a summary
+ * could be built and there was nothing cached to fall back on
+ */
+public class RequestTimeoutException extends Exception {
+
+    private final String userName;
+
+    public RequestTimeoutException(String userName) {
+        super("Request deadline passed before GitHub responded for user: " + userName);
+        this.userName = userName;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+}
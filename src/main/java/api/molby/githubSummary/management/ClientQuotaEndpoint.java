@@ -0,0 +1,30 @@
+package api.molby.githubSummary.management;
+
+import api.molby.githubSummary.quota.ClientQuotas;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/**
+ * Actuator endpoint reporting the quota usage of each api client, exposed on the management port
+ * at /manage/clientquotas.  The same figures are published as api.client.* metrics.
+ */
+@Component
+@Endpoint(id = "clientquotas")
+public class ClientQuotaEndpoint {
+
+    private final ClientQuotas clientQuotas;
+
+    public ClientQuotaEndpoint(ClientQuotas clientQuotas) {
+        this.clientQuotas = clientQuotas;
+    }
+
+    /**
+     * @return usage of each keyed client followed by the combined usage of anonymous clients
+     */
+    @ReadOperation
+    public List<ClientQuotas.ClientReport> clients() {
+        return clientQuotas.report();
+    }
+}
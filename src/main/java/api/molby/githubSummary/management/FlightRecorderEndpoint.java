@@ -0,0 +1,217 @@
+package api.molby.githubSummary.management;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Actuator endpoint for Java Flight Recorder recordings, exposed on the management port at
+ * /manage/flightrecorder.  Recordings include the application's own events (GitHub calls, cache
+ * lookups and summary builds) alongside the JVM events, e.g. GC and virtual thread pinning.
+ * <ul>
+ *     <li>GET /manage/flightrecorder - all recordings in the JVM, including any started on the command line</li>
+ *     <li>POST /manage/flightrecorder/{name} {"settings": "default", "maxAge": "30m", "maxSize": "100MB"} - start a recording</li>
+ *     <li>GET /manage/flightrecorder/{name} - dump a recording as a .jfr file, it keeps running</li>
+ *     <li>DELETE /manage/flightrecorder/{name} - stop and discard a recording</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecorderEndpoint.class);
+
+    private static final String DEFAULT_SETTINGS = "default";
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(30);
+    private static final DataSize DEFAULT_MAX_SIZE = DataSize.ofMegabytes(100);
+
+    /**
+     * @return every recording in the JVM
+     */
+    @ReadOperation
+    public List<RecordingReport> recordings() {
+        if (!FlightRecorder.isAvailable()) {
+            return List.of();
+        }
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .map(FlightRecorderEndpoint::recordingReport)
+                .toList();
+    }
+
+    /**
+     * Start a recording.  If a recording with the name is already running it is left as is.
+     * @param name name of the recording
+     * @param settings jfr settings, default (about 1% overhead) or profile (about 2%), defaults to default
+     * @param maxAge how long data is kept, defaults to 30m
+     * @param maxSize how much data is kept, defaults to 100MB
+     * @return the recording, 400 if the settings, maxAge or maxSize are not valid, 404 if flight recorder
+     * is not available in this JVM
+     */
+    @WriteOperation
+    public WebEndpointResponse<RecordingReport> start(@Selector String name, @Nullable String settings,
+                                                      @Nullable String maxAge, @Nullable String maxSize) {
+        if (!FlightRecorder.isAvailable()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Recording existing = findRecording(name);
+        if (existing != null && existing.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(recordingReport(existing));
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings == null ? DEFAULT_SETTINGS : settings);
+        }
+        catch (IOException | ParseException e) {
+            log.info("Request was made to start recording {} with unknown settings {}.", name, settings);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Duration recordingMaxAge;
+        DataSize recordingMaxSize;
+        try {
+            recordingMaxAge = maxAge == null ? DEFAULT_MAX_AGE : DurationStyle.detectAndParse(maxAge);
+            recordingMaxSize = maxSize == null ? DEFAULT_MAX_SIZE : DataSize.parse(maxSize);
+        }
+        catch (IllegalArgumentException e) {
+            log.info("Request was made to start recording {} with invalid maxAge {} or maxSize {}.", name, maxAge, maxSize);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (existing != null) {
+            existing.close();
+        }
+        Recording recording = new Recording(configuration);
+        recording.setName(name);
+        recording.setToDisk(true);
+        recording.setMaxAge(recordingMaxAge);
+        recording.setMaxSize(recordingMaxSize.toBytes());
+        recording.start();
+        log.info("Started flight recording {} with {} settings.", name, configuration.getName());
+        return new WebEndpointResponse<>(recordingReport(recording));
+    }
+
+    /**
+     * Dump the data of a recording so far.  A running recording keeps running.
+     * @param name name of the recording
+     * @return the recording as a .jfr file, 404 if there is no such recording
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Selector String name) throws IOException {
+        Recording recording = findRecording(name);
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path dumpFile = Files.createTempFile(name + "-", ".jfr");
+        boolean sent = false;
+        try {
+            recording.dump(dumpFile);
+            WebEndpointResponse<Resource> response = new WebEndpointResponse<>(new TemporaryFileResource(dumpFile));
+            sent = true;
+            return response;
+        }
+        finally {
+            // from here on the file is deleted once it has been read, or the client has gone away
+            if (!sent) {
+                Files.deleteIfExists(dumpFile);
+            }
+        }
+    }
+
+    /**
+     * Stop a recording and discard its data.
+     * @param name name of the recording
+     */
+    @DeleteOperation
+    public void stop(@Selector String name) {
+        Recording recording = findRecording(name);
+        if (recording != null) {
+            // closing also stops a running recording
+            recording.close();
+            log.info("Stopped flight recording {}.", name);
+        }
+    }
+
+    private static Recording findRecording(String name) {
+        if (!FlightRecorder.isAvailable()) {
+            return null;
+        }
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> name.equals(recording.getName()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static RecordingReport recordingReport(Recording recording) {
+        return new RecordingReport(recording.getName(), recording.getState().name().toLowerCase(),
+                recording.getStartTime(), recording.getMaxAge() == null ? null : recording.getMaxAge().toSeconds(),
+                recording.getMaxSize(), recording.getSize());
+    }
+
+    /**
+     * Dump file deleted once it has been sent.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private TemporaryFileResource(Path path) {
+            super(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    }
+                    finally {
+                        deleteFile();
+                    }
+                }
+            };
+        }
+
+        private void deleteFile() {
+            try {
+                Files.deleteIfExists(getFile().toPath());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @param name name of the recording
+     * @param state new, running, stopped or closed
+     * @param startTime time the recording started, null if not started
+     * @param maxAgeSeconds how long data is kept, null if unlimited
+     * @param maxSizeBytes how much data is kept, 0 if unlimited
+     * @param sizeBytes data recorded so far
+     */
+    public record RecordingReport(String name, String state, Instant startTime, Long maxAgeSeconds, long maxSizeBytes,
+                                  long sizeBytes) {}
+}
@@ -0,0 +1,239 @@
+package api.molby.githubSummary.management;
+
+import api.molby.githubSummary.api.GitHubUserSummaryCache;
+import api.molby.githubSummary.api.GitHubUserSummaryDTO;
+import api.molby.githubSummary.api.GitHubUserSummaryService;
+import api.molby.githubSummary.api.GithubRepositoryResponseDTO;
+import api.molby.githubSummary.api.SummaryPart;
+import api.molby.githubSummary.client.UpstreamPriority;
+import api.molby.githubSummary.exception.GitHubApiAccessException;
+import api.molby.githubSummary.refresh.HotUserTracker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Actuator endpoint for inspecting and managing the githubUserSummary cache at runtime, exposed on the
+ * management port at /manage/githubcache.
+ * <ul>
+ *     <li>GET /manage/githubcache?top=N - statistics, size and the N hottest cached users</li>
+ *     <li>GET /manage/githubcache/{username} - details of a single cached user</li>
+ *     <li>DELETE /manage/githubcache/{username} - evict a single user</li>
+ *     <li>DELETE /manage/githubcache - evict every user</li>
+ *     <li>POST /manage/githubcache {"usernames": [...]} - refresh the given users from github</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "githubcache")
+public class GitHubCacheEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubCacheEndpoint.class);
+
+    // same rules as the summary api
+    private static final Pattern USERNAME_PATTERN = Pattern.compile("^[a-zA-Z0-9](?:[a-zA-Z0-9-]{0,37}[a-zA-Z0-9])?$");
+
+    // rough heap sizes of the cached objects, used to estimate the size of the cache
+    private static final long SUMMARY_BYTES = 64;
+    private static final long REPOSITORY_BYTES = 24;
+    private static final long REFERENCE_BYTES = 4;
+    private static final long STRING_BYTES = 40;
+
+    private final GitHubUserSummaryCache gitHubUserSummaryCache;
+    private final GitHubUserSummaryService gitHubUserSummaryService;
+    private final HotUserTracker hotUserTracker;
+    private final int defaultTop;
+
+    public GitHubCacheEndpoint(GitHubUserSummaryCache gitHubUserSummaryCache,
+                               GitHubUserSummaryService gitHubUserSummaryService,
+                               HotUserTracker hotUserTracker,
+                               @Value("${management.endpoint.githubcache.top:10}") int defaultTop) {
+        this.gitHubUserSummaryCache = gitHubUserSummaryCache;
+        this.gitHubUserSummaryService = gitHubUserSummaryService;
+        this.hotUserTracker = hotUserTracker;
+        this.defaultTop = defaultTop;
+    }
+
+    /**
+     * @param top number of hottest users to include, defaults to management.endpoint.githubcache.top
+     * @return statistics, size and hottest users of the cache
+     */
+    @ReadOperation
+    public CacheReport cache(@Nullable Integer top) {
+        Set<String> cachedUserNames = gitHubUserSummaryCache.getCachedUserNames();
+        long estimatedBytes = 0;
+        for (String userName : cachedUserNames) {
+            estimatedBytes += estimateBytes(userName, gitHubUserSummaryCache.peek(userName));
+        }
+        List<EntryReport> hottest = hotUserTracker.hottest(cachedUserNames, top == null ? defaultTop : Math.max(top, 0))
+                .stream()
+                .map(hotUser -> entryReport(hotUser.userName()))
+                .filter(entryReport -> entryReport != null)
+                .toList();
+        CacheStats cacheStats = gitHubUserSummaryCache.getStats();
+        return new CacheReport(
+                gitHubUserSummaryCache.getEstimatedSize(),
+                estimatedBytes,
+                gitHubUserSummaryCache.getFreshFor().toSeconds(),
+                new CacheStatistics(cacheStats.hitCount(), cacheStats.missCount(), cacheStats.hitRate(),
+                        cacheStats.evictionCount()),
+                hottest);
+    }
+
+    /**
+     * @param username github user name
+     * @return details of the cached user, null (404) if the user is not cached
+     */
+    @ReadOperation
+    public EntryReport entry(@Selector String username) {
+        return entryReport(username.toLowerCase());
+    }
+
+    /**
+     * Evict a single user, the next request for the user is fetched from github.
+     * @param username github user name
+     */
+    @DeleteOperation
+    public void evict(@Selector String username) {
+        gitHubUserSummaryCache.evict(username.toLowerCase());
+        log.info("Evicted cached summary for user {}.", username);
+    }
+
+    /**
+     * Evict every cached user.
+     */
+    @DeleteOperation
+    public void evictAll() {
+        gitHubUserSummaryCache.evictAll();
+        log.info("Evicted all cached summaries.");
+    }
+
+    /**
+     * Refresh the given users from github, replacing any cached summary.  Users are refreshed one
+     * at a time as bulk work, so a long list uses rate limit budget gradually and gives way to
+     * client requests.
+     * @param usernames github user names
+     * @return outcome for each user
+     */
+    @WriteOperation
+    public List<RefreshResult> refresh(List<String> usernames) {
+        List<RefreshResult> refreshResults = new ArrayList<>();
+        for (String username : usernames) {
+            if (username == null || !USERNAME_PATTERN.matcher(username).matches()) {
+                refreshResults.add(new RefreshResult(username, false, "Username provided was invalid."));
+                continue;
+            }
+            String userName = username.toLowerCase();
+            try (UpstreamPriority.Scope scope = UpstreamPriority.BULK.enter()) {
+                GitHubUserSummaryDTO gitHubUserSummaryDTO = gitHubUserSummaryService.refreshUserSummary(userName);
+                refreshResults.add(new RefreshResult(userName, true,
+                        "Refreshed with " + gitHubUserSummaryDTO.getTotalRepos() + " repositories."));
+            }
+            catch (GitHubApiAccessException e) {
+                String message = e.getRootCause().getStatusCode() == HttpStatus.NOT_FOUND
+                        ? "User not found." : "Unable to access github.";
+                log.warn("Unable to refresh cached summary for user {}.  message: {}.", userName, e.getMessage());
+                refreshResults.add(new RefreshResult(userName, false, message));
+            }
+        }
+        log.info("Refresh requested for {} users.", usernames.size());
+        return refreshResults;
+    }
+
+    private EntryReport entryReport(String userName) {
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = gitHubUserSummaryCache.peek(userName);
+        if (gitHubUserSummaryDTO == null) {
+            return null;
+        }
+        return new EntryReport(
+                userName,
+                gitHubUserSummaryCache.getEntryAge(userName).map(Duration::toSeconds).orElse(null),
+                gitHubUserSummaryCache.isFresh(userName),
+                gitHubUserSummaryDTO.getParts(),
+                gitHubUserSummaryDTO.getRepos() == null ? null : gitHubUserSummaryDTO.getRepos().size(),
+                hotUserTracker.estimateAccesses(userName),
+                estimateBytes(userName, gitHubUserSummaryDTO));
+    }
+
+    /**
+     * Estimate the heap used by a cache entry from the lengths of its strings and the number of
+     * repositories.  This is an approximation, not a measurement.
+     * @param userName key of the entry
+     * @param gitHubUserSummaryDTO cached summary, may be null if evicted concurrently
+     * @return estimated bytes
+     */
+    static long estimateBytes(String userName, GitHubUserSummaryDTO gitHubUserSummaryDTO) {
+        if (gitHubUserSummaryDTO == null) {
+            return 0;
+        }
+        long bytes = SUMMARY_BYTES + stringBytes(userName)
+                + stringBytes(gitHubUserSummaryDTO.getUserName())
+                + stringBytes(gitHubUserSummaryDTO.getDisplayName())
+                + stringBytes(gitHubUserSummaryDTO.getAvatar())
+                + stringBytes(gitHubUserSummaryDTO.getGeoLocation())
+                + stringBytes(gitHubUserSummaryDTO.getEmail())
+                + stringBytes(gitHubUserSummaryDTO.getUrl());
+        if (gitHubUserSummaryDTO.getRepos() != null) {
+            for (GithubRepositoryResponseDTO repository : gitHubUserSummaryDTO.getRepos()) {
+                bytes += REFERENCE_BYTES + REPOSITORY_BYTES + stringBytes(repository.getName())
+                        + stringBytes(repository.getUrl());
+            }
+        }
+        return bytes;
+    }
+
+    // object and array headers plus one byte per character, github names and urls are ascii
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_BYTES + value.length();
+    }
+
+    /**
+     * @param entries number of cached users, fresh or stale
+     * @param estimatedBytes approximate heap used by the cached summaries
+     * @param freshForSeconds age up to which entries are served without calling github
+     * @param stats hit, miss and eviction statistics since start up
+     * @param hottest most requested cached users, hottest first
+     */
+    public record CacheReport(long entries, long estimatedBytes, long freshForSeconds, CacheStatistics stats,
+                              List<EntryReport> hottest) {}
+
+    /**
+     * @param hits lookups answered from the cache, fresh or stale
+     * @param misses lookups not in the cache
+     * @param hitRate hits as a share of all lookups
+     * @param evictions entries removed due to size or expiry
+     */
+    public record CacheStatistics(long hits, long misses, double hitRate, long evictions) {}
+
+    /**
+     * @param userName github user name
+     * @param ageSeconds time since the entry was written
+     * @param fresh true if served without calling github
+     * @param parts parts of the summary cached
+     * @param repositories number of cached repositories, null if not cached
+     * @param accesses estimated recent requests for the user
+     * @param estimatedBytes approximate heap used by the entry
+     */
+    public record EntryReport(String userName, Long ageSeconds, boolean fresh, Set<SummaryPart> parts,
+                              Integer repositories, int accesses, long estimatedBytes) {}
+
+    /**
+     * @param userName github user name
+     * @param refreshed true if the summary was refreshed from github
+     * @param message outcome of the refresh
+     */
+    public record RefreshResult(String userName, boolean refreshed, String message) {}
+}
@@ -0,0 +1,111 @@
+package api.molby.githubSummary.quota;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits requests within the quota of their client and refuses the rest with a 429 and a
+ * Retry-After header.  The github calls made for an admitted request are charged to the client
+ * once the response completes, for streamed summaries once the async response completes.
+ * Registered for the summary api paths by ClientQuotaConfig.
+ */
+public class ClientQuotaFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientQuotaFilter.class);
+
+    private final ClientQuotas clientQuotas;
+    private final ObjectMapper objectMapper;
+
+    public ClientQuotaFilter(ClientQuotas clientQuotas, ObjectMapper objectMapper) {
+        this.clientQuotas = clientQuotas;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ClientQuotas.ApiClient apiClient = clientQuotas.identify(request.getHeader(ClientQuotas.API_KEY_HEADER),
+                request.getRemoteAddr());
+        long retryAfterNanos = clientQuotas.tryAdmit(apiClient);
+        if (retryAfterNanos > 0) {
+            refuse(request, response, apiClient, retryAfterNanos);
+            return;
+        }
+        ClientUsage clientUsage = new ClientUsage();
+        try (ClientUsage.Scope scope = clientUsage.bind()) {
+            filterChain.doFilter(request, response);
+        }
+        finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(apiClient, clientUsage));
+            }
+            else {
+                clientQuotas.chargeUpstreamCalls(apiClient, clientUsage.getUpstreamCalls());
+            }
+        }
+    }
+
+    private void refuse(HttpServletRequest request, HttpServletResponse response, ClientQuotas.ApiClient apiClient,
+                        long retryAfterNanos) throws IOException {
+        // whole seconds, rounded up so a retry at that time is admitted
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999));
+        log.debug("Request of client {} refused, quota exceeded.  retry after: {}s.", apiClient, retryAfterSeconds);
+        ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.TOO_MANY_REQUESTS);
+        problemDetail.setTitle("Client quota exceeded");
+        problemDetail.setDetail("Request quota of client " + apiClient.getName() + " is used up, retry after "
+                + retryAfterSeconds + " seconds.");
+        problemDetail.setProperty("client", apiClient.getName());
+        problemDetail.setProperty("uri", request.getRequestURI());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), problemDetail);
+    }
+
+    /**
+     * Charges the github calls of an async request once its response has completed.
+     */
+    private class CompletionListener implements AsyncListener {
+
+        private final ClientQuotas.ApiClient apiClient;
+        private final ClientUsage clientUsage;
+
+        private CompletionListener(ClientQuotas.ApiClient apiClient, ClientUsage clientUsage) {
+            this.apiClient = apiClient;
+            this.clientUsage = clientUsage;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            clientQuotas.chargeUpstreamCalls(apiClient, clientUsage.getUpstreamCalls());
+        }
+
+        // errors and timeouts are followed by onComplete
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package api.molby.githubSummary.quota;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request quotas of the clients of the summary api, so a single client cannot use up the shared
+ * github rate limit or tie up request threads for everyone else.
+ * <ul>
+ *     <li>Clients - identified by the key sent in the X-API-Key header, configured as name:key pairs
+ *     in api.clients.keys.  Requests without a known key are anonymous and share quotas by remote
+ *     address.</li>
+ *     <li>Quotas - each keyed client has its own token bucket (api.quota.capacity tokens, refilled at
+ *     api.quota.refill-per-second).  Anonymous addresses are spread over api.quota.anonymous.stripes
+ *     smaller buckets (api.quota.anonymous.*), so memory stays bounded however many addresses call.</li>
+ *     <li>Costs - every request takes api.quota.request-cost tokens before it is handled, which is
+ *     all a cache hit costs.  Each github call made for the request then takes
+ *     api.quota.upstream-call-cost more once the response completes.  That charge may leave the
+ *     bucket in debt, holding back the client's next requests until it has been paid off.</li>
+ * </ul>
+ */
+@Component
+public class ClientQuotas {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+    public static final String ANONYMOUS = "anonymous";
+
+    private static final Logger log = LoggerFactory.getLogger(ClientQuotas.class);
+
+    private final Map<String, ApiClient> clientsByKey = new HashMap<>();
+    private final List<ApiClient> keyedClients = new ArrayList<>();
+    private final TokenBucketStripes keyedBuckets;
+    private final TokenBucketStripes anonymousBuckets;
+    private final ClientMeters anonymousMeters;
+    private final long requestCost;
+    private final long upstreamCallCost;
+
+    public ClientQuotas(@Value("${api.clients.keys:}") String[] clientKeys,
+                        @Value("${api.quota.capacity:600}") long capacity,
+                        @Value("${api.quota.refill-per-second:10}") double refillPerSecond,
+                        @Value("${api.quota.anonymous.capacity:60}") long anonymousCapacity,
+                        @Value("${api.quota.anonymous.refill-per-second:1}") double anonymousRefillPerSecond,
+                        @Value("${api.quota.anonymous.stripes:1024}") int anonymousStripes,
+                        @Value("${api.quota.request-cost:1}") long requestCost,
+                        @Value("${api.quota.upstream-call-cost:5}") long upstreamCallCost,
+                        MeterRegistry meterRegistry) {
+        List<String> keyedClientNames = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (String clientKey : clientKeys == null ? new String[0] : clientKeys) {
+            if (clientKey.isBlank()) {
+                continue;
+            }
+            int separator = clientKey.indexOf(':');
+            if (separator < 1 || separator == clientKey.length() - 1) {
+                throw new IllegalArgumentException("API client keys must be configured as name:key.");
+            }
+            keyedClientNames.add(clientKey.substring(0, separator).trim());
+            keys.add(clientKey.substring(separator + 1).trim());
+        }
+        // an empty stripe set is not allowed, the spare bucket is simply never used
+        this.keyedBuckets = new TokenBucketStripes(Math.max(keys.size(), 1), capacity, refillPerSecond);
+        this.anonymousBuckets = new TokenBucketStripes(anonymousStripes, anonymousCapacity, anonymousRefillPerSecond);
+        this.anonymousMeters = new ClientMeters(ANONYMOUS, meterRegistry);
+        for (int i = 0; i < keys.size(); i++) {
+            String name = keyedClientNames.get(i);
+            if (name.equals(ANONYMOUS) || keyedClients.stream().anyMatch(c -> c.name.equals(name))) {
+                throw new IllegalArgumentException("API client name " + name + " is reserved or configured twice.");
+            }
+            ApiClient apiClient = new ApiClient(name, keyedBuckets, i, new ClientMeters(name, meterRegistry));
+            if (clientsByKey.putIfAbsent(keys.get(i), apiClient) != null) {
+                throw new IllegalArgumentException("API client key of " + name + " is configured twice.");
+            }
+            keyedClients.add(apiClient);
+            Gauge.builder("api.client.tokens.available", apiClient, c -> c.buckets.available(c.stripe))
+                    .description("Tokens left in the quota of the API client, negative while in debt")
+                    .tag("client", name)
+                    .register(meterRegistry);
+        }
+        this.requestCost = requestCost;
+        this.upstreamCallCost = upstreamCallCost;
+        log.info("Client quotas configured for {} keyed clients.", keyedClients.size());
+    }
+
+    /**
+     * @param apiKey value of the X-API-Key header, may be null
+     * @param remoteAddress address of the caller, used to tell anonymous callers apart
+     * @return the client making the request
+     */
+    public ApiClient identify(String apiKey, String remoteAddress) {
+        ApiClient apiClient = apiKey == null ? null : clientsByKey.get(apiKey);
+        if (apiClient != null) {
+            return apiClient;
+        }
+        if (apiKey != null) {
+            log.debug("Request was made with an unknown API key from {}, treated as anonymous.", remoteAddress);
+        }
+        int hash = remoteAddress == null ? 0 : remoteAddress.hashCode();
+        // spread the hash so addresses differing only in high bits still land on different stripes
+        hash = (hash ^ (hash >>> 16)) * 0x9E3779B9;
+        return new ApiClient(ANONYMOUS, anonymousBuckets, Math.floorMod(hash, anonymousBuckets.getStripes()),
+                anonymousMeters);
+    }
+
+    /**
+     * Take the request cost from the quota of a client.
+     * @param apiClient client making the request
+     * @return 0 if the request may go ahead, otherwise nanos until the quota will allow it
+     */
+    public long tryAdmit(ApiClient apiClient) {
+        long retryAfterNanos = apiClient.buckets.tryTake(apiClient.stripe, requestCost);
+        if (retryAfterNanos > 0) {
+            apiClient.meters.throttledCounter.increment();
+            return retryAfterNanos;
+        }
+        apiClient.meters.admittedCounter.increment();
+        apiClient.meters.tokensCounter.increment(requestCost);
+        return 0;
+    }
+
+    /**
+     * Charge the github calls made for an admitted request to the quota of its client.
+     * @param apiClient client that made the request
+     * @param upstreamCalls github calls made for the request
+     */
+    public void chargeUpstreamCalls(ApiClient apiClient, int upstreamCalls) {
+        if (upstreamCalls <= 0) {
+            return;
+        }
+        long tokens = upstreamCalls * upstreamCallCost;
+        apiClient.buckets.take(apiClient.stripe, tokens);
+        apiClient.meters.upstreamCallsCounter.increment(upstreamCalls);
+        apiClient.meters.tokensCounter.increment(tokens);
+    }
+
+    /**
+     * @return usage of each keyed client followed by the combined usage of anonymous clients
+     */
+    public List<ClientReport> report() {
+        List<ClientReport> clientReports = new ArrayList<>();
+        for (ApiClient apiClient : keyedClients) {
+            clientReports.add(apiClient.meters.report(keyedBuckets, apiClient.buckets.available(apiClient.stripe)));
+        }
+        // anonymous buckets are shared by address so there is no single amount left to report
+        clientReports.add(anonymousMeters.report(anonymousBuckets, null));
+        return clientReports;
+    }
+
+    /**
+     * Client of the summary api and the bucket its quota is kept in.
+     */
+    public static final class ApiClient {
+
+        private final String name;
+        private final TokenBucketStripes buckets;
+        private final int stripe;
+        private final ClientMeters meters;
+
+        private ApiClient(String name, TokenBucketStripes buckets, int stripe, ClientMeters meters) {
+            this.name = name;
+            this.buckets = buckets;
+            this.stripe = stripe;
+            this.meters = meters;
+        }
+
+        /**
+         * @return configured name of the client, anonymous for requests without a known key
+         */
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Usage metrics of a client, anonymous callers share a single set.
+     */
+    private static final class ClientMeters {
+
+        private final String name;
+        private final Counter admittedCounter;
+        private final Counter throttledCounter;
+        private final Counter tokensCounter;
+        private final Counter upstreamCallsCounter;
+
+        private ClientMeters(String name, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.admittedCounter = Counter.builder("api.client.requests")
+                    .description("Summary api requests by client and whether they were within quota")
+                    .tags("client", name, "outcome", "admitted")
+                    .register(meterRegistry);
+            this.throttledCounter = Counter.builder("api.client.requests")
+                    .description("Summary api requests by client and whether they were within quota")
+                    .tags("client", name, "outcome", "throttled")
+                    .register(meterRegistry);
+            this.tokensCounter = Counter.builder("api.client.tokens.charged")
+                    .description("Quota tokens charged to the client")
+                    .tag("client", name)
+                    .register(meterRegistry);
+            this.upstreamCallsCounter = Counter.builder("api.client.upstream.calls")
+                    .description("Github calls made for requests of the client")
+                    .tag("client", name)
+                    .register(meterRegistry);
+        }
+
+        private ClientReport report(TokenBucketStripes buckets, Double availableTokens) {
+            return new ClientReport(name, buckets.getCapacity(), buckets.getRefillPerSecond(), availableTokens,
+                    (long) admittedCounter.count(), (long) throttledCounter.count(), (long) tokensCounter.count(),
+                    (long) upstreamCallsCounter.count());
+        }
+    }
+
+    /**
+     * @param client configured name of the client, anonymous for the combined anonymous clients
+     * @param capacity tokens a full bucket holds
+     * @param refillPerSecond tokens added to the bucket per second
+     * @param availableTokens tokens left, negative while in debt, null for anonymous clients
+     * @param admitted requests handled within quota
+     * @param throttled requests refused with a 429
+     * @param tokensCharged tokens charged for admitted requests and their github calls
+     * @param upstreamCalls github calls made for the client
+     */
+    public record ClientReport(String client, long capacity, double refillPerSecond, Double availableTokens,
+                               long admitted, long throttled, long tokensCharged, long upstreamCalls) {}
+}
@@ -0,0 +1,78 @@
+package api.molby.githubSummary.quota;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Usage of the request being handled on the current thread, charged to the quota of its client
+ * once the response completes.  Bound to the request thread by ClientQuotaFilter and carried over
+ * to async threads by the task decorator in AccessLogConfig.  Recording does nothing when no usage
+ * is bound, e.g. on background refresh threads.
+ */
+public final class ClientUsage {
+
+    private static final ThreadLocal<ClientUsage> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    ClientUsage() {
+    }
+
+    /**
+     * Count a github call made for the current request.
+     */
+    public static void recordUpstreamCall() {
+        ClientUsage clientUsage = CURRENT.get();
+        if (clientUsage != null) {
+            clientUsage.upstreamCalls.incrementAndGet();
+        }
+    }
+
+    /**
+     * Wrap a task so it runs with the usage of the thread submitting it.
+     * @param task task to be run on another thread
+     * @return task binding the current usage while it runs, the task itself if there is none
+     */
+    public static Runnable propagate(Runnable task) {
+        ClientUsage clientUsage = CURRENT.get();
+        if (clientUsage == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = clientUsage.bind()) {
+                task.run();
+            }
+        };
+    }
+
+    Scope bind() {
+        ClientUsage previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    int getUpstreamCalls() {
+        return upstreamCalls.get();
+    }
+
+    /**
+     * Binding of usage to the current thread, restoring the previous binding when closed.
+     */
+    static final class Scope implements AutoCloseable {
+
+        private final ClientUsage previous;
+
+        private Scope(ClientUsage previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            }
+            else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
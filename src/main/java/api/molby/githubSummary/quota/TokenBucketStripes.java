@@ -0,0 +1,109 @@
+package api.molby.githubSummary.quota;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed set of token buckets sharing a capacity and refill rate, held as one atomic long per
+ * bucket so taking tokens is a single compare and set and never blocks.  Rather than a token count
+ * each stripe holds the time at which its bucket will be full again, as in the generic cell rate
+ * algorithm.  Taking tokens pushes that time forward by their refill time, and is refused if it
+ * would move further ahead than the time to refill the whole bucket.  Time passing refills the
+ * bucket without any bookkeeping.
+ */
+final class TokenBucketStripes {
+
+    // stripes are a cache line apart so busy buckets do not contend on each others line
+    private static final int SPACING = 8;
+
+    private final AtomicLongArray fullAt;
+    private final int stripes;
+    private final long capacity;
+    private final double refillPerSecond;
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final LongSupplier nanoTime;
+    private final long originNanos;
+
+    /**
+     * @param stripes number of buckets
+     * @param capacity tokens a full bucket holds, the largest burst allowed
+     * @param refillPerSecond tokens added to each bucket per second
+     */
+    TokenBucketStripes(int stripes, long capacity, double refillPerSecond) {
+        this(stripes, capacity, refillPerSecond, System::nanoTime);
+    }
+
+    TokenBucketStripes(int stripes, long capacity, double refillPerSecond, LongSupplier nanoTime) {
+        if (stripes < 1 || capacity < 1 || !(refillPerSecond > 0)) {
+            throw new IllegalArgumentException("Token buckets need at least one stripe, a capacity and a refill rate.");
+        }
+        this.fullAt = new AtomicLongArray(stripes * SPACING);
+        this.stripes = stripes;
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.nanosPerToken = Math.max(1, Math.round(1_000_000_000d / refillPerSecond));
+        this.capacityNanos = capacity * nanosPerToken;
+        this.nanoTime = nanoTime;
+        // times are kept relative to creation so every bucket starts out full
+        this.originNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Take tokens from a bucket if it holds enough of them.
+     * @param stripe bucket to take from
+     * @param tokens tokens to take
+     * @return 0 if the tokens were taken, otherwise nanos until the bucket will hold enough
+     */
+    long tryTake(int stripe, long tokens) {
+        int index = stripe * SPACING;
+        long now = now();
+        while (true) {
+            long current = fullAt.get(index);
+            long next = Math.max(current, now) + tokens * nanosPerToken;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(index, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Take tokens whether or not the bucket holds enough, leaving it in debt if needed.  Used for
+     * costs only known once the work has been done.
+     * @param stripe bucket to take from
+     * @param tokens tokens to take
+     */
+    void take(int stripe, long tokens) {
+        long now = now();
+        fullAt.getAndUpdate(stripe * SPACING, current -> Math.max(current, now) + tokens * nanosPerToken);
+    }
+
+    /**
+     * @param stripe bucket
+     * @return tokens currently in the bucket, negative while it is in debt
+     */
+    double available(int stripe) {
+        long pendingNanos = Math.max(fullAt.get(stripe * SPACING) - now(), 0);
+        return (double) (capacityNanos - pendingNanos) / nanosPerToken;
+    }
+
+    int getStripes() {
+        return stripes;
+    }
+
+    long getCapacity() {
+        return capacity;
+    }
+
+    double getRefillPerSecond() {
+        return refillPerSecond;
+    }
+
+    private long now() {
+        return nanoTime.getAsLong() - originNanos;
+    }
+}
@@ -0,0 +1,89 @@
+package api.molby.githubSummary.refresh;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Count-min sketch used to estimate how often a given key has been accessed.  Memory use
+ * is fixed regardless of the number of distinct keys.  Counters are periodically halved
+ * so that the estimates favour recent popularity over all time popularity.
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final AtomicIntegerArray table;
+    private final int widthMask;
+    private final long sampleSize;
+    private final AtomicLong additions = new AtomicLong();
+
+    /**
+     * @param expectedKeys Rough number of distinct keys expected to be tracked.
+     */
+    public FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(expectedKeys, 16) - 1) << 1;
+        this.table = new AtomicIntegerArray(width * DEPTH);
+        this.widthMask = width - 1;
+        // halve counters after roughly ten accesses per tracked key
+        this.sampleSize = 10L * width;
+    }
+
+    /**
+     * Record a single access of the given key.
+     * @param key key accessed
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        for (int row = 0; row < DEPTH; row++) {
+            table.incrementAndGet(indexOf(hash, row));
+        }
+        if (additions.incrementAndGet() % sampleSize == 0) {
+            reset();
+        }
+    }
+
+    /**
+     * Estimate the number of recent accesses for the given key.  The estimate may be
+     * higher than the true value due to collisions but is never lower.
+     * @param key key to estimate
+     * @return estimated access count
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, table.get(indexOf(hash, row)));
+        }
+        return frequency;
+    }
+
+    /**
+     * Age all counters by halving them.
+     */
+    void reset() {
+        for (int i = 0; i < table.length(); i++) {
+            int value;
+            do {
+                value = table.get(i);
+            } while (!table.compareAndSet(i, value, value >>> 1));
+        }
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += (h >>> 32);
+        return row * (widthMask + 1) + ((int) h & widthMask);
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 17;
+        hash *= 0xed5ad4bb;
+        hash ^= hash >>> 11;
+        hash *= 0xac4c1b51;
+        hash ^= hash >>> 15;
+        return hash;
+    }
+}
@@ -0,0 +1,145 @@
+package api.molby.githubSummary.refresh;
+
+import api.molby.githubSummary.api.GitHubUserSummaryCache;
+import api.molby.githubSummary.api.GitHubUserSummaryDTO;
+import api.molby.githubSummary.api.GitHubUserSummaryService;
+import api.molby.githubSummary.client.GitHubTokenPool;
+import api.molby.githubSummary.client.UpstreamPriority;
+import api.molby.githubSummary.exception.GitHubApiAccessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Background task that re-fetches frequently requested users shortly before their cached
+ * summary leaves the freshness window, so popular users are always answered from cache.
+ * Refreshes are limited to a share of the combined GitHub rate limit of the token pool which
+ * is handed out evenly on every run.  Users that are not requested often are left to expire without any GitHub calls.
+ * Refresh calls are made as background work so they never hold up client requests.
+ */
+@Component
+@ConditionalOnProperty(name = "github.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class HotUserRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(HotUserRefresher.class);
+
+    // github returns repositories in pages of 30 by default
+    private static final int REPOSITORY_PAGE_SIZE = 30;
+    private static final double MILLIS_PER_HOUR = Duration.ofHours(1).toMillis();
+
+    private final GitHubUserSummaryService gitHubUserSummaryService;
+    private final GitHubUserSummaryCache gitHubUserSummaryCache;
+    private final HotUserTracker hotUserTracker;
+    private final GitHubTokenPool gitHubTokenPool;
+    private final int topN;
+    private final int minAccesses;
+    private final Duration refreshAt;
+    private final double runShareOfHour;
+    private final Counter refreshCounter;
+    private final Counter refreshFailureCounter;
+
+    private double availableCalls;
+
+    public HotUserRefresher(GitHubUserSummaryService gitHubUserSummaryService,
+                            GitHubUserSummaryCache gitHubUserSummaryCache,
+                            HotUserTracker hotUserTracker,
+                            GitHubTokenPool gitHubTokenPool,
+                            MeterRegistry meterRegistry,
+                            @Value("${github.refresh.top-n:50}") int topN,
+                            @Value("${github.refresh.min-accesses:3}") int minAccesses,
+                            @Value("${github.refresh.ahead-of-expiry:2m}") String aheadOfExpiry,
+                            @Value("${github.refresh.interval-ms:30000}") long intervalMs,
+                            @Value("${github.refresh.rate-limit-share:0.1}") double rateLimitShare) {
+        this.gitHubUserSummaryService = gitHubUserSummaryService;
+        this.gitHubUserSummaryCache = gitHubUserSummaryCache;
+        this.hotUserTracker = hotUserTracker;
+        this.gitHubTokenPool = gitHubTokenPool;
+        this.topN = topN;
+        this.minAccesses = minAccesses;
+        this.refreshAt = gitHubUserSummaryCache.getFreshFor().minus(DurationStyle.detectAndParse(aheadOfExpiry));
+        this.runShareOfHour = rateLimitShare * intervalMs / MILLIS_PER_HOUR;
+        this.refreshCounter = Counter.builder("github.refresh.users")
+                .description("Hot users refreshed ahead of expiry")
+                .register(meterRegistry);
+        this.refreshFailureCounter = Counter.builder("github.refresh.failures")
+                .description("Hot user refreshes that failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Refresh the hottest users whose cached summary is about to leave the freshness window,
+     * stopping once this run's share of the rate limit has been used.  Unused budget is not
+     * carried over, so refresh calls are spread evenly rather than saved up for a burst.  A
+     * refresh costing more than a run's share is made once the share is whole, and later runs
+     * pay it back.
+     */
+    @Scheduled(fixedRateString = "${github.refresh.interval-ms:30000}",
+            initialDelayString = "${github.refresh.interval-ms:30000}")
+    public synchronized void refreshHotUsers() {
+        // the pool limit is learned from github responses so the budget is worked out on every run
+        double callsPerRun = gitHubTokenPool.getHourlyLimit(GitHubTokenPool.CORE) * runShareOfHour;
+        availableCalls = Math.min(availableCalls + callsPerRun, callsPerRun);
+        // paying back a larger refresh would hold up every other hot user for too long
+        double maxRefreshCalls = Math.max(callsPerRun * 10, 1 + REPOSITORY_PAGE_SIZE);
+        List<HotUserTracker.HotUser> candidates = hotUserTracker.hottest(
+                gitHubUserSummaryCache.getCachedUserNames(), topN);
+        for (HotUserTracker.HotUser candidate : candidates) {
+            if (candidate.accesses() < minAccesses) {
+                // candidates are ordered hottest first so nothing after this is hot either
+                break;
+            }
+            if (!isDueForRefresh(candidate.userName())) {
+                continue;
+            }
+            int estimatedCalls = estimateUpstreamCalls(gitHubUserSummaryCache.peek(candidate.userName()));
+            if (estimatedCalls > maxRefreshCalls) {
+                // too large for the refresh budget, left to be fetched on request
+                continue;
+            }
+            if (estimatedCalls > availableCalls && availableCalls < callsPerRun) {
+                // wait for budget rather than skipping to cheaper, less popular users
+                break;
+            }
+            availableCalls -= estimatedCalls;
+            refresh(candidate.userName());
+        }
+    }
+
+    private boolean isDueForRefresh(String username) {
+        return gitHubUserSummaryCache.getEntryAge(username)
+                .map(age -> age.compareTo(refreshAt) >= 0 && age.compareTo(gitHubUserSummaryCache.getFreshFor()) < 0)
+                .orElse(false);
+    }
+
+    private void refresh(String username) {
+        try (UpstreamPriority.Scope scope = UpstreamPriority.BACKGROUND.enter()) {
+            gitHubUserSummaryService.refreshUserSummary(username);
+            refreshCounter.increment();
+            log.debug("Refreshed cached summary for hot user {}.", username);
+        }
+        catch (GitHubApiAccessException e) {
+            refreshFailureCounter.increment();
+            log.warn("Unable to refresh cached summary for hot user {}.  message: {}.", username, e.getMessage());
+        }
+    }
+
+    /**
+     * Estimate the number of github calls needed to refresh a summary, one for the user plus
+     * one per page of repositories.
+     * @param cachedSummary Summary currently cached for the user.
+     * @return estimated github calls
+     */
+    static int estimateUpstreamCalls(GitHubUserSummaryDTO cachedSummary) {
+        int repositoryCount = cachedSummary == null || cachedSummary.getRepos() == null
+                ? 0 : cachedSummary.getRepos().size();
+        return 1 + Math.max(1, (repositoryCount + REPOSITORY_PAGE_SIZE - 1) / REPOSITORY_PAGE_SIZE);
+    }
+}
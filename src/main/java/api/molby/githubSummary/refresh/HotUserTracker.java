@@ -0,0 +1,58 @@
+package api.molby.githubSummary.refresh;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tracks how frequently each username is requested so that popular users can be
+ * identified without keeping a counter per username.
+ */
+@Component
+public class HotUserTracker {
+
+    private final FrequencySketch frequencySketch;
+
+    public HotUserTracker(@Value("${spring.cache.github.maximum-size:1000}") int expectedUsers) {
+        this.frequencySketch = new FrequencySketch(expectedUsers);
+    }
+
+    /**
+     * Record a request for the given user.
+     * @param username github user name, expected in lowercase
+     */
+    public void recordAccess(String username) {
+        frequencySketch.increment(username);
+    }
+
+    /**
+     * @param username github user name, expected in lowercase
+     * @return estimated number of recent requests for the user
+     */
+    public int estimateAccesses(String username) {
+        return frequencySketch.frequency(username);
+    }
+
+    /**
+     * Rank the given usernames by estimated recent requests.
+     * @param usernames candidates to rank, typically the users currently cached
+     * @param limit maximum number of users to return
+     * @return the most frequently requested users, hottest first
+     */
+    public List<HotUser> hottest(Collection<String> usernames, int limit) {
+        return usernames.stream()
+                .map(username -> new HotUser(username, estimateAccesses(username)))
+                .sorted(Comparator.comparingInt(HotUser::accesses).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Username along with its estimated number of recent requests.
+     * @param userName github user name
+     * @param accesses estimated recent requests
+     */
+    public record HotUser(String userName, int accesses) {}
+}
@@ -0,0 +1,75 @@
+package api.molby.githubSummary.webhook;
+
+import api.molby.githubSummary.exception.InvalidWebhookSignatureException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import java.io.IOException;
+
+/**
+ * Controller receiving GitHub webhook deliveries.  Only registered when a webhook secret is
+ * configured (github.webhook.secret), deliveries not signed with it are rejected.
+ */
+@RestController
+@RequestMapping("/webhook/v1")
+@ConditionalOnProperty(name = "github.webhook.secret")
+@Tag(
+        name = "GitHub Webhook",
+        description = "Receives GitHub webhook deliveries used to keep cached summaries up to date."
+)
+public class GitHubWebhookController {
+
+    private static Logger log = LoggerFactory.getLogger(GitHubWebhookController.class);
+
+    private final GitHubWebhookService gitHubWebhookService;
+    private final GitHubWebhookSignature gitHubWebhookSignature;
+    private final ObjectMapper objectMapper;
+
+    public GitHubWebhookController(GitHubWebhookService gitHubWebhookService, ObjectMapper objectMapper,
+                                   @Value("${github.webhook.secret}") String secret) {
+        this.gitHubWebhookService = gitHubWebhookService;
+        this.gitHubWebhookSignature = new GitHubWebhookSignature(secret);
+        this.objectMapper = objectMapper;
+    }
+
+    @Operation(
+            summary="Receive a GitHub webhook delivery.",
+            description = "Endpoint for a GitHub webhook with content type application/json.  Repository events " +
+                    "patch the cached summary of the repository owner, organization member events evict the " +
+                    "cached member list of the organization.  Other events are acknowledged and ignored."
+    )
+    @ApiResponse(responseCode = "200", description = "Delivery was verified and applied")
+    @ApiResponse(responseCode = "401", description = "Delivery was not signed with the webhook secret")
+    @PostMapping("/github")
+    public WebhookResult receive(
+            @Parameter(description = "Event name", example = "repository")
+            @RequestHeader(value = "X-GitHub-Event", required = false)
+            String event,
+            @Parameter(description = "HMAC SHA-256 signature of the payload")
+            @RequestHeader(value = "X-Hub-Signature-256", required = false)
+            String signature,
+            @Parameter(description = "Unique id of the delivery")
+            @RequestHeader(value = "X-GitHub-Delivery", required = false)
+            String deliveryId,
+            @RequestBody
+            byte[] payload)
+            throws InvalidWebhookSignatureException, IOException {
+        // the signature covers the raw bytes, so it is checked before the payload is parsed
+        if (!gitHubWebhookSignature.verify(payload, signature)) {
+            throw new InvalidWebhookSignatureException(deliveryId);
+        }
+        log.debug("Received github webhook delivery {} for event {}.", deliveryId, event);
+        return gitHubWebhookService.handle(event, objectMapper.readTree(payload));
+    }
+}
@@ -0,0 +1,109 @@
+package api.molby.githubSummary.webhook;
+
+import api.molby.githubSummary.api.GitHubOrgMemberCache;
+import api.molby.githubSummary.api.GitHubUserSummaryService;
+import api.molby.githubSummary.api.GithubRepositoryResponseDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies GitHub webhook events to the caches so changes show up without waiting for entries to
+ * expire.  Repository events patch the repository list of the cached owner summary.  Organization
+ * membership events evict the cached member list of the organization.  Every other event,
+ * including repository collaborator (member) events which do not change owned repositories, is
+ * acknowledged and ignored.
+ */
+@Service
+public class GitHubWebhookService {
+
+    private static final Logger log = LoggerFactory.getLogger(GitHubWebhookService.class);
+
+    private final GitHubUserSummaryService gitHubUserSummaryService;
+    private final GitHubOrgMemberCache gitHubOrgMemberCache;
+    private final MeterRegistry meterRegistry;
+
+    public GitHubWebhookService(GitHubUserSummaryService gitHubUserSummaryService,
+                                GitHubOrgMemberCache gitHubOrgMemberCache,
+                                MeterRegistry meterRegistry) {
+        this.gitHubUserSummaryService = gitHubUserSummaryService;
+        this.gitHubOrgMemberCache = gitHubOrgMemberCache;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Apply a webhook event to the caches.
+     * @param event event name from the X-GitHub-Event header
+     * @param payload parsed payload of the delivery
+     * @return what was done with the event
+     */
+    public WebhookResult handle(String event, JsonNode payload) {
+        String action = payload.path("action").asText(null);
+        WebhookOutcome webhookOutcome = switch (event == null ? "" : event) {
+            case "repository" -> handleRepositoryEvent(action, payload);
+            case "organization" -> handleOrganizationEvent(action, payload);
+            default -> WebhookOutcome.IGNORED;
+        };
+        log.debug("Webhook event {} with action {} was {}.", event, action, webhookOutcome.toJson());
+        Counter.builder("github.webhook.events")
+                .description("GitHub webhook events received, by what was done with them")
+                .tag("event", event == null ? "unknown" : event)
+                .tag("outcome", webhookOutcome.toJson())
+                .register(meterRegistry)
+                .increment();
+        return new WebhookResult(event, action, webhookOutcome);
+    }
+
+    private WebhookOutcome handleRepositoryEvent(String action, JsonNode payload) {
+        JsonNode repository = payload.path("repository");
+        String owner = login(repository.path("owner"));
+        String name = repository.path("name").asText(null);
+        if (owner == null || name == null) {
+            return WebhookOutcome.IGNORED;
+        }
+        // summaries only hold public repositories
+        GithubRepositoryResponseDTO publicRepository = repository.path("private").asBoolean(false) ? null
+                : GithubRepositoryResponseDTO.builder().name(name).url(repository.path("url").asText(null)).build();
+        return switch (action == null ? "" : action) {
+            case "created", "publicized" -> patched(publicRepository != null
+                    && gitHubUserSummaryService.patchCachedRepositories(owner, null, publicRepository));
+            case "deleted", "privatized" -> patched(gitHubUserSummaryService.patchCachedRepositories(owner, name, null));
+            case "renamed" -> patched(gitHubUserSummaryService.patchCachedRepositories(owner,
+                    payload.path("changes").path("repository").path("name").path("from").asText(name), publicRepository));
+            case "transferred" -> {
+                JsonNode previousOwner = payload.path("changes").path("owner").path("from");
+                String previousOwnerLogin = login(previousOwner.has("user")
+                        ? previousOwner.path("user") : previousOwner.path("organization"));
+                boolean removed = previousOwnerLogin != null
+                        && gitHubUserSummaryService.patchCachedRepositories(previousOwnerLogin, name, null);
+                boolean added = publicRepository != null
+                        && gitHubUserSummaryService.patchCachedRepositories(owner, null, publicRepository);
+                yield patched(removed || added);
+            }
+            // archiving and edits do not change the name or url held in summaries
+            default -> WebhookOutcome.IGNORED;
+        };
+    }
+
+    private WebhookOutcome handleOrganizationEvent(String action, JsonNode payload) {
+        String orgName = login(payload.path("organization"));
+        if (orgName == null || !("member_added".equals(action) || "member_removed".equals(action))) {
+            return WebhookOutcome.IGNORED;
+        }
+        gitHubOrgMemberCache.evict(orgName);
+        return WebhookOutcome.EVICTED;
+    }
+
+    private static WebhookOutcome patched(boolean patched) {
+        return patched ? WebhookOutcome.PATCHED : WebhookOutcome.NOT_CACHED;
+    }
+
+    // cache keys are lowercase
+    private static String login(JsonNode account) {
+        String login = account.path("login").asText(null);
+        return login == null ? null : login.toLowerCase();
+    }
+}
@@ -0,0 +1,57 @@
+package api.molby.githubSummary.webhook;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Verifies the X-Hub-Signature-256 header GitHub sends with every webhook delivery, an HMAC
+ * SHA-256 of the raw payload keyed with the webhook secret, e.g. sha256=757107ea0eb2509fc2...
+ */
+public final class GitHubWebhookSignature {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String PREFIX = "sha256=";
+
+    private final SecretKeySpec secretKeySpec;
+
+    /**
+     * @param secret webhook secret shared with GitHub
+     */
+    public GitHubWebhookSignature(String secret) {
+        this.secretKeySpec = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    /**
+     * @param payload raw payload as received, before any parsing
+     * @param signatureHeader value of the X-Hub-Signature-256 header, may be null
+     * @return true if the header holds the signature of the payload
+     */
+    public boolean verify(byte[] payload, String signatureHeader) {
+        if (signatureHeader == null || !signatureHeader.startsWith(PREFIX)) {
+            return false;
+        }
+        byte[] expected = (PREFIX + sign(payload)).getBytes(StandardCharsets.UTF_8);
+        // constant time comparison so the signature cannot be guessed byte by byte
+        return MessageDigest.isEqual(expected, signatureHeader.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param payload raw payload
+     * @return hex encoded signature of the payload, without the sha256= prefix
+     */
+    String sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secretKeySpec);
+            return HexFormat.of().formatHex(mac.doFinal(payload));
+        }
+        catch (GeneralSecurityException e) {
+            // HmacSHA256 is required of every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package api.molby.githubSummary.webhook;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * What was done with a webhook event.
+ */
+public enum WebhookOutcome {
+
+    // a cached summary was patched with the change
+    PATCHED,
+    // a cached entry was removed, it is fetched from github on the next request
+    EVICTED,
+    // the event applies to an entry that is not cached, nothing to do
+    NOT_CACHED,
+    // the event does not change anything that is cached
+    IGNORED;
+
+    @JsonValue
+    public String toJson() {
+        return name().toLowerCase();
+    }
+}
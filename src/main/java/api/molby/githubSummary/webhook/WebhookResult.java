@@ -0,0 +1,9 @@
+package api.molby.githubSummary.webhook;
+
+/**
+ * Response to a webhook delivery, shown by GitHub in the recent deliveries of the webhook.
+ * @param event event name from the X-GitHub-Event header
+ * @param action action of the event, null for events without one such as ping
+ * @param outcome what was done with the event
+ */
+public record WebhookResult(String event, String action, WebhookOutcome outcome) {}
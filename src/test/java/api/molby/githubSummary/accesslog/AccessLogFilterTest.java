@@ -0,0 +1,96 @@
+package api.molby.githubSummary.accesslog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    private AccessLog accessLog;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        accessLog.stop();
+    }
+
+    private AccessLogFilter filter(int bufferSize, double sampleRate) {
+        accessLog = new AccessLog(meterRegistry, bufferSize, sampleRate, lines::add);
+        return new AccessLogFilter(accessLog);
+    }
+
+    @Test
+    void doFilter_summaryRequest_writesJsonLineWithOutcome() throws Exception {
+        AccessLogFilter accessLogFilter = filter(16, 1.0);
+        accessLog.start();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/userSummary/v1/octocat");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        accessLogFilter.doFilter(request, response, (req, res) -> {
+            AccessLogContext.recordUserName("octocat");
+            AccessLogContext.recordCacheOutcome(CacheOutcome.STALE);
+            AccessLogContext.recordUpstreamCall();
+            AccessLogContext.recordUpstreamCall();
+            res.getOutputStream().write("{\"userName\":\"octocat\"}".getBytes());
+        });
+
+        JsonNode line = new ObjectMapper().readTree(lines.poll(5, TimeUnit.SECONDS));
+        assertEquals("GET", line.get("method").asText());
+        assertEquals("/userSummary/v1/octocat", line.get("path").asText());
+        assertEquals(200, line.get("status").asInt());
+        assertEquals("octocat", line.get("userName").asText());
+        assertEquals("stale", line.get("cacheOutcome").asText());
+        assertEquals(2, line.get("upstreamCalls").asInt());
+        assertEquals(22, line.get("bytes").asLong());
+        assertTrue(line.has("latencyMicros"));
+        assertTrue(line.has("timestamp"));
+    }
+
+    @Test
+    void doFilter_bufferFull_dropsRecordsWithoutBlocking() throws Exception {
+        // writer not started so nothing is drained
+        AccessLogFilter accessLogFilter = filter(2, 1.0);
+
+        for (int i = 0; i < 5; i++) {
+            accessLogFilter.doFilter(new MockHttpServletRequest("GET", "/userSummary/v1/octocat"),
+                    new MockHttpServletResponse(), (req, res) -> {});
+        }
+
+        assertEquals(3, meterRegistry.get("access.log.dropped").counter().count());
+        accessLog.start();
+        assertTrue(lines.poll(5, TimeUnit.SECONDS) != null);
+        assertTrue(lines.poll(5, TimeUnit.SECONDS) != null);
+        assertNull(lines.poll(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void doFilter_notSampled_recordsOnlyServerErrors() throws Exception {
+        AccessLogFilter accessLogFilter = filter(16, 0.0);
+        accessLog.start();
+
+        accessLogFilter.doFilter(new MockHttpServletRequest("GET", "/userSummary/v1/octocat"),
+                new MockHttpServletResponse(), (req, res) -> {});
+        accessLogFilter.doFilter(new MockHttpServletRequest("GET", "/userSummary/v1/octocat"),
+                new MockHttpServletResponse(), (req, res) -> ((HttpServletResponse) res).setStatus(503));
+
+        JsonNode line = new ObjectMapper().readTree(lines.poll(5, TimeUnit.SECONDS));
+        assertEquals(503, line.get("status").asInt());
+        assertFalse(line.has("cacheOutcome"));
+        assertNull(lines.poll(50, TimeUnit.MILLISECONDS));
+    }
+}
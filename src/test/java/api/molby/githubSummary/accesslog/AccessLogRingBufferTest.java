@@ -0,0 +1,70 @@
+package api.molby.githubSummary.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogRingBufferTest {
+
+    @Test
+    void capacity_notPowerOfTwo_roundsUp() {
+        assertEquals(8, new AccessLogRingBuffer<String>(5).capacity());
+        assertEquals(8, new AccessLogRingBuffer<String>(8).capacity());
+    }
+
+    @Test
+    void offer_full_dropsUntilPolled() {
+        AccessLogRingBuffer<String> ringBuffer = new AccessLogRingBuffer<>(2);
+
+        assertTrue(ringBuffer.offer("a"));
+        assertTrue(ringBuffer.offer("b"));
+        assertFalse(ringBuffer.offer("c"));
+        assertEquals("a", ringBuffer.poll());
+        assertTrue(ringBuffer.offer("d"));
+
+        assertEquals("b", ringBuffer.poll());
+        assertEquals("d", ringBuffer.poll());
+        assertNull(ringBuffer.poll());
+    }
+
+    @Test
+    void offer_concurrentProducers_everyAcceptedItemPolledOnce() throws Exception {
+        AccessLogRingBuffer<Integer> ringBuffer = new AccessLogRingBuffer<>(64);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (ringBuffer.offer(producer * 10_000 + i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+
+        Set<Integer> polled = new HashSet<>();
+        while (producers.stream().anyMatch(Thread::isAlive)) {
+            Integer item = ringBuffer.poll();
+            if (item != null) {
+                assertTrue(polled.add(item));
+            }
+        }
+        for (Integer item = ringBuffer.poll(); item != null; item = ringBuffer.poll()) {
+            assertTrue(polled.add(item));
+        }
+
+        assertEquals(accepted.get(), polled.size());
+    }
+}
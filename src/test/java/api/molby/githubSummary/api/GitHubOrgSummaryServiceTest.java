@@ -0,0 +1,135 @@
+package api.molby.githubSummary.api;
+
+import api.molby.githubSummary.client.GitHubApiClient;
+import api.molby.githubSummary.client.UpstreamPriority;
+import api.molby.githubSummary.exception.GitHubApiAccessException;
+import api.molby.githubSummary.exception.GitHubOrgNotFoundException;
+import api.molby.githubSummary.exception.GitHubUserNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.RestClientResponseException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GitHubOrgSummaryServiceTest {
+
+    private static final String ORG_NAME = "github";
+
+    @Mock
+    private GitHubOrgMemberCache gitHubOrgMemberCache;
+
+    @Mock
+    private GitHubApiClient gitHubApiClient;
+
+    @Mock
+    private GitHubUserSummaryService gitHubUserSummaryService;
+
+    private GitHubOrgSummaryService gitHubOrgSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        gitHubOrgSummaryService = new GitHubOrgSummaryService(
+                gitHubOrgMemberCache, gitHubApiClient, gitHubUserSummaryService, task -> task, 2);
+    }
+
+    private static GitHubUserSummaryDTO summary(String userName) {
+        return GitHubUserSummaryDTO.builder().userName(userName).build();
+    }
+
+    @Test
+    void fetchOrgSummary_membersNotCached_fetchesCachesAndPagesMembers() throws Exception {
+        List<String> memberLogins = List.of("octocat", "hubot", "monalisa");
+        // cached after the first request
+        when(gitHubOrgMemberCache.getMembersFromCache(ORG_NAME)).thenReturn(null, memberLogins);
+        when(gitHubApiClient.fetchOrganizationMembers(ORG_NAME)).thenReturn(memberLogins);
+        when(gitHubUserSummaryService.fetchUserSummary(anyString(), isNull(), eq(SummaryPart.all())))
+                .thenAnswer(invocation -> summary(invocation.getArgument(0)));
+
+        GitHubOrgSummaryDTO result = gitHubOrgSummaryService.fetchOrgSummary("GitHub", 0, 2, SummaryPart.all());
+
+        verify(gitHubOrgMemberCache).cacheMembers(ORG_NAME, memberLogins);
+        verify(gitHubApiClient).fetchOrganizationMembers(ORG_NAME);
+        assertEquals(ORG_NAME, result.getOrgName());
+        // members are returned in member list order whatever order they finish in
+        assertThat(result.getMembers()).extracting(GitHubUserSummaryDTO::getUserName)
+                .containsExactly("octocat", "hubot");
+        assertThat(result.getUnavailableMembers()).isEmpty();
+        assertEquals(3, result.getTotalMembers());
+        assertEquals(2, RepositoryCursor.decode(result.getNextCursor()));
+
+        GitHubOrgSummaryDTO lastPage = gitHubOrgSummaryService.fetchOrgSummary(ORG_NAME, 2, 2, SummaryPart.all());
+        assertThat(lastPage.getMembers()).extracting(GitHubUserSummaryDTO::getUserName).containsExactly("monalisa");
+        assertNull(lastPage.getNextCursor());
+
+        // the end of the page is capped rather than overflowing
+        GitHubOrgSummaryDTO beyondLastPage = gitHubOrgSummaryService.fetchOrgSummary(ORG_NAME, Integer.MAX_VALUE - 1, 100,
+                SummaryPart.all());
+        assertThat(beyondLastPage.getMembers()).isEmpty();
+        assertNull(beyondLastPage.getNextCursor());
+    }
+
+    @Test
+    void fetchOrgSummary_membersCachedAndSomeUnavailable_listsUnavailableMembersAsBulkWork() throws Exception {
+        when(gitHubOrgMemberCache.getMembersFromCache(ORG_NAME))
+                .thenReturn(IntStream.range(0, 8).mapToObj(i -> "member-" + i).toList());
+        Map<String, UpstreamPriority> priorities = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(gitHubUserSummaryService.fetchUserSummary(anyString(), isNull(), any())).thenAnswer(invocation -> {
+            String userName = invocation.getArgument(0);
+            priorities.put(userName, UpstreamPriority.current());
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            }
+            finally {
+                inFlight.decrementAndGet();
+            }
+            if (userName.equals("member-3")) {
+                throw new GitHubUserNotFoundException(userName);
+            }
+            return summary(userName);
+        });
+
+        GitHubOrgSummaryDTO result = gitHubOrgSummaryService.fetchOrgSummary(ORG_NAME, 0, 10, SummaryPart.all());
+
+        verify(gitHubApiClient, never()).fetchOrganizationMembers(anyString());
+        assertThat(result.getMembers()).hasSize(7);
+        assertThat(result.getUnavailableMembers()).containsExactly("member-3");
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+        assertThat(priorities.values()).containsOnly(UpstreamPriority.BULK);
+    }
+
+    @Test
+    void fetchOrgSummary_orgNotFound_throwsGitHubOrgNotFoundException() throws Exception {
+        RestClientResponseException notFound = new RestClientResponseException(
+                "Not Found", 404, "Not Found", null, null, StandardCharsets.UTF_8);
+        when(gitHubOrgMemberCache.getMembersFromCache("no-such-org")).thenReturn(null);
+        when(gitHubApiClient.fetchOrganizationMembers("no-such-org"))
+                .thenThrow(new GitHubApiAccessException(notFound, "no-such-org", "Not Found"));
+
+        assertThrows(GitHubOrgNotFoundException.class,
+                () -> gitHubOrgSummaryService.fetchOrgSummary("no-such-org", 0, 30, SummaryPart.all()));
+        verify(gitHubOrgMemberCache, never()).cacheMembers(anyString(), any());
+    }
+}
@@ -1,25 +1,37 @@
 package api.molby.githubSummary.api;
 
+import api.molby.githubSummary.config.JacksonConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(GithubUserSummaryController.class)
 // excludes security for testing
 @AutoConfigureMockMvc(addFilters = false)
+@Import(JacksonConfig.class)
 class GithubUserSummaryControllerTest {
 
     private static final String USER_NAME = "test_login";
@@ -94,4 +106,190 @@ class GithubUserSummaryControllerTest {
         GitHubUserSummaryDTO gitHubUserSummaryDTO = GitHubUserSummaryDTO.builder().userName(userName).build();
         mockMvc.perform(get("/userSummary/v1/{username}", userName)).andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUserSummary_limitAndCursor_returnsWindowWithNextCursor() throws Exception {
+        String userName = "octocat";
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = GitHubUserSummaryDTO.builder()
+                .userName(USER_NAME)
+                .repos(List.of(GithubRepositoryResponseDTO.builder().name(REPO_NAME_2).url(REPO_URL_2).build()))
+                .totalRepos(5)
+                .nextCursor(RepositoryCursor.encode(2))
+                .build();
+        when(gitHubUserSummaryService.fetchUserSummary(eq(userName), eq(new RepositoryWindow(1, 1)), eq(SummaryPart.all())))
+                .thenReturn(gitHubUserSummaryDTO);
+        mockMvc.perform(get("/userSummary/v1/{username}", userName)
+                        .param("limit", "1")
+                        .param("cursor", RepositoryCursor.encode(1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.repos.length()").value(1))
+                .andExpect(jsonPath("$.totalRepos").value(5))
+                .andExpect(jsonPath("$.nextCursor").value(RepositoryCursor.encode(2)));
+    }
+
+    @Test
+    void getUserSummary_invalidCursor_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/userSummary/v1/{username}", "octocat").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUserSummary_oversizedCursor_returnsBadRequest() throws Exception {
+        // an offset this large would overflow once the limit is added
+        mockMvc.perform(get("/userSummary/v1/{username}", "octocat")
+                        .param("limit", "1000")
+                        .param("cursor", RepositoryCursor.encode(Integer.MAX_VALUE)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUserSummary_limitOutOfRange_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/userSummary/v1/{username}", "octocat").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUserSummary_profileFields_returnsOnlyRequestedFields() throws Exception {
+        String userName = "octocat";
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = GitHubUserSummaryDTO.builder()
+                .userName(USER_NAME)
+                .displayName(DISPLAY_NAME)
+                .avatar(AVATAR)
+                .email(EMAIL)
+                .parts(Set.of(SummaryPart.PROFILE))
+                .build();
+        when(gitHubUserSummaryService.fetchUserSummary(userName, null, Set.of(SummaryPart.PROFILE)))
+                .thenReturn(gitHubUserSummaryDTO);
+        mockMvc.perform(get("/userSummary/v1/{username}", userName).param("fields", "userName,avatar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value(USER_NAME))
+                .andExpect(jsonPath("$.avatar").value(AVATAR))
+                .andExpect(jsonPath("$.displayName").doesNotExist())
+                .andExpect(jsonPath("$.email").doesNotExist())
+                .andExpect(jsonPath("$.repos").doesNotExist());
+    }
+
+    @Test
+    void getUserSummary_totalReposField_fetchesProfileOnly() throws Exception {
+        String userName = "octocat";
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = GitHubUserSummaryDTO.builder()
+                .userName(USER_NAME)
+                .totalRepos(8)
+                .parts(Set.of(SummaryPart.PROFILE))
+                .build();
+        when(gitHubUserSummaryService.fetchUserSummary(userName, null, Set.of(SummaryPart.PROFILE)))
+                .thenReturn(gitHubUserSummaryDTO);
+        mockMvc.perform(get("/userSummary/v1/{username}", userName).param("fields", "totalRepos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRepos").value(8))
+                .andExpect(jsonPath("$.userName").doesNotExist());
+    }
+
+    @Test
+    void getUserSummary_repositoryNameField_returnsOnlyRepositoryNames() throws Exception {
+        String userName = "octocat";
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = GitHubUserSummaryDTO.builder()
+                .repos(List.of(GithubRepositoryResponseDTO.builder().name(REPO_NAME_1).url(REPO_URL_1).build()))
+                .totalRepos(1)
+                .parts(Set.of(SummaryPart.REPOSITORIES))
+                .build();
+        when(gitHubUserSummaryService.fetchUserSummary(userName, null, Set.of(SummaryPart.REPOSITORIES)))
+                .thenReturn(gitHubUserSummaryDTO);
+        mockMvc.perform(get("/userSummary/v1/{username}", userName).param("fields", "repos.name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.repos[0].name").value(REPO_NAME_1))
+                .andExpect(jsonPath("$.repos[0].url").doesNotExist())
+                .andExpect(jsonPath("$.userName").doesNotExist())
+                .andExpect(jsonPath("$.totalRepos").doesNotExist());
+    }
+
+    @Test
+    void getUserSummary_unknownField_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/userSummary/v1/{username}", "octocat").param("fields", "userName,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private GitHubUserSummaryDTO fullSummary() {
+        return GitHubUserSummaryDTO.builder()
+                .userName(USER_NAME)
+                .displayName(DISPLAY_NAME)
+                .avatar(AVATAR)
+                .url(URL)
+                .createdAt(CREATED_AT)
+                .email(EMAIL)
+                .geoLocation(GEO_LOCATION)
+                .repos(List.of(
+                        GithubRepositoryResponseDTO.builder().name(REPO_NAME_1).url(REPO_URL_1).build(),
+                        GithubRepositoryResponseDTO.builder().name(REPO_NAME_2).url(REPO_URL_2).build()))
+                .totalRepos(2)
+                .build();
+    }
+
+    private void assertBinaryRoundTrip(MediaType mediaType, ObjectMapper objectMapper) throws Exception {
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = fullSummary();
+        when(gitHubUserSummaryService.fetchUserSummary("octocat")).thenReturn(gitHubUserSummaryDTO);
+        MvcResult result = mockMvc.perform(get("/userSummary/v1/{username}", "octocat").accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn();
+        assertEquals(gitHubUserSummaryDTO,
+                objectMapper.readValue(result.getResponse().getContentAsByteArray(), GitHubUserSummaryDTO.class));
+    }
+
+    @Test
+    void getUserSummary_acceptCbor_returnsCborSummary() throws Exception {
+        assertBinaryRoundTrip(MediaType.APPLICATION_CBOR, Jackson2ObjectMapperBuilder.cbor().build());
+    }
+
+    @Test
+    void getUserSummary_acceptSmile_returnsSmileSummary() throws Exception {
+        assertBinaryRoundTrip(MediaType.parseMediaType("application/x-jackson-smile"), Jackson2ObjectMapperBuilder.smile().build());
+    }
+
+    @Test
+    void streamUserSummary_notCached_streamsProfileThenRepositoryPages() throws Exception {
+        GitHubUserSummaryDTO profileDTO = GitHubUserSummaryDTO.builder()
+                .userName(USER_NAME)
+                .displayName(DISPLAY_NAME)
+                .createdAt(CREATED_AT)
+                .build();
+        when(gitHubUserSummaryService.streamUserSummary("octocat")).thenReturn(new SummaryStream(profileDTO,
+                pageConsumer -> {
+                    pageConsumer.accept(List.of(GithubRepositoryResponseDTO.builder().name(REPO_NAME_1).url(REPO_URL_1).build()));
+                    pageConsumer.accept(List.of(GithubRepositoryResponseDTO.builder().name(REPO_NAME_2).url(REPO_URL_2).build()));
+                    return SummaryStream.RepositoryPagesResult.complete(2);
+                }));
+        MvcResult result = mockMvc.perform(get("/userSummary/v1/{username}", "octocat").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.userName").value(USER_NAME))
+                .andExpect(jsonPath("$.createdAt").value("Sun, 02 Jan 2011 03:04:05 GMT"))
+                .andExpect(jsonPath("$.repos.length()").value(2))
+                .andExpect(jsonPath("$.repos[1].name").value(REPO_NAME_2))
+                .andExpect(jsonPath("$.totalRepos").value(2));
+    }
+
+    @Test
+    void streamUserSummary_deadlinePassesWhilePaging_endsWithCursor() throws Exception {
+        GitHubUserSummaryDTO profileDTO = GitHubUserSummaryDTO.builder()
+                .userName(USER_NAME)
+                .build();
+        when(gitHubUserSummaryService.streamUserSummary("octocat")).thenReturn(new SummaryStream(profileDTO,
+                pageConsumer -> {
+                    pageConsumer.accept(List.of(GithubRepositoryResponseDTO.builder().name(REPO_NAME_1).url(REPO_URL_1).build()));
+                    return new SummaryStream.RepositoryPagesResult(2, RepositoryCursor.encode(1));
+                }));
+        MvcResult result = mockMvc.perform(get("/userSummary/v1/{username}", "octocat").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.repos.length()").value(1))
+                .andExpect(jsonPath("$.totalRepos").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(RepositoryCursor.encode(1)))
+                .andExpect(jsonPath("$.incomplete").value(true));
+    }
+}
@@ -3,19 +3,41 @@ package api.molby.githubSummary.api;
 import api.molby.githubSummary.client.GitHubApiClient;
 import api.molby.githubSummary.client.GithubRepositoryDTO;
 import api.molby.githubSummary.client.GithubUserDTO;
+import api.molby.githubSummary.deadline.RequestDeadline;
 import api.molby.githubSummary.exception.GitHubApiAccessException;
 import api.molby.githubSummary.exception.GitHubUserNotFoundException;
+import api.molby.githubSummary.exception.RequestTimeoutException;
+import api.molby.githubSummary.refresh.HotUserTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientResponseException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,9 +59,17 @@ class GitHubUserSummaryServiceTest {
     @Mock
     private GitHubUserSummaryCache gitHubUserSummaryCache;
 
+    @Mock
+    private GitHubUserNotFoundCache gitHubUserNotFoundCache;
+
     @Mock
     private GitHubApiClient gitHubApiClient;
 
+    @Mock
+    private HotUserTracker hotUserTracker;
+
+    private MeterRegistry meterRegistry;
+
     private GitHubUserSummaryService gitHubUserSummaryService;
     private GithubUserDTO githubUserDTO;
     private List<GithubRepositoryDTO> githubRepositoryDTOS;
@@ -47,7 +77,9 @@ class GitHubUserSummaryServiceTest {
 
     @BeforeEach
     void setUp() {
-        gitHubUserSummaryService = new GitHubUserSummaryService(gitHubUserSummaryCache, gitHubApiClient);
+        meterRegistry = new SimpleMeterRegistry();
+        gitHubUserSummaryService = new GitHubUserSummaryService(
+                gitHubUserSummaryCache, gitHubUserNotFoundCache, gitHubApiClient, hotUserTracker, meterRegistry, "6h");
         githubUserDTO = GithubUserDTO.builder()
                 .login(LOGIN)
                 .name(NAME)
@@ -75,13 +107,36 @@ class GitHubUserSummaryServiceTest {
                                 GithubRepositoryResponseDTO.builder().name(REPO_NAME_2).url(REPO_URL_2).build()
                         )
                 )
+                .totalRepos(2)
                 .build();
     }
 
     @Test
     void getUserSummary_validUser_returnsSummary() throws Exception {
-        when(gitHubApiClient.fetchUser(LOGIN)).thenReturn(githubUserDTO);
-        when(gitHubApiClient.fetchUserRepositories(LOGIN)).thenReturn(githubRepositoryDTOS);
+        when(gitHubApiClient.fetchUserWithRepositories(LOGIN)).thenReturn(
+                new GitHubApiClient.GithubUserRepositories(githubUserDTO, githubRepositoryDTOS));
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO = gitHubUserSummaryService.fetchUserSummary(LOGIN);
+        assertEquals(gitHubUserSummaryDTO,actualGitHubUserSummaryDTO);
+        verify(gitHubUserSummaryCache).cacheResponse(LOGIN, gitHubUserSummaryDTO);
+        verify(hotUserTracker).recordAccess(LOGIN);
+    }
+
+    @Test
+    void getUserSummary_freshCacheEntry_returnsCachedWithoutGithubCall() throws Exception {
+        when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(gitHubUserSummaryDTO);
+        when(gitHubUserSummaryCache.isFresh(LOGIN, SummaryPart.all())).thenReturn(true);
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO = gitHubUserSummaryService.fetchUserSummary(LOGIN);
+        assertEquals(gitHubUserSummaryDTO,actualGitHubUserSummaryDTO);
+        verify(gitHubApiClient, never()).fetchUserWithRepositories(anyString());
+    }
+
+    @Test
+    void getUserSummary_staleCacheEntry_refetchesFromGithub() throws Exception {
+        GitHubUserSummaryDTO staleGitHubUserSummaryDTO = GitHubUserSummaryDTO.builder().userName(LOGIN).build();
+        when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(staleGitHubUserSummaryDTO);
+        when(gitHubUserSummaryCache.isFresh(LOGIN, SummaryPart.all())).thenReturn(false);
+        when(gitHubApiClient.fetchUserWithRepositories(LOGIN)).thenReturn(
+                new GitHubApiClient.GithubUserRepositories(githubUserDTO, githubRepositoryDTOS));
         GitHubUserSummaryDTO actualGitHubUserSummaryDTO = gitHubUserSummaryService.fetchUserSummary(LOGIN);
         assertEquals(gitHubUserSummaryDTO,actualGitHubUserSummaryDTO);
     }
@@ -98,8 +153,20 @@ class GitHubUserSummaryServiceTest {
                     null           // charset
             );
         GitHubApiAccessException gitHubApiAccessException = new GitHubApiAccessException(restClientResponseException, LOGIN, "unknown user");
-        when(gitHubApiClient.fetchUser(LOGIN)).thenThrow(gitHubApiAccessException);
+        when(gitHubApiClient.fetchUserWithRepositories(LOGIN)).thenThrow(gitHubApiAccessException);
         assertThrows(GitHubUserNotFoundException.class, () -> gitHubUserSummaryService.fetchUserSummary(LOGIN));
+        verify(gitHubUserNotFoundCache).recordUserNotFound(LOGIN);
+    }
+
+    @Test
+    void getUserSummary_userInNotFoundCache_throwsExceptionWithoutGithubCall() throws Exception {
+        when(gitHubUserNotFoundCache.isUserNotFound(LOGIN)).thenReturn(Boolean.TRUE);
+        assertThrows(GitHubUserNotFoundException.class, () -> gitHubUserSummaryService.fetchUserSummary(LOGIN));
+        verify(gitHubApiClient, never()).fetchUserWithRepositories(anyString());
+        assertEquals(1.0, meterRegistry.counter("github.summary.not.found.cache.hits").count());
+        assertThrows(GitHubUserNotFoundException.class, () -> gitHubUserSummaryService.streamUserSummary(LOGIN));
+        // missing users do not compete with real users for background refresh
+        verify(hotUserTracker, never()).recordAccess(anyString());
     }
 
     @Test
@@ -116,7 +183,7 @@ class GitHubUserSummaryServiceTest {
         GitHubApiAccessException gitHubApiAccessException = new GitHubApiAccessException(
                 restClientResponseException, LOGIN, "Error accessing github api"
         );
-        when(gitHubApiClient.fetchUser(LOGIN)).thenThrow(gitHubApiAccessException);
+        when(gitHubApiClient.fetchUserWithRepositories(LOGIN)).thenThrow(gitHubApiAccessException);
         when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(gitHubUserSummaryDTO);
         GitHubUserSummaryDTO actualGitHubUserSummaryDTO = gitHubUserSummaryService.fetchUserSummary(LOGIN);
         assertEquals(gitHubUserSummaryDTO,actualGitHubUserSummaryDTO);
@@ -136,8 +203,297 @@ class GitHubUserSummaryServiceTest {
         GitHubApiAccessException gitHubApiAccessException = new GitHubApiAccessException(
                 restClientResponseException, LOGIN, "Error accessing github api"
         );
-        when(gitHubApiClient.fetchUser(LOGIN)).thenThrow(gitHubApiAccessException);
+        when(gitHubApiClient.fetchUserWithRepositories(LOGIN)).thenThrow(gitHubApiAccessException);
         when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(null);
         assertThrows(GitHubApiAccessException.class, () -> gitHubUserSummaryService.fetchUserSummary(LOGIN));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUserSummary_recentFullSync_mergesUpdatedRepositories() throws Exception {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        GitHubUserSummaryDTO staleGitHubUserSummaryDTO = GitHubUserSummaryDTO.builder()
+                .userName(LOGIN)
+                .repos(List.of(
+                        GithubRepositoryResponseDTO.builder().name("alpha").url("http://alpha").build(),
+                        GithubRepositoryResponseDTO.builder().name("Charlie").url("http://charlie").build()
+                ))
+                .repositoriesSyncedAt(now.minusMinutes(20))
+                .repositoriesFullySyncedAt(now.minusHours(1))
+                .build();
+        when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(staleGitHubUserSummaryDTO);
+        when(gitHubApiClient.fetchUser(LOGIN)).thenReturn(githubUserDTO);
+        when(gitHubApiClient.fetchUserRepositoriesUpdatedSince(eq(LOGIN), any(OffsetDateTime.class))).thenReturn(List.of(
+                GithubRepositoryDTO.builder().name("charlie").url("http://charlie-renamed").build(),
+                GithubRepositoryDTO.builder().name("Bravo").url("http://bravo").build()
+        ));
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO = gitHubUserSummaryService.fetchUserSummary(LOGIN);
+        assertEquals(List.of(
+                GithubRepositoryResponseDTO.builder().name("alpha").url("http://alpha").build(),
+                GithubRepositoryResponseDTO.builder().name("Bravo").url("http://bravo").build(),
+                GithubRepositoryResponseDTO.builder().name("charlie").url("http://charlie-renamed").build()
+        ), actualGitHubUserSummaryDTO.getRepos());
+        assertEquals(staleGitHubUserSummaryDTO.getRepositoriesFullySyncedAt(),
+                actualGitHubUserSummaryDTO.getRepositoriesFullySyncedAt());
+        verify(gitHubApiClient, never()).fetchUserWithRepositories(anyString());
+    }
+
+    @Test
+    void getUserSummary_fullSyncOutdated_refetchesAllRepositories() throws Exception {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        GitHubUserSummaryDTO staleGitHubUserSummaryDTO = GitHubUserSummaryDTO.builder()
+                .userName(LOGIN)
+                .repos(List.of(GithubRepositoryResponseDTO.builder().name("deleted").url("http://deleted").build()))
+                .repositoriesSyncedAt(now.minusMinutes(20))
+                .repositoriesFullySyncedAt(now.minusHours(7))
+                .build();
+        when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(staleGitHubUserSummaryDTO);
+        when(gitHubApiClient.fetchUserWithRepositories(LOGIN)).thenReturn(
+                new GitHubApiClient.GithubUserRepositories(githubUserDTO, githubRepositoryDTOS));
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO = gitHubUserSummaryService.fetchUserSummary(LOGIN);
+        assertEquals(gitHubUserSummaryDTO, actualGitHubUserSummaryDTO);
+        verify(gitHubApiClient, never()).fetchUserRepositoriesUpdatedSince(anyString(), any());
+    }
+
+    @Test
+    void getUserSummaryWindow_freshCacheEntry_returnsWindowOfCachedRepos() throws Exception {
+        when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(gitHubUserSummaryDTO);
+        when(gitHubUserSummaryCache.isFresh(LOGIN, SummaryPart.all())).thenReturn(true);
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO =
+                gitHubUserSummaryService.fetchUserSummary(LOGIN, new RepositoryWindow(0, 1));
+        assertEquals(List.of(GithubRepositoryResponseDTO.builder().name(REPO_NAME_1).url(REPO_URL_1).build()),
+                actualGitHubUserSummaryDTO.getRepos());
+        assertEquals(2, actualGitHubUserSummaryDTO.getTotalRepos());
+        assertEquals(1, RepositoryCursor.decode(actualGitHubUserSummaryDTO.getNextCursor()));
+        verify(gitHubApiClient, never()).fetchUserWithRepositoryWindow(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getUserSummaryWindow_offsetNearIntLimit_returnsEmptyWindowWithoutCursor() throws Exception {
+        when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(gitHubUserSummaryDTO);
+        when(gitHubUserSummaryCache.isFresh(LOGIN, SummaryPart.all())).thenReturn(true);
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO =
+                gitHubUserSummaryService.fetchUserSummary(LOGIN, new RepositoryWindow(Integer.MAX_VALUE - 1, 1000));
+        assertEquals(List.of(), actualGitHubUserSummaryDTO.getRepos());
+        assertEquals(2, actualGitHubUserSummaryDTO.getTotalRepos());
+        assertNull(actualGitHubUserSummaryDTO.getNextCursor());
+    }
+
+    @Test
+    void getUserSummaryWindow_cacheMiss_fetchesOnlyWindowAndDoesNotCache() throws Exception {
+        when(gitHubApiClient.fetchUserWithRepositoryWindow(LOGIN, 1, 1)).thenReturn(
+                new GitHubApiClient.GithubUserRepositoryWindow(githubUserDTO,
+                        List.of(GithubRepositoryDTO.builder().name(REPO_NAME_2).url(REPO_URL_2).build()), 2));
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO =
+                gitHubUserSummaryService.fetchUserSummary(LOGIN, new RepositoryWindow(1, 1));
+        assertEquals(List.of(GithubRepositoryResponseDTO.builder().name(REPO_NAME_2).url(REPO_URL_2).build()),
+                actualGitHubUserSummaryDTO.getRepos());
+        assertEquals(2, actualGitHubUserSummaryDTO.getTotalRepos());
+        assertNull(actualGitHubUserSummaryDTO.getNextCursor());
+        verify(gitHubUserSummaryCache, never()).cacheResponse(anyString(), any());
+    }
+
+    @Test
+    void getUserSummary_profileOnly_skipsRepositoryCallAndCachesPartial() throws Exception {
+        when(gitHubApiClient.fetchUser(LOGIN)).thenReturn(githubUserDTO);
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO =
+                gitHubUserSummaryService.fetchUserSummary(LOGIN, null, Set.of(SummaryPart.PROFILE));
+        assertEquals(NAME, actualGitHubUserSummaryDTO.getDisplayName());
+        assertNull(actualGitHubUserSummaryDTO.getRepos());
+        assertEquals(Set.of(SummaryPart.PROFILE), actualGitHubUserSummaryDTO.getParts());
+        verify(gitHubApiClient, never()).fetchUserRepositories(anyString());
+        verify(gitHubApiClient, never()).fetchUserWithRepositories(anyString());
+        verify(gitHubUserSummaryCache).cacheResponse(LOGIN, actualGitHubUserSummaryDTO);
+    }
+
+    @Test
+    void getUserSummary_repositoriesOnly_skipsUserCall() throws Exception {
+        when(gitHubApiClient.fetchUserRepositories(LOGIN)).thenReturn(githubRepositoryDTOS);
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO =
+                gitHubUserSummaryService.fetchUserSummary(LOGIN, null, Set.of(SummaryPart.REPOSITORIES));
+        assertEquals(gitHubUserSummaryDTO.getRepos(), actualGitHubUserSummaryDTO.getRepos());
+        verify(gitHubApiClient, never()).fetchUser(anyString());
+        verify(gitHubApiClient, never()).fetchUserWithRepositories(anyString());
+    }
+
+    @Test
+    void getUserSummary_freshPartialCacheEntry_notServedToFullRequest() throws Exception {
+        GitHubUserSummaryDTO profileOnly = GitHubUserSummaryDTO.builder()
+                .userName(LOGIN)
+                .parts(Set.of(SummaryPart.PROFILE))
+                .build();
+        when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(profileOnly);
+        when(gitHubApiClient.fetchUserWithRepositories(LOGIN)).thenReturn(
+                new GitHubApiClient.GithubUserRepositories(githubUserDTO, githubRepositoryDTOS));
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO = gitHubUserSummaryService.fetchUserSummary(LOGIN);
+        assertEquals(gitHubUserSummaryDTO, actualGitHubUserSummaryDTO);
+        verify(gitHubUserSummaryCache).cacheResponse(LOGIN, gitHubUserSummaryDTO);
+    }
+
+    @Test
+    void getUserSummary_staleFullCacheEntry_profileMergedKeepingRepositories() throws Exception {
+        OffsetDateTime repositoriesSyncedAt = OffsetDateTime.now().minusMinutes(20);
+        GitHubUserSummaryDTO staleGitHubUserSummaryDTO = gitHubUserSummaryDTO.toBuilder()
+                .displayName("Old Name")
+                .profileSyncedAt(repositoriesSyncedAt)
+                .repositoriesSyncedAt(repositoriesSyncedAt)
+                .build();
+        when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(staleGitHubUserSummaryDTO);
+        when(gitHubUserSummaryCache.isFresh(LOGIN, Set.of(SummaryPart.PROFILE))).thenReturn(false);
+        when(gitHubApiClient.fetchUser(LOGIN)).thenReturn(githubUserDTO.toBuilder().publicRepos(3).build());
+
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO =
+                gitHubUserSummaryService.fetchUserSummary(LOGIN, null, Set.of(SummaryPart.PROFILE));
+        assertEquals(3, actualGitHubUserSummaryDTO.getTotalRepos());
+
+        ArgumentCaptor<GitHubUserSummaryDTO> cached = ArgumentCaptor.forClass(GitHubUserSummaryDTO.class);
+        verify(gitHubUserSummaryCache).cacheResponse(eq(LOGIN), cached.capture());
+        assertEquals(SummaryPart.all(), cached.getValue().getParts());
+        assertEquals(NAME, cached.getValue().getDisplayName());
+        assertEquals(gitHubUserSummaryDTO.getRepos(), cached.getValue().getRepos());
+        assertEquals(3, cached.getValue().getTotalRepos());
+        // only the profile was refreshed, the repositories go stale as before
+        assertEquals(repositoriesSyncedAt, cached.getValue().getRepositoriesSyncedAt());
+        assertTrue(cached.getValue().getProfileSyncedAt().isAfter(repositoriesSyncedAt));
+    }
+
+    @Test
+    void getUserSummary_deadlinePassedWithStaleCache_returnsCached() throws Exception {
+        when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(gitHubUserSummaryDTO);
+        when(gitHubApiClient.fetchUserWithRepositories(LOGIN))
+                .thenThrow(new ResourceAccessException("request timed out"));
+
+        try (RequestDeadline.Scope scope = RequestDeadline.start(Duration.ZERO)) {
+            assertEquals(gitHubUserSummaryDTO, gitHubUserSummaryService.fetchUserSummary(LOGIN));
+        }
+        assertEquals(1.0, meterRegistry.counter("github.summary.deadline.expired", "outcome", "cached").count());
+    }
+
+    @Test
+    void getUserSummary_deadlinePassesWhilePaging_returnsIncompleteSummaryWithoutCaching() throws Exception {
+        when(gitHubApiClient.fetchUser(LOGIN)).thenReturn(githubUserDTO.toBuilder().publicRepos(2).build());
+        doAnswer(invocation -> {
+            Consumer<List<GithubRepositoryDTO>> pageConsumer = invocation.getArgument(1);
+            pageConsumer.accept(List.of(githubRepositoryDTOS.get(0)));
+            throw new ResourceAccessException("request timed out");
+        }).when(gitHubApiClient).fetchUserRepositories(eq(LOGIN), any());
+
+        GitHubUserSummaryDTO actualGitHubUserSummaryDTO;
+        try (RequestDeadline.Scope scope = RequestDeadline.start(Duration.ZERO)) {
+            actualGitHubUserSummaryDTO = gitHubUserSummaryService.fetchUserSummary(LOGIN);
+        }
+        assertEquals(List.of(gitHubUserSummaryDTO.getRepos().get(0)), actualGitHubUserSummaryDTO.getRepos());
+        assertEquals(2, actualGitHubUserSummaryDTO.getTotalRepos());
+        assertEquals(RepositoryCursor.encode(1), actualGitHubUserSummaryDTO.getNextCursor());
+        assertTrue(actualGitHubUserSummaryDTO.getIncomplete());
+        verify(gitHubUserSummaryCache, never()).cacheResponse(anyString(), any());
+    }
+
+    @Test
+    void getUserSummary_deadlineNotReached_fetchesPagesAndCachesCompleteSummary() throws Exception {
+        when(gitHubApiClient.fetchUser(LOGIN)).thenReturn(githubUserDTO);
+        doAnswer(invocation -> {
+            Consumer<List<GithubRepositoryDTO>> pageConsumer = invocation.getArgument(1);
+            pageConsumer.accept(githubRepositoryDTOS);
+            return null;
+        }).when(gitHubApiClient).fetchUserRepositories(eq(LOGIN), any());
+
+        try (RequestDeadline.Scope scope = RequestDeadline.start(Duration.ofMinutes(1))) {
+            assertEquals(gitHubUserSummaryDTO, gitHubUserSummaryService.fetchUserSummary(LOGIN));
+        }
+        verify(gitHubUserSummaryCache).cacheResponse(LOGIN, gitHubUserSummaryDTO);
+    }
+
+    @Test
+    void getUserSummary_deadlinePassedWithoutCache_throwsRequestTimeout() throws Exception {
+        when(gitHubApiClient.fetchUser(LOGIN)).thenThrow(new ResourceAccessException("request timed out"));
+        when(gitHubApiClient.fetchUserWithRepositories(LOGIN)).thenThrow(new ResourceAccessException("connection refused"));
+
+        try (RequestDeadline.Scope scope = RequestDeadline.start(Duration.ZERO)) {
+            assertThrows(RequestTimeoutException.class, () -> gitHubUserSummaryService.fetchUserSummary(LOGIN));
+        }
+        // calls failing without a deadline are not mistaken for a timeout
+        assertThrows(ResourceAccessException.class, () -> gitHubUserSummaryService.fetchUserSummary(LOGIN));
+    }
+
+    @Test
+    void streamUserSummary_notCached_passesPagesOnAndCachesSummary() throws Exception {
+        when(gitHubApiClient.fetchUser(LOGIN)).thenReturn(githubUserDTO);
+        doAnswer(invocation -> {
+            Consumer<List<GithubRepositoryDTO>> pageConsumer = invocation.getArgument(1);
+            pageConsumer.accept(List.of(githubRepositoryDTOS.get(0)));
+            pageConsumer.accept(List.of(githubRepositoryDTOS.get(1)));
+            return null;
+        }).when(gitHubApiClient).fetchUserRepositories(eq(LOGIN), any());
+
+        SummaryStream summaryStream = gitHubUserSummaryService.streamUserSummary(LOGIN);
+        assertTrue(summaryStream.isStreamingRepositories());
+        assertEquals(LOGIN, summaryStream.summary().getUserName());
+        assertNull(summaryStream.summary().getRepos());
+        // nothing is cached until every page has been received
+        verify(gitHubUserSummaryCache, never()).cacheResponse(anyString(), any());
+
+        List<List<GithubRepositoryResponseDTO>> pages = new ArrayList<>();
+        assertEquals(SummaryStream.RepositoryPagesResult.complete(2), summaryStream.repositoryPages().forEachPage(pages::add));
+        assertEquals(List.of(List.of(gitHubUserSummaryDTO.getRepos().get(0)), List.of(gitHubUserSummaryDTO.getRepos().get(1))),
+                pages);
+        verify(gitHubUserSummaryCache).cacheResponse(LOGIN, gitHubUserSummaryDTO);
+    }
+
+    @Test
+    void streamUserSummary_deadlinePassesWhilePaging_endsIncompleteWithoutCaching() throws Exception {
+        when(gitHubApiClient.fetchUser(LOGIN)).thenReturn(githubUserDTO.toBuilder().publicRepos(2).build());
+        doAnswer(invocation -> {
+            Consumer<List<GithubRepositoryDTO>> pageConsumer = invocation.getArgument(1);
+            pageConsumer.accept(List.of(githubRepositoryDTOS.get(0)));
+            throw new ResourceAccessException("request timed out");
+        }).when(gitHubApiClient).fetchUserRepositories(eq(LOGIN), any());
+
+        List<List<GithubRepositoryResponseDTO>> pages = new ArrayList<>();
+        SummaryStream.RepositoryPagesResult repositoryPagesResult;
+        try (RequestDeadline.Scope scope = RequestDeadline.start(Duration.ofMinutes(1))) {
+            SummaryStream summaryStream = gitHubUserSummaryService.streamUserSummary(LOGIN);
+            try (RequestDeadline.Scope expired = RequestDeadline.start(Duration.ZERO)) {
+                repositoryPagesResult = summaryStream.repositoryPages().forEachPage(pages::add);
+            }
+        }
+        assertEquals(List.of(List.of(gitHubUserSummaryDTO.getRepos().get(0))), pages);
+        assertEquals(new SummaryStream.RepositoryPagesResult(2, RepositoryCursor.encode(1)), repositoryPagesResult);
+        assertTrue(repositoryPagesResult.isIncomplete());
+        verify(gitHubUserSummaryCache, never()).cacheResponse(anyString(), any());
+        assertEquals(1.0, meterRegistry.counter("github.summary.deadline.expired", "outcome", "incomplete").count());
+    }
+
+    @Test
+    void streamUserSummary_deadlinePassedBeforeUser_throwsRequestTimeout() throws Exception {
+        when(gitHubApiClient.fetchUser(LOGIN)).thenThrow(new ResourceAccessException("request timed out"));
+
+        try (RequestDeadline.Scope scope = RequestDeadline.start(Duration.ZERO)) {
+            assertThrows(RequestTimeoutException.class, () -> gitHubUserSummaryService.streamUserSummary(LOGIN));
+        }
+        assertEquals(1.0, meterRegistry.counter("github.summary.deadline.expired", "outcome", "timeout").count());
+        // calls failing without a deadline are not mistaken for a timeout
+        assertThrows(ResourceAccessException.class, () -> gitHubUserSummaryService.streamUserSummary(LOGIN));
+    }
+
+    @Test
+    void streamUserSummary_completeSummaryCached_returnsCompleteSummary() throws Exception {
+        when(gitHubUserSummaryCache.peek(LOGIN)).thenReturn(gitHubUserSummaryDTO);
+        when(gitHubUserSummaryCache.getResponseFromCache(LOGIN)).thenReturn(gitHubUserSummaryDTO);
+        when(gitHubUserSummaryCache.isFresh(LOGIN, SummaryPart.all())).thenReturn(true);
+
+        SummaryStream summaryStream = gitHubUserSummaryService.streamUserSummary(LOGIN);
+        assertFalse(summaryStream.isStreamingRepositories());
+        assertEquals(gitHubUserSummaryDTO, summaryStream.summary());
+        verify(gitHubApiClient, never()).fetchUser(anyString());
+    }
+
+    @Test
+    void streamUserSummary_userNotFound_throwsExceptionBeforeStreaming() throws Exception {
+        RestClientResponseException restClientResponseException =
+                new RestClientResponseException("Not Found", 404, "Not Found", null, null, null);
+        when(gitHubApiClient.fetchUser(LOGIN)).thenThrow(
+                new GitHubApiAccessException(restClientResponseException, LOGIN, "unknown user"));
+        assertThrows(GitHubUserNotFoundException.class, () -> gitHubUserSummaryService.streamUserSummary(LOGIN));
+        verify(gitHubUserNotFoundCache).recordUserNotFound(LOGIN);
+    }
+}
@@ -0,0 +1,76 @@
+package api.molby.githubSummary.api;
+
+import api.molby.githubSummary.config.JacksonConfig;
+import api.molby.githubSummary.exception.GitHubOrgNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(GithubOrgSummaryController.class)
+// excludes security for testing
+@AutoConfigureMockMvc(addFilters = false)
+@Import(JacksonConfig.class)
+class GithubOrgSummaryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private GitHubOrgSummaryService gitHubOrgSummaryService;
+
+    @Test
+    void getOrgSummary_withCursorAndFields_returnsFilteredMembers() throws Exception {
+        GitHubOrgSummaryDTO gitHubOrgSummaryDTO = GitHubOrgSummaryDTO.builder()
+                .orgName("github")
+                .members(List.of(GitHubUserSummaryDTO.builder()
+                        .userName("octocat").displayName("The Octocat").avatar("http://avatar").build()))
+                .unavailableMembers(List.of("hubot"))
+                .totalMembers(12)
+                .nextCursor(RepositoryCursor.encode(12))
+                .build();
+        when(gitHubOrgSummaryService.fetchOrgSummary(eq("github"), eq(10), eq(2), eq(Set.of(SummaryPart.PROFILE))))
+                .thenReturn(gitHubOrgSummaryDTO);
+
+        mockMvc.perform(get("/orgSummary/v1/{org}", "github")
+                        .param("limit", "2")
+                        .param("cursor", RepositoryCursor.encode(10))
+                        .param("fields", "userName,avatar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orgName").value("github"))
+                .andExpect(jsonPath("$.totalMembers").value(12))
+                .andExpect(jsonPath("$.unavailableMembers[0]").value("hubot"))
+                .andExpect(jsonPath("$.members[0].userName").value("octocat"))
+                .andExpect(jsonPath("$.members[0].avatar").value("http://avatar"))
+                .andExpect(jsonPath("$.members[0].displayName").doesNotExist());
+    }
+
+    @Test
+    void getOrgSummary_orgNotFound_returnsNotFound() throws Exception {
+        when(gitHubOrgSummaryService.fetchOrgSummary(eq("no-such-org"), eq(0), eq(30), eq(SummaryPart.all())))
+                .thenThrow(new GitHubOrgNotFoundException("no-such-org"));
+
+        mockMvc.perform(get("/orgSummary/v1/{org}", "no-such-org"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.orgName").value("no-such-org"));
+    }
+
+    @Test
+    void getOrgSummary_oversizedCursor_returnsBadRequest() throws Exception {
+        // an offset this large would overflow once the limit is added
+        mockMvc.perform(get("/orgSummary/v1/{org}", "github")
+                        .param("cursor", RepositoryCursor.encode(Integer.MAX_VALUE)))
+                .andExpect(status().isBadRequest());
+    }
+}
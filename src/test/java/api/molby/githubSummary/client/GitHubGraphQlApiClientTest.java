@@ -0,0 +1,156 @@
+package api.molby.githubSummary.client;
+
+import api.molby.githubSummary.exception.GitHubApiAccessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.RestClient;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GitHubGraphQlApiClientTest {
+
+    private static final String LOGIN = "octocat";
+    private static final String API_URL = "https://api.github.com";
+    private static final String TOKEN = "test-token";
+
+    private GitHubStandInServer gitHubStandInServer;
+    private GitHubGraphQlApiClient gitHubGraphQlApiClient;
+
+    @BeforeEach
+    void setUp() {
+        gitHubStandInServer = new GitHubStandInServer();
+        RestClient restClient = RestClient.builder()
+                .baseUrl(gitHubStandInServer.getBaseUrl() + "/graphql")
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)
+                .build();
+        gitHubGraphQlApiClient = new GitHubGraphQlApiClient(restClient, API_URL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gitHubStandInServer.close();
+    }
+
+    private void serveTwoPagesOfRepositories() {
+        gitHubStandInServer.respond("/graphql", body -> GitHubStandInServer.CannedResponse.ok(
+                GitHubStandInServer.resource(body.contains("\"after\":null")
+                        ? "/graphql/user-repositories-page-1.json"
+                        : "/graphql/user-repositories-page-2.json")));
+    }
+
+    @Test
+    void fetchUserWithRepositories_multiplePages_mapsUserAndAllRepos() throws Exception {
+        serveTwoPagesOfRepositories();
+        GitHubApiClient.GithubUserRepositories result = gitHubGraphQlApiClient.fetchUserWithRepositories(LOGIN);
+
+        GithubUserDTO githubUserDTO = result.githubUserDTO();
+        assertEquals(LOGIN, githubUserDTO.getLogin());
+        assertEquals("The Octocat", githubUserDTO.getName());
+        assertEquals("San Francisco", githubUserDTO.getLocation());
+        assertEquals(API_URL + "/users/octocat", githubUserDTO.getUrl());
+        assertEquals(OffsetDateTime.parse("2011-01-25T18:44:36Z"), githubUserDTO.getCreatedAt());
+        // graphql returns an empty string for a private email
+        assertNull(githubUserDTO.getEmail());
+
+        assertThat(result.githubRepositoryDTOS())
+                .extracting(GithubRepositoryDTO::getName)
+                .containsExactly("boysenberry-repo-1", "git-consortium", "hello-world");
+        assertEquals(API_URL + "/repos/octocat/hello-world", result.githubRepositoryDTOS().get(2).getUrl());
+
+        List<GitHubStandInServer.RecordedRequest> requests = gitHubStandInServer.getRecordedRequests();
+        assertEquals(2, requests.size());
+        assertEquals("POST", requests.get(0).method());
+        assertEquals("Bearer " + TOKEN, requests.get(0).authorization());
+        assertThat(requests.get(1).body()).contains("Y3Vyc29yOnYyOpHOAAAAAQ==");
+    }
+
+    @Test
+    void fetchUserRepositories_pageConsumer_receivesEachPageBeforeTheNextIsRequested() throws Exception {
+        gitHubStandInServer.respond("/graphql", body -> body.contains("\"after\":null")
+                ? GitHubStandInServer.CannedResponse.ok(GitHubStandInServer.resource("/graphql/user-repositories-page-1.json"))
+                : new GitHubStandInServer.CannedResponse(502, "{\"message\":\"Bad Gateway\"}", java.util.Map.of()));
+        List<List<String>> pages = new ArrayList<>();
+
+        assertThrows(GitHubApiAccessException.class, () -> gitHubGraphQlApiClient.fetchUserRepositories(LOGIN,
+                page -> pages.add(page.stream().map(GithubRepositoryDTO::getName).toList())));
+
+        // the first page is handed on even though the second failed
+        assertEquals(List.of(List.of("boysenberry-repo-1", "git-consortium")), pages);
+        assertEquals(2, gitHubStandInServer.getRecordedRequests().size());
+        assertThat(gitHubStandInServer.getRecordedRequests().get(0).body()).contains("\"orderField\":\"NAME\"");
+    }
+
+    @Test
+    void fetchUser_success_returnsUserDto() throws Exception {
+        serveTwoPagesOfRepositories();
+        GithubUserDTO githubUserDTO = gitHubGraphQlApiClient.fetchUser(LOGIN);
+        assertEquals(LOGIN, githubUserDTO.getLogin());
+        assertEquals(1, gitHubStandInServer.getRecordedRequests().size());
+    }
+
+    @Test
+    void fetchUserRepositoriesUpdatedSince_olderRepoReached_stopsPaging() throws Exception {
+        serveTwoPagesOfRepositories();
+        List<GithubRepositoryDTO> result = gitHubGraphQlApiClient.fetchUserRepositoriesUpdatedSince(
+                LOGIN, OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+        assertThat(result).extracting(GithubRepositoryDTO::getName).containsExactly("boysenberry-repo-1");
+        assertEquals(1, gitHubStandInServer.getRecordedRequests().size());
+        assertThat(gitHubStandInServer.getRecordedRequests().get(0).body()).contains("UPDATED_AT");
+    }
+
+    @Test
+    void fetchUser_notFoundError_wrappedAsNotFound() {
+        gitHubStandInServer.respond("/graphql", body -> GitHubStandInServer.CannedResponse.ok(
+                GitHubStandInServer.resource("/graphql/user-not-found.json")));
+        GitHubApiAccessException gitHubApiAccessException = assertThrows(
+                GitHubApiAccessException.class,
+                () -> gitHubGraphQlApiClient.fetchUser("no-such-user")
+        );
+        assertEquals(HttpStatus.NOT_FOUND, gitHubApiAccessException.getRootCause().getStatusCode());
+    }
+
+    @Test
+    void fetchUserWithRepositories_unauthorized_wrappedInGitHubApiAccessException() {
+        gitHubStandInServer.respond("/graphql", body -> new GitHubStandInServer.CannedResponse(
+                401, "{\"message\":\"Bad credentials\"}", java.util.Map.of()));
+        GitHubApiAccessException gitHubApiAccessException = assertThrows(
+                GitHubApiAccessException.class,
+                () -> gitHubGraphQlApiClient.fetchUserWithRepositories(LOGIN)
+        );
+        assertEquals(HttpStatus.UNAUTHORIZED, gitHubApiAccessException.getRootCause().getStatusCode());
+    }
+
+    @Test
+    void fetchOrganizationMembers_multiplePages_returnsAllLogins() throws Exception {
+        gitHubStandInServer.respond("/graphql", body -> GitHubStandInServer.CannedResponse.ok(
+                GitHubStandInServer.resource(body.contains("\"after\":null")
+                        ? "/graphql/org-members-page-1.json"
+                        : "/graphql/org-members-page-2.json")));
+        assertThat(gitHubGraphQlApiClient.fetchOrganizationMembers("github"))
+                .containsExactly("octocat", "hubot", "monalisa");
+        List<GitHubStandInServer.RecordedRequest> requests = gitHubStandInServer.getRecordedRequests();
+        assertEquals(2, requests.size());
+        assertThat(requests.get(1).body()).contains("Y3Vyc29yOnYyOpHOAAAAZA==");
+    }
+
+    @Test
+    void fetchOrganizationMembers_notFoundError_wrappedAsNotFound() {
+        gitHubStandInServer.respond("/graphql", body -> GitHubStandInServer.CannedResponse.ok(
+                GitHubStandInServer.resource("/graphql/org-not-found.json")));
+        GitHubApiAccessException gitHubApiAccessException = assertThrows(
+                GitHubApiAccessException.class,
+                () -> gitHubGraphQlApiClient.fetchOrganizationMembers("no-such-org")
+        );
+        assertEquals(HttpStatus.NOT_FOUND, gitHubApiAccessException.getRootCause().getStatusCode());
+    }
+}
@@ -19,16 +19,19 @@ import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
-class GitHubApiClientTest {
+class GitHubRestApiClientTest {
 
     private static final String LOGIN = "test_login";
     private static final String NAME = "Mr. Test Login";
@@ -63,7 +66,7 @@ class GitHubApiClientTest {
     private RestClient.ResponseSpec responseSpec;
 
     @InjectMocks
-    private GitHubApiClient gitHubApiClient;
+    private GitHubRestApiClient gitHubApiClient;
 
     @BeforeEach
     void setUp() {
@@ -166,6 +169,47 @@ class GitHubApiClientTest {
         assertThat(result).hasSize(2);
     }
 
+    @Test
+    void fetchUserRepositoriesUpdatedSince_olderRepoReached_stopsPaging() throws Exception {
+        when(gitHubRestClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        OffsetDateTime since = OffsetDateTime.now().minusHours(1);
+        // page indicates a next page exists, but it should never be requested
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK,
+                "<https://api.github.com/users/testuser/repos?page=2>; rel=\"next\"");
+        ResponseEntity<List<GithubRepositoryDTO>> entity = new ResponseEntity<>(List.of(
+                GithubRepositoryDTO.builder().name(REPO_NAME_1).url(REPO_URL_1).updatedAt(since.plusMinutes(5)).build(),
+                GithubRepositoryDTO.builder().name(REPO_NAME_2).url(REPO_URL_2).updatedAt(since.minusMinutes(5)).build()
+        ), headers, HttpStatus.OK);
+        when(responseSpec.toEntity(any(ParameterizedTypeReference.class))).thenReturn(entity);
+        List<GithubRepositoryDTO> result = gitHubApiClient.fetchUserRepositoriesUpdatedSince(LOGIN, since);
+        assertThat(result).extracting(GithubRepositoryDTO::getName).containsExactly(REPO_NAME_1);
+        verify(responseSpec, times(1)).toEntity(any(ParameterizedTypeReference.class));
+    }
+
+    @Test
+    void fetchUserWithRepositoryWindow_windowOnSecondPage_fetchesOnlySecondPage() throws Exception {
+        GithubUserDTO userWithRepos = githubUserDTO.toBuilder().publicRepos(150).build();
+        when(gitHubRestClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
+        when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(userWithRepos);
+        // second page of 100 holds repositories 100 to 149
+        List<GithubRepositoryDTO> secondPage = IntStream.range(100, 150)
+                .mapToObj(i -> GithubRepositoryDTO.builder().name("repo-" + i).build())
+                .toList();
+        when(responseSpec.toEntity(any(ParameterizedTypeReference.class)))
+                .thenReturn(new ResponseEntity<>(secondPage, new HttpHeaders(), HttpStatus.OK));
+        GitHubApiClient.GithubUserRepositoryWindow result = gitHubApiClient.fetchUserWithRepositoryWindow(LOGIN, 120, 20);
+        assertThat(result.githubRepositoryDTOS()).extracting(GithubRepositoryDTO::getName)
+                .containsExactlyElementsOf(IntStream.range(120, 140).mapToObj(i -> "repo-" + i).toList());
+        assertEquals(150, result.totalRepositories());
+        verify(responseSpec, times(1)).toEntity(any(ParameterizedTypeReference.class));
+    }
+
     @Test
     void fetchUserRepositories_restClientResponseException_wrappedInGitHubApiAccessException() {
         RestClientResponseException restClientResponseException =
@@ -185,4 +229,23 @@ class GitHubApiClientTest {
         );
         assertThat(gitHubApiAccessException.getMessage().equals("Internal Server Error"));
     }
+
+    @Test
+    void fetchOrganizationMembers_multiplePages_returnsAllLogins() throws Exception {
+        when(gitHubRestClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        HttpHeaders headersPage1 = new HttpHeaders();
+        headersPage1.add(HttpHeaders.LINK,
+                "<https://api.github.com/orgs/github/members?page=2>; rel=\"next\"");
+        when(responseSpec.toEntity(any(ParameterizedTypeReference.class)))
+                .thenReturn(new ResponseEntity<>(List.of(githubUserDTO), headersPage1, HttpStatus.OK))
+                .thenReturn(new ResponseEntity<>(List.of(githubUserDTO.toBuilder().login("hubot").build()),
+                        new HttpHeaders(), HttpStatus.OK));
+
+        List<String> result = gitHubApiClient.fetchOrganizationMembers("github");
+
+        assertThat(result).containsExactly(LOGIN, "hubot");
+        verify(responseSpec, times(2)).toEntity(any(ParameterizedTypeReference.class));
+    }
 }
@@ -0,0 +1,121 @@
+package api.molby.githubSummary.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Local stand in for the GitHub api serving canned responses.  Responses are chosen per path by a
+ * function of the request body, allowing GraphQL requests for different cursors to be answered
+ * differently.  Requests received are recorded so tests can verify the number of round trips.
+ */
+public class GitHubStandInServer implements AutoCloseable {
+
+    private final HttpServer httpServer;
+    private final Map<String, Function<String, CannedResponse>> responders = new ConcurrentHashMap<>();
+    private final List<RecordedRequest> recordedRequests = new CopyOnWriteArrayList<>();
+
+    public GitHubStandInServer() {
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        httpServer.createContext("/", this::handle);
+        httpServer.start();
+    }
+
+    /**
+     * @return base url of the stand in, e.g. http://localhost:12345
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Serve the response produced by the given function for requests to the given path.
+     * @param path request path without query string
+     * @param responder function of request body to response
+     */
+    public void respond(String path, Function<String, CannedResponse> responder) {
+        responders.put(path, responder);
+    }
+
+    /**
+     * Load a canned response body from the test classpath.
+     * @param resource classpath resource name
+     * @return resource contents
+     */
+    public static String resource(String resource) {
+        try (InputStream inputStream = GitHubStandInServer.class.getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("Missing test resource " + resource);
+            }
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<RecordedRequest> getRecordedRequests() {
+        return new ArrayList<>(recordedRequests);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        String path = exchange.getRequestURI().getPath();
+        recordedRequests.add(new RecordedRequest(exchange.getRequestMethod(), exchange.getRequestURI().toString(),
+                exchange.getRequestHeaders().getFirst("Authorization"), requestBody));
+        Function<String, CannedResponse> responder = responders.get(path);
+        CannedResponse cannedResponse = responder == null
+                ? new CannedResponse(404, "{\"message\":\"Not Found\"}", Map.of())
+                : responder.apply(requestBody);
+        byte[] body = cannedResponse.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        cannedResponse.headers().forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+        exchange.sendResponseHeaders(cannedResponse.status(), body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+    }
+
+    /**
+     * Canned response served by the stand in.
+     * @param status http status
+     * @param body json response body
+     * @param headers additional response headers
+     */
+    public record CannedResponse(int status, String body, Map<String, String> headers) {
+        public static CannedResponse ok(String body) {
+            return new CannedResponse(200, body, Map.of());
+        }
+    }
+
+    /**
+     * Request received by the stand in.
+     * @param method http method
+     * @param uri request uri including query string
+     * @param authorization authorization header, null if not sent
+     * @param body request body
+     */
+    public record RecordedRequest(String method, String uri, String authorization, String body) {}
+}
@@ -0,0 +1,194 @@
+package api.molby.githubSummary.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GitHubTokenPoolTest {
+
+    private static final long NOW = 1_700_000_000L;
+
+    private GitHubStandInServer gitHubStandInServer;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private final Deque<Map<String, String>> rateLimitHeaders = new ArrayDeque<>();
+
+    @BeforeEach
+    void setUp() {
+        gitHubStandInServer = new GitHubStandInServer();
+        gitHubStandInServer.respond("/users/octocat", body -> new GitHubStandInServer.CannedResponse(200,
+                "{\"login\":\"octocat\"}", rateLimitHeaders.isEmpty() ? Map.of() : rateLimitHeaders.poll()));
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.ofEpochSecond(NOW));
+    }
+
+    @AfterEach
+    void tearDown() {
+        gitHubStandInServer.close();
+    }
+
+    private RestClient restClient(GitHubTokenPool gitHubTokenPool) {
+        return RestClient.builder()
+                .baseUrl(gitHubStandInServer.getBaseUrl())
+                .requestInterceptor(gitHubTokenPool)
+                .build();
+    }
+
+    private void fetchUser(RestClient restClient) {
+        restClient.get().uri("/users/octocat").retrieve().toBodilessEntity();
+    }
+
+    private static Map<String, String> rateLimit(int limit, int remaining, long reset) {
+        return Map.of("X-RateLimit-Limit", String.valueOf(limit),
+                "X-RateLimit-Remaining", String.valueOf(remaining),
+                "X-RateLimit-Reset", String.valueOf(reset));
+    }
+
+    private String[] authorizations() {
+        return gitHubStandInServer.getRecordedRequests().stream()
+                .map(GitHubStandInServer.RecordedRequest::authorization)
+                .toArray(String[]::new);
+    }
+
+    @Test
+    void intercept_multipleTokens_usesTokenWithMostRemainingBudget() {
+        GitHubTokenPool gitHubTokenPool = new GitHubTokenPool(new String[] {"first", "second"}, meterRegistry, clock);
+        RestClient restClient = restClient(gitHubTokenPool);
+        rateLimitHeaders.add(rateLimit(5000, 10, NOW + 600));
+        rateLimitHeaders.add(rateLimit(5000, 4000, NOW + 600));
+        rateLimitHeaders.add(rateLimit(5000, 3999, NOW + 600));
+
+        fetchUser(restClient);
+        fetchUser(restClient);
+        fetchUser(restClient);
+
+        assertThat(authorizations()).containsExactly("Bearer first", "Bearer second", "Bearer second");
+        assertEquals(4009, gitHubTokenPool.getRemaining(GitHubTokenPool.CORE));
+    }
+
+    @Test
+    void intercept_tokenExhausted_restsUntilReset() {
+        GitHubTokenPool gitHubTokenPool = new GitHubTokenPool(new String[] {"first", "second"}, meterRegistry, clock);
+        RestClient restClient = restClient(gitHubTokenPool);
+        rateLimitHeaders.add(rateLimit(5000, 0, NOW + 600));
+        rateLimitHeaders.add(rateLimit(5000, 2, NOW + 600));
+        rateLimitHeaders.add(rateLimit(5000, 1, NOW + 600));
+
+        fetchUser(restClient);
+        fetchUser(restClient);
+        fetchUser(restClient);
+        clock.instant = Instant.ofEpochSecond(NOW + 600);
+        fetchUser(restClient);
+
+        // the first token rests while exhausted, even though the second is nearly used up too
+        assertThat(authorizations()).containsExactly("Bearer first", "Bearer second", "Bearer second", "Bearer first");
+        assertEquals(1.0, meterRegistry.get("github.token.exhausted").tag("token", "token-1").counter().count());
+    }
+
+    @Test
+    void intercept_resetAfter2038_restsUntilReset() {
+        long after2038 = Integer.MAX_VALUE + 1000L;
+        clock.instant = Instant.ofEpochSecond(after2038);
+        GitHubTokenPool gitHubTokenPool = new GitHubTokenPool(new String[] {"first", "second"}, meterRegistry, clock);
+        RestClient restClient = restClient(gitHubTokenPool);
+        rateLimitHeaders.add(rateLimit(5000, 0, after2038 + 600));
+        rateLimitHeaders.add(rateLimit(5000, 10, after2038 + 600));
+
+        fetchUser(restClient);
+        fetchUser(restClient);
+        clock.instant = Instant.ofEpochSecond(after2038 + 600);
+        fetchUser(restClient);
+
+        assertThat(authorizations()).containsExactly("Bearer first", "Bearer second", "Bearer first");
+    }
+
+    @Test
+    void intercept_exhaustedWithoutResetHeader_restsUntilResetKnown() {
+        GitHubTokenPool gitHubTokenPool = new GitHubTokenPool(new String[] {"first", "second"}, meterRegistry, clock);
+        RestClient restClient = restClient(gitHubTokenPool);
+        rateLimitHeaders.add(Map.of("X-RateLimit-Limit", "5000", "X-RateLimit-Remaining", "0"));
+        rateLimitHeaders.add(rateLimit(5000, 10, NOW + 600));
+        rateLimitHeaders.add(rateLimit(5000, 9, NOW + 600));
+
+        fetchUser(restClient);
+        fetchUser(restClient);
+        clock.instant = Instant.ofEpochSecond(NOW + 7200);
+        fetchUser(restClient);
+
+        // an unknown reset time is not taken as a reset that has already passed
+        assertThat(authorizations()).containsExactly("Bearer first", "Bearer second", "Bearer second");
+    }
+
+    @Test
+    void intercept_noRateLimitHeadersOrCallFails_refundsReservedCall() {
+        GitHubTokenPool gitHubTokenPool = new GitHubTokenPool(new String[] {"first"}, meterRegistry, clock);
+        RestClient restClient = restClient(gitHubTokenPool);
+
+        fetchUser(restClient);
+        assertEquals(5000, gitHubTokenPool.getRemaining(GitHubTokenPool.CORE));
+
+        gitHubStandInServer.close();
+        assertThrows(ResourceAccessException.class, () -> fetchUser(restClient));
+        assertEquals(5000, gitHubTokenPool.getRemaining(GitHubTokenPool.CORE));
+        assertEquals(2.0, meterRegistry.get("github.token.requests").tag("token", "token-1").counter().count());
+    }
+
+    @Test
+    void intercept_noTokens_sendsAnonymouslyAndLearnsLimit() {
+        GitHubTokenPool gitHubTokenPool = new GitHubTokenPool(new String[0], meterRegistry, clock);
+        rateLimitHeaders.add(rateLimit(60, 59, NOW + 3600));
+
+        fetchUser(restClient(gitHubTokenPool));
+
+        assertNull(gitHubStandInServer.getRecordedRequests().get(0).authorization());
+        assertEquals(60, gitHubTokenPool.getHourlyLimit(GitHubTokenPool.CORE));
+        assertEquals(59.0, meterRegistry.get("github.token.remaining")
+                .tags("token", "anonymous", "resource", "core").gauge().value());
+    }
+
+    @Test
+    void getHourlyLimit_multipleTokens_combinesLimits() {
+        GitHubTokenPool gitHubTokenPool = new GitHubTokenPool(new String[] {"first", " ", "second"}, meterRegistry, clock);
+        assertEquals(10000, gitHubTokenPool.getHourlyLimit(GitHubTokenPool.CORE));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
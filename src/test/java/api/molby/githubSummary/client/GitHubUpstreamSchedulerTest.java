@@ -0,0 +1,149 @@
+package api.molby.githubSummary.client;
+
+import api.molby.githubSummary.deadline.RequestDeadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GitHubUpstreamSchedulerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GitHubTokenPool gitHubTokenPool;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // anonymous pool, 60 calls an hour
+        gitHubTokenPool = new GitHubTokenPool(new String[0], meterRegistry);
+    }
+
+    private GitHubUpstreamScheduler scheduler(int maxConcurrency, String maxWait) {
+        return new GitHubUpstreamScheduler(gitHubTokenPool, meterRegistry, maxConcurrency, maxWait,
+                maxConcurrency, maxConcurrency, 0.1, maxConcurrency, 0.25);
+    }
+
+    private double queueDepth(UpstreamPriority upstreamPriority) {
+        return meterRegistry.get("github.upstream.queue.depth")
+                .tag("priority", upstreamPriority.name().toLowerCase()).gauge().value();
+    }
+
+    private double rejected(UpstreamPriority upstreamPriority, String reason) {
+        return meterRegistry.get("github.upstream.rejected")
+                .tags("priority", upstreamPriority.name().toLowerCase(), "reason", reason).counter().count();
+    }
+
+    @Test
+    void acquire_budgetAtFloor_refusesOnlyClassesReservingIt() {
+        GitHubUpstreamScheduler gitHubUpstreamScheduler = scheduler(4, "1s");
+        // leave 15 of 60, the background floor
+        for (int i = 0; i < 45; i++) {
+            gitHubTokenPool.selectToken(GitHubTokenPool.CORE);
+        }
+
+        HttpServerErrorException exception = assertThrows(HttpServerErrorException.class,
+                () -> gitHubUpstreamScheduler.acquire(UpstreamPriority.BACKGROUND, GitHubTokenPool.CORE));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        assertEquals(1, rejected(UpstreamPriority.BACKGROUND, "budget"));
+        gitHubUpstreamScheduler.acquire(UpstreamPriority.BULK, GitHubTokenPool.CORE).release();
+        gitHubUpstreamScheduler.acquire(UpstreamPriority.INTERACTIVE, GitHubTokenPool.CORE).release();
+    }
+
+    @Test
+    void acquire_slotFreed_startsQueuedCallsHighestClassFirst() throws Exception {
+        GitHubUpstreamScheduler gitHubUpstreamScheduler = scheduler(1, "10s");
+        GitHubUpstreamScheduler.Permit inFlight =
+                gitHubUpstreamScheduler.acquire(UpstreamPriority.INTERACTIVE, GitHubTokenPool.CORE);
+        List<UpstreamPriority> started = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        // queued lowest class first so the interactive call has to jump the queue
+        for (UpstreamPriority upstreamPriority : List.of(UpstreamPriority.BACKGROUND, UpstreamPriority.BULK,
+                UpstreamPriority.INTERACTIVE)) {
+            Thread thread = new Thread(() -> {
+                GitHubUpstreamScheduler.Permit permit =
+                        gitHubUpstreamScheduler.acquire(upstreamPriority, GitHubTokenPool.CORE);
+                started.add(upstreamPriority);
+                permit.release();
+            });
+            thread.start();
+            threads.add(thread);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (queueDepth(upstreamPriority) < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+
+        inFlight.release();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertThat(started).containsExactly(UpstreamPriority.INTERACTIVE, UpstreamPriority.BULK,
+                UpstreamPriority.BACKGROUND);
+        assertThat(meterRegistry.get("github.upstream.queue.wait").tag("priority", "background").timer()
+                .max(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    void acquire_noSlotWithinMaxWait_refusesCall() {
+        GitHubUpstreamScheduler gitHubUpstreamScheduler = scheduler(1, "50ms");
+        gitHubUpstreamScheduler.acquire(UpstreamPriority.BACKGROUND, GitHubTokenPool.CORE);
+
+        assertThrows(HttpServerErrorException.class,
+                () -> gitHubUpstreamScheduler.acquire(UpstreamPriority.INTERACTIVE, GitHubTokenPool.CORE));
+
+        assertEquals(1, rejected(UpstreamPriority.INTERACTIVE, "timeout"));
+        assertEquals(0, queueDepth(UpstreamPriority.INTERACTIVE));
+    }
+
+    @Test
+    void intercept_responseRead_releasesSlot() {
+        GitHubUpstreamScheduler gitHubUpstreamScheduler = scheduler(1, "50ms");
+        try (GitHubStandInServer gitHubStandInServer = new GitHubStandInServer()) {
+            gitHubStandInServer.respond("/users/octocat",
+                    body -> GitHubStandInServer.CannedResponse.ok("{\"login\":\"octocat\"}"));
+            RestClient restClient = RestClient.builder()
+                    .baseUrl(gitHubStandInServer.getBaseUrl())
+                    .requestInterceptor(gitHubUpstreamScheduler)
+                    .build();
+
+            // the second call would be refused if the first still held the only slot
+            restClient.get().uri("/users/octocat").retrieve().body(GithubUserDTO.class);
+            restClient.get().uri("/users/octocat").retrieve().body(GithubUserDTO.class);
+
+            assertEquals(2, gitHubStandInServer.getRecordedRequests().size());
+            assertEquals(0, meterRegistry.get("github.upstream.in.flight").tag("priority", "interactive").gauge().value());
+        }
+    }
+
+    @Test
+    void acquire_deadlineBeforeMaxWait_givesUpAtDeadline() {
+        GitHubUpstreamScheduler gitHubUpstreamScheduler = scheduler(1, "10s");
+        GitHubUpstreamScheduler.Permit inFlight =
+                gitHubUpstreamScheduler.acquire(UpstreamPriority.INTERACTIVE, GitHubTokenPool.CORE);
+
+        long start = System.nanoTime();
+        try (RequestDeadline.Scope scope = RequestDeadline.start(Duration.ofMillis(100))) {
+            assertThrows(HttpServerErrorException.class,
+                    () -> gitHubUpstreamScheduler.acquire(UpstreamPriority.INTERACTIVE, GitHubTokenPool.CORE));
+        }
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertEquals(1, rejected(UpstreamPriority.INTERACTIVE, "deadline"));
+        assertEquals(0, rejected(UpstreamPriority.INTERACTIVE, "timeout"));
+        inFlight.release();
+    }
+}
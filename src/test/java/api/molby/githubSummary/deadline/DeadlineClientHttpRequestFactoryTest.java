@@ -0,0 +1,71 @@
+package api.molby.githubSummary.deadline;
+
+import api.molby.githubSummary.client.GitHubStandInServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineClientHttpRequestFactoryTest {
+
+    private GitHubStandInServer gitHubStandInServer;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() {
+        gitHubStandInServer = new GitHubStandInServer();
+        gitHubStandInServer.respond("/users/octocat", body -> {
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return GitHubStandInServer.CannedResponse.ok("{\"login\":\"octocat\"}");
+        });
+        restClient = RestClient.builder()
+                .baseUrl(gitHubStandInServer.getBaseUrl())
+                .requestFactory(new DeadlineClientHttpRequestFactory(HttpClient.newHttpClient()))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gitHubStandInServer.close();
+    }
+
+    private String fetchUser() {
+        return restClient.get().uri("/users/octocat").retrieve().body(String.class);
+    }
+
+    @Test
+    void createRequest_deadlineBeforeResponse_cancelsCallAtDeadline() {
+        long start = System.nanoTime();
+        try (RequestDeadline.Scope scope = RequestDeadline.start(Duration.ofMillis(200))) {
+            assertThrows(ResourceAccessException.class, this::fetchUser);
+            assertTrue(RequestDeadline.isExpired());
+        }
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(800));
+        assertEquals(1, gitHubStandInServer.getRecordedRequests().size());
+    }
+
+    @Test
+    void createRequest_deadlinePassed_makesNoCall() {
+        try (RequestDeadline.Scope scope = RequestDeadline.start(Duration.ZERO)) {
+            ResourceAccessException exception = assertThrows(ResourceAccessException.class, this::fetchUser);
+            assertInstanceOf(DeadlineExceededException.class, exception.getCause());
+        }
+
+        assertThat(gitHubStandInServer.getRecordedRequests()).isEmpty();
+    }
+}
@@ -0,0 +1,42 @@
+package api.molby.githubSummary.deadline;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RequestDeadlineFilterTest {
+
+    private final RequestDeadlineFilter requestDeadlineFilter = new RequestDeadlineFilter();
+
+    private Duration remainingWithHeader(String requestTimeout) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/userSummary/v1/octocat");
+        if (requestTimeout != null) {
+            request.addHeader(RequestDeadlineFilter.REQUEST_TIMEOUT_HEADER, requestTimeout);
+        }
+        List<Duration> remaining = new ArrayList<>();
+        requestDeadlineFilter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> remaining.add(RequestDeadline.remaining()));
+        // the deadline only lasts as long as the request
+        assertNull(RequestDeadline.remaining());
+        return remaining.get(0);
+    }
+
+    @Test
+    void doFilter_requestTimeoutHeader_startsDeadline() throws Exception {
+        assertThat(remainingWithHeader("2s")).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(2));
+        // plain numbers are milliseconds
+        assertThat(remainingWithHeader("750")).isPositive().isLessThanOrEqualTo(Duration.ofMillis(750));
+    }
+
+    @Test
+    void doFilter_missingOrInvalidHeader_noDeadline() throws Exception {
+        assertNull(remainingWithHeader(null));
+        assertNull(remainingWithHeader("soon"));
+    }
+}
@@ -0,0 +1,66 @@
+package api.molby.githubSummary.diagnostics;
+
+import api.molby.githubSummary.client.GitHubStandInServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GitHubCallRecorderTest {
+
+    private static final String REPOSITORIES = "[{\"name\":\"hello-world\"}]";
+
+    @Test
+    void uriTemplate_userAndOrgPaths_replacesNames() {
+        assertEquals("/users/{username}/repos",
+                GitHubCallRecorder.uriTemplate(URI.create("https://api.github.com/users/octocat/repos?page=2")));
+        assertEquals("/orgs/{org}/members",
+                GitHubCallRecorder.uriTemplate(URI.create("https://api.github.com/orgs/github/members")));
+        assertEquals("/graphql", GitHubCallRecorder.uriTemplate(URI.create("https://api.github.com/graphql")));
+    }
+
+    @Test
+    void intercept_recording_emitsEventWithTemplatePageStatusAndBytes() throws Exception {
+        List<RecordedEvent> events;
+        try (GitHubStandInServer gitHubStandInServer = new GitHubStandInServer();
+             Recording recording = new Recording()) {
+            gitHubStandInServer.respond("/users/octocat/repos", body -> GitHubStandInServer.CannedResponse.ok(REPOSITORIES));
+            RestClient restClient = RestClient.builder()
+                    .baseUrl(gitHubStandInServer.getBaseUrl())
+                    .requestInterceptor(new GitHubCallRecorder())
+                    .build();
+            recording.enable(GitHubCallEvent.class);
+            recording.start();
+
+            restClient.get().uri("/users/octocat/repos?page=3").retrieve().body(String.class);
+
+            recording.stop();
+            Path dumpFile = Files.createTempFile("github-call", ".jfr");
+            try {
+                recording.dump(dumpFile);
+                events = RecordingFile.readAllEvents(dumpFile);
+            }
+            finally {
+                Files.deleteIfExists(dumpFile);
+            }
+        }
+
+        assertThat(events).hasSize(1);
+        RecordedEvent event = events.get(0);
+        assertEquals("githubSummary.GitHubCall", event.getEventType().getName());
+        assertEquals("GET", event.getString("method"));
+        assertEquals("/users/{username}/repos", event.getString("uriTemplate"));
+        assertEquals(3, event.getInt("page"));
+        assertEquals(200, event.getInt("status"));
+        assertEquals(REPOSITORIES.length(), event.getLong("bytes"));
+    }
+}
@@ -0,0 +1,62 @@
+package api.molby.githubSummary.management;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class FlightRecorderEndpointTest {
+
+    private static final String NAME = "flight-recorder-endpoint-test";
+
+    private final FlightRecorderEndpoint flightRecorderEndpoint = new FlightRecorderEndpoint();
+
+    @AfterEach
+    void tearDown() {
+        flightRecorderEndpoint.stop(NAME);
+    }
+
+    @Test
+    void start_thenDump_returnsJfrFileAndDeletesItOnceRead() throws Exception {
+        WebEndpointResponse<FlightRecorderEndpoint.RecordingReport> started =
+                flightRecorderEndpoint.start(NAME, "profile", "5m", "10MB");
+
+        assertEquals(200, started.getStatus());
+        assertEquals("running", started.getBody().state());
+        assertEquals(300L, started.getBody().maxAgeSeconds());
+        assertThat(flightRecorderEndpoint.recordings()).extracting(FlightRecorderEndpoint.RecordingReport::name)
+                .contains(NAME);
+
+        Resource dump = flightRecorderEndpoint.dump(NAME).getBody();
+        try (InputStream inputStream = dump.getInputStream()) {
+            // every jfr file starts with the FLR magic bytes
+            assertEquals("FLR", new String(inputStream.readNBytes(3)));
+        }
+        assertFalse(dump.getFile().exists());
+    }
+
+    @Test
+    void start_unknownSettings_returnsBadRequest() {
+        assertEquals(400, flightRecorderEndpoint.start(NAME, "no-such-settings", null, null).getStatus());
+    }
+
+    @Test
+    void start_invalidMaxAgeOrMaxSize_returnsBadRequestWithoutStarting() {
+        assertEquals(400, flightRecorderEndpoint.start(NAME, null, "soon", null).getStatus());
+        assertEquals(400, flightRecorderEndpoint.start(NAME, null, null, "lots").getStatus());
+        assertThat(flightRecorderEndpoint.recordings()).extracting(FlightRecorderEndpoint.RecordingReport::name)
+                .doesNotContain(NAME);
+    }
+
+    @Test
+    void dumpAndStop_unknownRecording_notFoundAndIgnored() throws Exception {
+        assertEquals(404, flightRecorderEndpoint.dump(NAME).getStatus());
+        flightRecorderEndpoint.stop(NAME);
+    }
+}
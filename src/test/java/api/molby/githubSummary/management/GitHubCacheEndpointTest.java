@@ -0,0 +1,117 @@
+package api.molby.githubSummary.management;
+
+import api.molby.githubSummary.api.GitHubUserSummaryCache;
+import api.molby.githubSummary.api.GitHubUserSummaryDTO;
+import api.molby.githubSummary.api.GitHubUserSummaryService;
+import api.molby.githubSummary.api.GithubRepositoryResponseDTO;
+import api.molby.githubSummary.exception.GitHubApiAccessException;
+import api.molby.githubSummary.refresh.HotUserTracker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.web.client.RestClientResponseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class GitHubCacheEndpointTest {
+
+    @Mock
+    private GitHubUserSummaryCache gitHubUserSummaryCache;
+
+    @Mock
+    private GitHubUserSummaryService gitHubUserSummaryService;
+
+    private HotUserTracker hotUserTracker;
+    private GitHubCacheEndpoint gitHubCacheEndpoint;
+
+    @BeforeEach
+    void setUp() {
+        hotUserTracker = new HotUserTracker(1000);
+        gitHubCacheEndpoint = new GitHubCacheEndpoint(gitHubUserSummaryCache, gitHubUserSummaryService,
+                hotUserTracker, 10);
+        when(gitHubUserSummaryCache.getFreshFor()).thenReturn(Duration.ofMinutes(15));
+    }
+
+    private GitHubUserSummaryDTO cacheUser(String username, int repositories, int accesses) {
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = GitHubUserSummaryDTO.builder()
+                .userName(username)
+                .repos(IntStream.range(0, repositories)
+                        .mapToObj(i -> GithubRepositoryResponseDTO.builder()
+                                .name("repo-" + i)
+                                .url("https://api.github.com/repos/" + username + "/repo-" + i)
+                                .build())
+                        .toList())
+                .totalRepos(repositories)
+                .build();
+        for (int i = 0; i < accesses; i++) {
+            hotUserTracker.recordAccess(username);
+        }
+        when(gitHubUserSummaryCache.peek(username)).thenReturn(gitHubUserSummaryDTO);
+        when(gitHubUserSummaryCache.getEntryAge(username)).thenReturn(Optional.of(Duration.ofMinutes(3)));
+        when(gitHubUserSummaryCache.isFresh(username)).thenReturn(true);
+        return gitHubUserSummaryDTO;
+    }
+
+    @Test
+    void cache_cachedUsers_reportsStatsSizeAndHottestUsers() {
+        GitHubUserSummaryDTO octocat = cacheUser("octocat", 2, 5);
+        GitHubUserSummaryDTO molby = cacheUser("molby", 1, 1);
+        when(gitHubUserSummaryCache.getCachedUserNames()).thenReturn(Set.of("octocat", "molby"));
+        when(gitHubUserSummaryCache.getEstimatedSize()).thenReturn(2L);
+        when(gitHubUserSummaryCache.getStats()).thenReturn(CacheStats.of(3, 1, 0, 0, 0, 4, 4));
+
+        GitHubCacheEndpoint.CacheReport cacheReport = gitHubCacheEndpoint.cache(1);
+
+        assertEquals(2, cacheReport.entries());
+        assertEquals(GitHubCacheEndpoint.estimateBytes("octocat", octocat)
+                + GitHubCacheEndpoint.estimateBytes("molby", molby), cacheReport.estimatedBytes());
+        assertEquals(new GitHubCacheEndpoint.CacheStatistics(3, 1, 0.75, 4), cacheReport.stats());
+        assertThat(cacheReport.hottest()).extracting(GitHubCacheEndpoint.EntryReport::userName)
+                .containsExactly("octocat");
+        assertEquals(180L, cacheReport.hottest().get(0).ageSeconds());
+    }
+
+    @Test
+    void entry_notCached_returnsNull() {
+        assertNull(gitHubCacheEndpoint.entry("octocat"));
+    }
+
+    @Test
+    void evict_mixedCaseUsername_evictsLowercaseKey() {
+        gitHubCacheEndpoint.evict("OctoCat");
+        verify(gitHubUserSummaryCache).evict("octocat");
+    }
+
+    @Test
+    void refresh_mixedUsers_reportsOutcomePerUser() throws Exception {
+        when(gitHubUserSummaryService.refreshUserSummary("octocat"))
+                .thenReturn(GitHubUserSummaryDTO.builder().userName("octocat").totalRepos(8).build());
+        when(gitHubUserSummaryService.refreshUserSummary("missing")).thenThrow(new GitHubApiAccessException(
+                new RestClientResponseException("Not Found", 404, "Not Found", null, null, null), "missing", "not found"));
+
+        List<GitHubCacheEndpoint.RefreshResult> refreshResults =
+                gitHubCacheEndpoint.refresh(List.of("OctoCat", "missing", "~bad"));
+
+        assertTrue(refreshResults.get(0).refreshed());
+        assertEquals(new GitHubCacheEndpoint.RefreshResult("missing", false, "User not found."), refreshResults.get(1));
+        assertEquals(new GitHubCacheEndpoint.RefreshResult("~bad", false, "Username provided was invalid."),
+                refreshResults.get(2));
+    }
+}
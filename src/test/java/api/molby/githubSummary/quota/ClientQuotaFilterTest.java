@@ -0,0 +1,93 @@
+package api.molby.githubSummary.quota;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ClientQuotaFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    // keyed clients hold 20 tokens and anonymous addresses 3, a github call costs 5 and a request 1
+    private final ClientQuotas clientQuotas = new ClientQuotas(new String[] {"dashboard:dashboard-key"},
+            20, 0.1, 3, 0.1, 16, 1, 5, meterRegistry);
+    private final ClientQuotaFilter clientQuotaFilter = new ClientQuotaFilter(clientQuotas, objectMapper);
+
+    private MockHttpServletResponse get(String apiKey, String remoteAddress, int upstreamCalls) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/userSummary/v1/octocat");
+        request.setRemoteAddr(remoteAddress);
+        if (apiKey != null) {
+            request.addHeader(ClientQuotas.API_KEY_HEADER, apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        clientQuotaFilter.doFilter(request, response, (req, res) -> {
+            for (int i = 0; i < upstreamCalls; i++) {
+                ClientUsage.recordUpstreamCall();
+            }
+        });
+        return response;
+    }
+
+    private double requests(String client, String outcome) {
+        return meterRegistry.get("api.client.requests").tags("client", client, "outcome", outcome).counter().count();
+    }
+
+    @Test
+    void doFilter_upstreamCallsCharged_cacheHitsCheaperUntilQuotaUsedUp() throws Exception {
+        // a request and three github calls, 16 of 20 tokens
+        assertEquals(200, get("dashboard-key", "10.0.0.1", 3).getStatus());
+        // cache hits only cost the request
+        for (int i = 0; i < 4; i++) {
+            assertEquals(200, get("dashboard-key", "10.0.0.1", 0).getStatus());
+        }
+
+        MockHttpServletResponse refused = get("dashboard-key", "10.0.0.1", 0);
+        assertEquals(429, refused.getStatus());
+        assertEquals("10", refused.getHeader("Retry-After"));
+        JsonNode problemDetail = objectMapper.readTree(refused.getContentAsString());
+        assertEquals("Client quota exceeded", problemDetail.get("title").asText());
+        assertEquals("dashboard", problemDetail.get("client").asText());
+
+        assertEquals(5, requests("dashboard", "admitted"));
+        assertEquals(1, requests("dashboard", "throttled"));
+        assertEquals(20, meterRegistry.get("api.client.tokens.charged").tag("client", "dashboard").counter().count());
+        assertEquals(3, meterRegistry.get("api.client.upstream.calls").tag("client", "dashboard").counter().count());
+    }
+
+    @Test
+    void doFilter_unknownOrMissingKey_anonymousQuotaByAddress() throws Exception {
+        assertEquals(200, get("guessed-key", "10.0.0.1", 0).getStatus());
+        assertEquals(200, get(null, "10.0.0.1", 0).getStatus());
+        assertEquals(200, get(null, "10.0.0.1", 0).getStatus());
+        assertEquals(429, get(null, "10.0.0.1", 0).getStatus());
+
+        // other callers and keyed clients have their own buckets
+        assertEquals(200, get(null, "10.0.0.2", 0).getStatus());
+        assertEquals(200, get("dashboard-key", "10.0.0.1", 0).getStatus());
+        assertEquals(1, requests(ClientQuotas.ANONYMOUS, "throttled"));
+    }
+
+    @Test
+    void doFilter_refused_requestNotHandled() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            get(null, "10.0.0.3", 0);
+        }
+        MockFilterChain filterChain = new MockFilterChain();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orgSummary/v1/github");
+        request.setRemoteAddr("10.0.0.3");
+        clientQuotaFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        assertNull(filterChain.getRequest());
+        assertThat(clientQuotas.report()).extracting(ClientQuotas.ClientReport::client)
+                .containsExactly("dashboard", ClientQuotas.ANONYMOUS);
+    }
+}
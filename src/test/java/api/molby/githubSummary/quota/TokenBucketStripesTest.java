@@ -0,0 +1,44 @@
+package api.molby.githubSummary.quota;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketStripesTest {
+
+    private final AtomicLong nanoTime = new AtomicLong(123_456_789L);
+    // 10 tokens, refilled at 2 a second
+    private final TokenBucketStripes tokenBucketStripes = new TokenBucketStripes(4, 10, 2, nanoTime::get);
+
+    private void advance(long millis) {
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    void tryTake_burstUsedUp_refusesUntilRefilled() {
+        assertEquals(0, tokenBucketStripes.tryTake(0, 4));
+        assertEquals(0, tokenBucketStripes.tryTake(0, 6));
+
+        // one token takes half a second to refill
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), tokenBucketStripes.tryTake(0, 1));
+        advance(499);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), tokenBucketStripes.tryTake(0, 1));
+        advance(1);
+        assertEquals(0, tokenBucketStripes.tryTake(0, 1));
+        // other stripes are untouched
+        assertEquals(10.0, tokenBucketStripes.available(1));
+    }
+
+    @Test
+    void take_moreThanAvailable_leavesBucketInDebt() {
+        tokenBucketStripes.take(2, 14);
+
+        assertEquals(-4.0, tokenBucketStripes.available(2));
+        assertEquals(TimeUnit.SECONDS.toNanos(3), tokenBucketStripes.tryTake(2, 2));
+        advance(10_000);
+        // refills up to capacity only
+        assertEquals(10.0, tokenBucketStripes.available(2));
+    }
+}
@@ -0,0 +1,39 @@
+package api.molby.githubSummary.refresh;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FrequencySketchTest {
+
+    @Test
+    void frequency_afterIncrements_returnsAtLeastIncrementCount() {
+        FrequencySketch frequencySketch = new FrequencySketch(1000);
+        for (int i = 0; i < 5; i++) {
+            frequencySketch.increment("octocat");
+        }
+        frequencySketch.increment("defunkt");
+        assertThat(frequencySketch.frequency("octocat")).isGreaterThanOrEqualTo(5);
+        assertThat(frequencySketch.frequency("defunkt")).isGreaterThanOrEqualTo(1);
+        assertThat(frequencySketch.frequency("octocat")).isGreaterThan(frequencySketch.frequency("defunkt"));
+    }
+
+    @Test
+    void frequency_unknownKey_returnsZero() {
+        FrequencySketch frequencySketch = new FrequencySketch(1000);
+        frequencySketch.increment("octocat");
+        assertEquals(0, frequencySketch.frequency("never-requested"));
+    }
+
+    @Test
+    void reset_halvesCounts() {
+        FrequencySketch frequencySketch = new FrequencySketch(1000);
+        for (int i = 0; i < 8; i++) {
+            frequencySketch.increment("octocat");
+        }
+        int before = frequencySketch.frequency("octocat");
+        frequencySketch.reset();
+        assertEquals(before / 2, frequencySketch.frequency("octocat"));
+    }
+}
@@ -0,0 +1,154 @@
+package api.molby.githubSummary.refresh;
+
+import api.molby.githubSummary.api.GitHubUserSummaryCache;
+import api.molby.githubSummary.api.GitHubUserSummaryDTO;
+import api.molby.githubSummary.api.GitHubUserSummaryService;
+import api.molby.githubSummary.api.GithubRepositoryResponseDTO;
+import api.molby.githubSummary.client.GitHubTokenPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class HotUserRefresherTest {
+
+    private static final Duration FRESH_FOR = Duration.ofMinutes(15);
+    private static final Duration DUE_AGE = Duration.ofMinutes(14);
+    private static final Duration YOUNG_AGE = Duration.ofMinutes(1);
+
+    @Mock
+    private GitHubUserSummaryService gitHubUserSummaryService;
+
+    @Mock
+    private GitHubUserSummaryCache gitHubUserSummaryCache;
+
+    @Mock
+    private GitHubTokenPool gitHubTokenPool;
+
+    private HotUserTracker hotUserTracker;
+
+    @BeforeEach
+    void setUp() {
+        hotUserTracker = new HotUserTracker(1000);
+        when(gitHubUserSummaryCache.getFreshFor()).thenReturn(FRESH_FOR);
+        when(gitHubTokenPool.getHourlyLimit(GitHubTokenPool.CORE)).thenReturn(36000);
+    }
+
+    /**
+     * 36000 requests an hour with half reserved for refresh gives 5 calls for a 1 second run.
+     */
+    private HotUserRefresher refresher() {
+        return new HotUserRefresher(gitHubUserSummaryService, gitHubUserSummaryCache, hotUserTracker,
+                gitHubTokenPool, new SimpleMeterRegistry(), 50, 3, "2m", 1000, 0.5);
+    }
+
+    private void cacheUser(String username, Duration age, int accesses) {
+        for (int i = 0; i < accesses; i++) {
+            hotUserTracker.recordAccess(username);
+        }
+        when(gitHubUserSummaryCache.getEntryAge(username)).thenReturn(Optional.of(age));
+        when(gitHubUserSummaryCache.peek(username)).thenReturn(
+                GitHubUserSummaryDTO.builder().userName(username).repos(Collections.emptyList()).build());
+    }
+
+    @Test
+    void refreshHotUsers_hotUserDueForRefresh_refreshesUser() throws Exception {
+        cacheUser("octocat", DUE_AGE, 10);
+        when(gitHubUserSummaryCache.getCachedUserNames()).thenReturn(Set.of("octocat"));
+        refresher().refreshHotUsers();
+        verify(gitHubUserSummaryService).refreshUserSummary("octocat");
+    }
+
+    @Test
+    void refreshHotUsers_coldUser_notRefreshed() throws Exception {
+        cacheUser("octocat", DUE_AGE, 1);
+        when(gitHubUserSummaryCache.getCachedUserNames()).thenReturn(Set.of("octocat"));
+        refresher().refreshHotUsers();
+        verify(gitHubUserSummaryService, never()).refreshUserSummary(anyString());
+    }
+
+    @Test
+    void refreshHotUsers_recentlyFetchedUser_notRefreshed() throws Exception {
+        cacheUser("octocat", YOUNG_AGE, 10);
+        when(gitHubUserSummaryCache.getCachedUserNames()).thenReturn(Set.of("octocat"));
+        refresher().refreshHotUsers();
+        verify(gitHubUserSummaryService, never()).refreshUserSummary(anyString());
+    }
+
+    @Test
+    void refreshHotUsers_budgetExhausted_refreshesHottestFirst() throws Exception {
+        // each user costs 2 calls, so only two of the three fit in the 5 call budget
+        cacheUser("hottest", DUE_AGE, 30);
+        cacheUser("hotter", DUE_AGE, 20);
+        cacheUser("hot", DUE_AGE, 10);
+        when(gitHubUserSummaryCache.getCachedUserNames()).thenReturn(Set.of("hot", "hotter", "hottest"));
+        refresher().refreshHotUsers();
+        verify(gitHubUserSummaryService).refreshUserSummary("hottest");
+        verify(gitHubUserSummaryService).refreshUserSummary("hotter");
+        verify(gitHubUserSummaryService, never()).refreshUserSummary("hot");
+    }
+
+    @Test
+    void refreshHotUsers_idleRuns_unusedBudgetNotCarriedOver() throws Exception {
+        HotUserRefresher hotUserRefresher = refresher();
+        when(gitHubUserSummaryCache.getCachedUserNames()).thenReturn(Set.of());
+        for (int i = 0; i < 10; i++) {
+            hotUserRefresher.refreshHotUsers();
+        }
+        cacheUser("hottest", DUE_AGE, 30);
+        cacheUser("hotter", DUE_AGE, 20);
+        cacheUser("hot", DUE_AGE, 10);
+        when(gitHubUserSummaryCache.getCachedUserNames()).thenReturn(Set.of("hot", "hotter", "hottest"));
+
+        hotUserRefresher.refreshHotUsers();
+
+        // still only the 5 calls of a single run
+        verify(gitHubUserSummaryService).refreshUserSummary("hottest");
+        verify(gitHubUserSummaryService).refreshUserSummary("hotter");
+        verify(gitHubUserSummaryService, never()).refreshUserSummary("hot");
+    }
+
+    @Test
+    void refreshHotUsers_refreshCostsMoreThanRun_madeWhenBudgetWholeAndPaidBack() throws Exception {
+        // half a call per run, and each refresh costs 2
+        when(gitHubTokenPool.getHourlyLimit(GitHubTokenPool.CORE)).thenReturn(3600);
+        HotUserRefresher hotUserRefresher = refresher();
+        cacheUser("octocat", DUE_AGE, 10);
+        when(gitHubUserSummaryCache.getCachedUserNames()).thenReturn(Set.of("octocat"));
+
+        for (int i = 0; i < 4; i++) {
+            hotUserRefresher.refreshHotUsers();
+        }
+        verify(gitHubUserSummaryService, times(1)).refreshUserSummary("octocat");
+
+        hotUserRefresher.refreshHotUsers();
+        verify(gitHubUserSummaryService, times(2)).refreshUserSummary("octocat");
+    }
+
+    @Test
+    void estimateUpstreamCalls_multiplePagesOfRepos_countsUserAndPages() {
+        GitHubUserSummaryDTO gitHubUserSummaryDTO = GitHubUserSummaryDTO.builder()
+                .repos(Collections.nCopies(61, GithubRepositoryResponseDTO.builder().name("repo").build()))
+                .build();
+        assertEquals(4, HotUserRefresher.estimateUpstreamCalls(gitHubUserSummaryDTO));
+        assertEquals(2, HotUserRefresher.estimateUpstreamCalls(null));
+    }
+}
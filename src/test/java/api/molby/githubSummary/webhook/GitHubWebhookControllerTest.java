@@ -0,0 +1,77 @@
+package api.molby.githubSummary.webhook;
+
+import api.molby.githubSummary.client.GitHubStandInServer;
+import api.molby.githubSummary.config.JacksonConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = GitHubWebhookController.class, properties = "github.webhook.secret=" + GitHubWebhookControllerTest.SECRET)
+// excludes security for testing
+@AutoConfigureMockMvc(addFilters = false)
+@Import(JacksonConfig.class)
+class GitHubWebhookControllerTest {
+
+    static final String SECRET = "It's a Secret to Everybody";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private GitHubWebhookService gitHubWebhookService;
+
+    private final byte[] payload = GitHubStandInServer.resource("/webhook/repository-created.json")
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void receive_validSignature_appliesEvent() throws Exception {
+        when(gitHubWebhookService.handle(eq("repository"), any(JsonNode.class)))
+                .thenReturn(new WebhookResult("repository", "created", WebhookOutcome.PATCHED));
+
+        mockMvc.perform(post("/webhook/v1/github")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-GitHub-Event", "repository")
+                        .header("X-GitHub-Delivery", "72d3162e-cc78-11e3-81ab-4c9367dc0958")
+                        .header("X-Hub-Signature-256", "sha256=" + new GitHubWebhookSignature(SECRET).sign(payload))
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.outcome").value("patched"));
+
+        verify(gitHubWebhookService).handle(eq("repository"),
+                argThat(json -> "octo-notes".equals(json.path("repository").path("name").asText())));
+    }
+
+    @Test
+    void receive_signedWithOtherSecretOrUnsigned_returnsUnauthorized() throws Exception {
+        mockMvc.perform(post("/webhook/v1/github")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-GitHub-Event", "repository")
+                        .header("X-Hub-Signature-256", "sha256=" + new GitHubWebhookSignature("other").sign(payload))
+                        .content(payload))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/webhook/v1/github")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-GitHub-Event", "repository")
+                        .content(payload))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(gitHubWebhookService);
+    }
+}
@@ -0,0 +1,158 @@
+package api.molby.githubSummary.webhook;
+
+import api.molby.githubSummary.api.GitHubOrgMemberCache;
+import api.molby.githubSummary.api.GitHubUserNotFoundCache;
+import api.molby.githubSummary.api.GitHubUserSummaryCache;
+import api.molby.githubSummary.api.GitHubUserSummaryDTO;
+import api.molby.githubSummary.api.GitHubUserSummaryService;
+import api.molby.githubSummary.api.GithubRepositoryResponseDTO;
+import api.molby.githubSummary.api.SummaryPart;
+import api.molby.githubSummary.client.GitHubApiClient;
+import api.molby.githubSummary.client.GitHubStandInServer;
+import api.molby.githubSummary.refresh.HotUserTracker;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class GitHubWebhookServiceTest {
+
+    @Mock
+    private GitHubUserNotFoundCache gitHubUserNotFoundCache;
+
+    @Mock
+    private GitHubApiClient gitHubApiClient;
+
+    @Mock
+    private HotUserTracker hotUserTracker;
+
+    @Mock
+    private GitHubOrgMemberCache gitHubOrgMemberCache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager(GitHubUserSummaryCache.CACHE_NAME);
+    private GitHubUserSummaryCache gitHubUserSummaryCache;
+    private GitHubWebhookService gitHubWebhookService;
+
+    @BeforeEach
+    void setUp() {
+        gitHubUserSummaryCache = new GitHubUserSummaryCache(cacheManager, "15m");
+        GitHubUserSummaryService gitHubUserSummaryService = new GitHubUserSummaryService(gitHubUserSummaryCache,
+                gitHubUserNotFoundCache, gitHubApiClient, hotUserTracker, meterRegistry, "6h");
+        gitHubWebhookService = new GitHubWebhookService(gitHubUserSummaryService, gitHubOrgMemberCache, meterRegistry);
+        cacheManager.getCache(GitHubUserSummaryCache.CACHE_NAME).put("octocat", GitHubUserSummaryDTO.builder()
+                .userName("octocat")
+                .repos(List.of(repository("git-consortium"), repository("Hello-World"), repository("Spoon-Knife")))
+                .totalRepos(3)
+                .build());
+    }
+
+    private static GithubRepositoryResponseDTO repository(String name) {
+        return GithubRepositoryResponseDTO.builder().name(name).url("https://api.github.com/repos/octocat/" + name).build();
+    }
+
+    private WebhookResult deliver(String event, String recordedPayload) throws Exception {
+        JsonNode payload = objectMapper.readTree(GitHubStandInServer.resource("/webhook/" + recordedPayload));
+        return gitHubWebhookService.handle(event, payload);
+    }
+
+    private List<String> cachedRepositoryNames(String username) {
+        return gitHubUserSummaryCache.peek(username).getRepos().stream().map(GithubRepositoryResponseDTO::getName).toList();
+    }
+
+    @Test
+    void handle_repositoryCreated_addsRepositoryInNameOrder() throws Exception {
+        WebhookResult result = deliver("repository", "repository-created.json");
+
+        assertEquals(new WebhookResult("repository", "created", WebhookOutcome.PATCHED), result);
+        assertThat(cachedRepositoryNames("octocat"))
+                .containsExactly("git-consortium", "Hello-World", "octo-notes", "Spoon-Knife");
+        assertEquals(4, gitHubUserSummaryCache.peek("octocat").getTotalRepos());
+        assertEquals("https://api.github.com/repos/octocat/octo-notes",
+                gitHubUserSummaryCache.peek("octocat").getRepos().get(2).getUrl());
+        assertEquals(1, meterRegistry.get("github.webhook.events")
+                .tags("event", "repository", "outcome", "patched").counter().count());
+    }
+
+    @Test
+    void handle_repositoryDeletedAndRenamed_patchesRepositoryList() throws Exception {
+        assertEquals(WebhookOutcome.PATCHED, deliver("repository", "repository-deleted.json").outcome());
+        assertEquals(WebhookOutcome.PATCHED, deliver("repository", "repository-renamed.json").outcome());
+
+        assertThat(cachedRepositoryNames("octocat")).containsExactly("Fork-Knife", "git-consortium");
+        assertEquals(2, gitHubUserSummaryCache.peek("octocat").getTotalRepos());
+    }
+
+    @Test
+    void handle_repositoryCreatedForStaleEntry_entryStaysStale() throws Exception {
+        cacheManager.setCaffeine(Caffeine.newBuilder().expireAfter(GitHubUserSummaryCache.expiry(Duration.ofMinutes(60))));
+        OffsetDateTime syncedAt = OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(16);
+        cacheManager.getCache(GitHubUserSummaryCache.CACHE_NAME).put("octocat", GitHubUserSummaryDTO.builder()
+                .userName("octocat")
+                .repos(List.of(repository("Hello-World")))
+                .totalRepos(1)
+                .profileSyncedAt(syncedAt)
+                .repositoriesSyncedAt(syncedAt)
+                .build());
+
+        assertEquals(WebhookOutcome.PATCHED, deliver("repository", "repository-created.json").outcome());
+
+        assertThat(cachedRepositoryNames("octocat")).containsExactly("Hello-World", "octo-notes");
+        assertThat(gitHubUserSummaryCache.isFresh("octocat")).isFalse();
+        assertThat(gitHubUserSummaryCache.getEntryAge("octocat")).hasValueSatisfying(
+                age -> assertThat(age).isGreaterThanOrEqualTo(Duration.ofMinutes(16)));
+        // expiry carries on from the original fetch rather than starting again
+        Cache<Object, Object> nativeCache = ((CaffeineCache) cacheManager.getCache(GitHubUserSummaryCache.CACHE_NAME))
+                .getNativeCache();
+        assertThat(nativeCache.policy().expireVariably().orElseThrow().getExpiresAfter("octocat")).hasValueSatisfying(
+                remaining -> assertThat(remaining).isLessThanOrEqualTo(Duration.ofMinutes(44)));
+    }
+
+    @Test
+    void handle_ownerNotCachedOrProfileOnly_nothingPatched() throws Exception {
+        // the cache annotations need a spring proxy so the cache is written directly
+        cacheManager.getCache(GitHubUserSummaryCache.CACHE_NAME).evict("octocat");
+        assertEquals(WebhookOutcome.NOT_CACHED, deliver("repository", "repository-created.json").outcome());
+
+        cacheManager.getCache(GitHubUserSummaryCache.CACHE_NAME).put("octocat", GitHubUserSummaryDTO.builder()
+                .userName("octocat").parts(Set.of(SummaryPart.PROFILE)).build());
+        assertEquals(WebhookOutcome.NOT_CACHED, deliver("repository", "repository-created.json").outcome());
+    }
+
+    @Test
+    void handle_organizationMemberAdded_evictsMemberList() throws Exception {
+        WebhookResult result = deliver("organization", "organization-member-added.json");
+
+        assertEquals(WebhookOutcome.EVICTED, result.outcome());
+        verify(gitHubOrgMemberCache).evict("github");
+    }
+
+    @Test
+    void handle_collaboratorAddedAndPing_ignored() throws Exception {
+        assertEquals(WebhookOutcome.IGNORED, deliver("member", "member-added.json").outcome());
+        assertEquals(new WebhookResult("ping", null, WebhookOutcome.IGNORED), deliver("ping", "ping.json"));
+
+        assertThat(cachedRepositoryNames("octocat")).hasSize(3);
+        verifyNoInteractions(gitHubOrgMemberCache);
+    }
+}